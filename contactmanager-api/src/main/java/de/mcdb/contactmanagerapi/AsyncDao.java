@@ -0,0 +1,146 @@
+package de.mcdb.contactmanagerapi;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Asynchronous variant of {@link Dao}.
+ * <p>
+ * Every method runs the matching method of a {@link Dao} on a background
+ * thread and returns a {@link CompletableFuture} which is completed with its
+ * result, or completed exceptionally with the thrown exception. The calling
+ * thread, e.g. the JavaFX application thread, never waits for the database.
+ * <p>
+ * Implementations run on a bounded executor: if too many operations are
+ * waiting already, the returned future fails with a
+ * {@link RejectedExecutionException} instead of queueing more work.
+ *
+ * @param <T> generic placeolder for the concrete entity class
+ * @author Mirko Schulze
+ * @see ExecutorAsyncDao
+ */
+public interface AsyncDao<T> {
+
+    /**
+     * Asynchronous variant of {@link Dao#findAll()}.
+     *
+     * @return CompletableFuture&lt;List&lt;T&gt;&gt; - future of the found
+     * entities
+     */
+    public CompletableFuture<List<T>> findAll();
+
+    /**
+     * Asynchronous variant of {@link Dao#findAll(String)}.
+     *
+     * @param graph name of the entity graph to load
+     * @return CompletableFuture&lt;List&lt;T&gt;&gt; - future of the found
+     * entities
+     */
+    public CompletableFuture<List<T>> findAll(String graph);
+
+    /**
+     * Asynchronous variant of {@link Dao#findPage(long, int)}.
+     *
+     * @param afterId id of the last entity of the previous page
+     * @param limit maximum number of entities to return
+     * @return CompletableFuture&lt;List&lt;T&gt;&gt; - future of the found
+     * entities
+     */
+    public CompletableFuture<List<T>> findPage(long afterId, int limit);
+
+    /**
+     * Asynchronous variant of {@link Dao#count()}.
+     *
+     * @return CompletableFuture&lt;Long&gt; - future of the number of entities
+     */
+    public CompletableFuture<Long> count();
+
+    /**
+     * Asynchronous variant of {@link Dao#findById(long)}.
+     *
+     * @param id id of the wanted entity
+     * @return CompletableFuture&lt;T&gt; - future of the found entity, which is
+     * completed with null if there is no entity with the submitted id
+     */
+    public CompletableFuture<T> findById(long id);
+
+    /**
+     * Asynchronous variant of {@link Dao#findById(long, String)}.
+     *
+     * @param id id of the wanted entity
+     * @param graph name of the entity graph to load
+     * @return CompletableFuture&lt;T&gt; - future of the found entity, which is
+     * completed with null if there is no entity with the submitted id
+     */
+    public CompletableFuture<T> findById(long id, String graph);
+
+    /**
+     * Looks up the entities with the submitted ids with
+     * {@link Dao#findByIds(Collection, String)}, which queries them with
+     * chunked <code>IN</code> lists. Ids without an entity are skipped.
+     *
+     * @param ids ids of the wanted entities
+     * @param graph name of the entity graph to load, may be null
+     * @return CompletableFuture&lt;List&lt;T&gt;&gt; - future of the found
+     * entities
+     */
+    public CompletableFuture<List<T>> findByIds(Collection<Long> ids, String graph);
+
+    /**
+     * Asynchronous variant of {@link Dao#findModifiedSince(Instant)}.
+     *
+     * @param since the point in time from the previous ChangeSet, or null to
+     * get all entities
+     * @return CompletableFuture&lt;ChangeSet&lt;T&gt;&gt; - future of the
+     * changes
+     */
+    public CompletableFuture<ChangeSet<T>> findModifiedSince(Instant since);
+
+    /**
+     * Asynchronous variant of {@link Dao#persist(Object)}.
+     *
+     * @param entity the entity to persist
+     * @return CompletableFuture&lt;Void&gt; - future which is completed when
+     * the entity is persisted
+     */
+    public CompletableFuture<Void> persist(T entity);
+
+    /**
+     * Asynchronous variant of {@link Dao#persistAll(Collection)}.
+     *
+     * @param entities the entities to persist
+     * @return CompletableFuture&lt;Void&gt; - future which is completed when
+     * the entities are persisted
+     */
+    public CompletableFuture<Void> persistAll(Collection<T> entities);
+
+    /**
+     * Asynchronous variant of {@link Dao#update(long, Object)}.
+     *
+     * @param id id of the wanted entity
+     * @param entity object with new values for the entity
+     * @return CompletableFuture&lt;Void&gt; - future which is completed when
+     * the entity is updated
+     */
+    public CompletableFuture<Void> update(long id, T entity);
+
+    /**
+     * Asynchronous variant of {@link Dao#remove(long)}.
+     *
+     * @param id id of the wanted entity
+     * @return CompletableFuture&lt;Void&gt; - future which is completed when
+     * the entity is removed
+     */
+    public CompletableFuture<Void> remove(long id);
+
+    /**
+     * Called to safely shut down the AsyncDao by calling
+     * {@link Dao#destroy()}. The executor is not shut down, it is owned by
+     * the caller.
+     */
+    public void destroy();
+
+}
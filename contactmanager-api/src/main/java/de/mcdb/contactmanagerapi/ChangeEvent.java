@@ -0,0 +1,86 @@
+package de.mcdb.contactmanagerapi;
+
+import java.io.Serializable;
+
+/**
+ * Notification about a committed change of an entity.
+ * <p>
+ * Views which show entities can apply the change to their data instead of
+ * loading all entities again: {@link Type#CREATED} and {@link Type#UPDATED}
+ * entities are looked up by id, {@link Type#REMOVED} entities are dropped.
+ * {@link Type#INVALIDATED} is sent when an unknown number of entities of a
+ * class changed, e.g. after a bulk insert, and has no id.
+ *
+ * @author Mirko Schulze
+ */
+public final class ChangeEvent implements Serializable {
+
+    /**
+     * Kind of a change.
+     */
+    public enum Type {
+        CREATED, UPDATED, REMOVED, INVALIDATED
+    }
+
+    private final Type type;
+
+    private final Class<?> entityClass;
+
+    private final long id;
+
+    private ChangeEvent(Type type, Class<?> entityClass, long id) {
+        this.type = type;
+        this.entityClass = entityClass;
+        this.id = id;
+    }
+
+    public static ChangeEvent created(Class<?> entityClass, long id) {
+        return new ChangeEvent(Type.CREATED, entityClass, id);
+    }
+
+    public static ChangeEvent updated(Class<?> entityClass, long id) {
+        return new ChangeEvent(Type.UPDATED, entityClass, id);
+    }
+
+    public static ChangeEvent removed(Class<?> entityClass, long id) {
+        return new ChangeEvent(Type.REMOVED, entityClass, id);
+    }
+
+    public static ChangeEvent invalidated(Class<?> entityClass) {
+        return new ChangeEvent(Type.INVALIDATED, entityClass, 0L);
+    }
+
+    /**
+     * Returns whether this event is about entities of the submitted class.
+     *
+     * @param entityClass the class to check
+     * @return boolean - true if this event is about the submitted class
+     */
+    public boolean isAbout(Class<?> entityClass) {
+        return this.entityClass == entityClass;
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Getter, toString">
+    public Type getType() {
+        return type;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * Returns the id of the changed entity, 0 for {@link Type#INVALIDATED}.
+     *
+     * @return long - id of the changed entity
+     */
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{" + "type=" + type + ", entityClass=" + entityClass.getSimpleName() + ", id=" + id + '}';
+    }
+    //</editor-fold>
+}
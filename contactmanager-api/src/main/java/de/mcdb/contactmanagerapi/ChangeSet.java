@@ -0,0 +1,117 @@
+package de.mcdb.contactmanagerapi;
+
+import de.mcdb.contactmanagerapi.datamodel.Tombstone;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Result of {@link Dao#findModifiedSince(Instant)}: the entities of a class
+ * which were created or changed and the ids of the entities which were removed
+ * since a point in time.
+ * <p>
+ * Pass {@link #getNextSince()} to the next call to get the following changes.
+ *
+ * @param <T> generic placeolder for the concrete entity class
+ * @author Mirko Schulze
+ */
+public class ChangeSet<T> implements Serializable {
+
+    private final List<T> modified;
+
+    private final Set<Long> removedIds;
+
+    private final Instant nextSince;
+
+    /**
+     * Creates a new ChangeSet.
+     *
+     * @param modified the created or changed entities
+     * @param removedIds the ids of the removed entities
+     * @param nextSince the point in time to pass to the next call
+     */
+    public ChangeSet(List<T> modified, Set<Long> removedIds, Instant nextSince) {
+        this.modified = Collections.unmodifiableList(modified);
+        this.removedIds = Collections.unmodifiableSet(removedIds);
+        this.nextSince = nextSince;
+    }
+
+    /**
+     * Creates a new ChangeSet from the results of the queries for modified
+     * entities and {@link Tombstone}<code>s</code>. The next point in time is
+     * the latest time found in the results, or the submitted one if there are
+     * none.
+     *
+     * @param <T> type of the entities
+     * @param since the point in time which was queried
+     * @param modified the created or changed entities
+     * @param updatedAt function to read the last-modified time of an entity
+     * @param tombstones the Tombstones of the removed entities
+     * @return ChangeSet&lt;T&gt; - the new ChangeSet
+     */
+    public static <T> ChangeSet<T> of(Instant since, List<T> modified, Function<T, Instant> updatedAt,
+            List<Tombstone> tombstones) {
+        Instant next = since;
+        for (T entity : modified) {
+            next = latest(next, updatedAt.apply(entity));
+        }
+        Set<Long> removedIds = new LinkedHashSet<>();
+        for (Tombstone tombstone : tombstones) {
+            removedIds.add(tombstone.getEntityId());
+            next = latest(next, tombstone.getRemovedAt());
+        }
+        return new ChangeSet<>(modified, removedIds, next);
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        if (a == null) {
+            return b;
+        }
+        return (b != null && b.isAfter(a)) ? b : a;
+    }
+
+    /**
+     * Returns whether nothing was created, changed or removed.
+     *
+     * @return boolean - true if this ChangeSet is empty
+     */
+    public boolean isEmpty() {
+        return this.modified.isEmpty() && this.removedIds.isEmpty();
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Getter">
+    /**
+     * Returns the created or changed entities, ordered by their last-modified
+     * time.
+     *
+     * @return List&lt;T&gt; - unmodifiable List of the entities
+     */
+    public List<T> getModified() {
+        return modified;
+    }
+
+    /**
+     * Returns the ids of the removed entities.
+     *
+     * @return Set&lt;Long&gt; - unmodifiable Set of the ids
+     */
+    public Set<Long> getRemovedIds() {
+        return removedIds;
+    }
+
+    /**
+     * Returns the point in time to pass to the next call of
+     * {@link Dao#findModifiedSince(Instant)}, measured by the clock of the
+     * database.
+     *
+     * @return Instant - the next point in time
+     */
+    public Instant getNextSince() {
+        return nextSince;
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,96 @@
+package de.mcdb.contactmanagerapi;
+
+import de.mcdb.contactmanagerapi.datamodel.Tombstone;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import javax.persistence.EntityManager;
+
+/**
+ * Class with static methods for {@link Dao#findModifiedSince(Instant)}.
+ * <p>
+ * Last-modified times are set when a row is written, but become visible only
+ * when the transaction commits. A poll can therefore miss a row whose time
+ * lies just before the point in time it asked for. Every query looks back
+ * {@link #OVERLAP} further than asked, and callers merge changes by id, so
+ * seeing a change twice is harmless.
+ * <p>
+ * A row is only found if its transaction commits within {@link #OVERLAP}
+ * after the row was written. Rows of longer write transactions, e.g. of a
+ * large {@link Dao#persistAll(java.util.Collection)}, are missed by clients
+ * which polled in the meantime, so the polling clients have to raise the
+ * overlap with {@value #OVERLAP_PROPERTY} if such transactions are run.
+ *
+ * @author Mirko Schulze
+ */
+public class ChangeTracking {
+
+    /**
+     * Name of the system property with the overlap in seconds.
+     */
+    public static final String OVERLAP_PROPERTY = "contactmanager.sync.overlap";
+
+    private static final int DEFAULT_OVERLAP = 10;
+
+    /**
+     * How far each query for changes looks back beyond the submitted point in
+     * time, read from the system property {@value #OVERLAP_PROPERTY}, 10
+     * seconds by default. Must be longer than the longest write transaction.
+     */
+    public static final Duration OVERLAP = Duration.ofSeconds(Long.getLong(OVERLAP_PROPERTY, DEFAULT_OVERLAP));
+
+    /**
+     * Returns the lower bound to query for changes since the submitted point
+     * in time.
+     *
+     * @param since the point in time from the previous {@link ChangeSet}, or
+     * null to get all entities
+     * @return Instant - the lower bound, never before
+     * {@link Instant#EPOCH}
+     */
+    public static Instant lowerBound(Instant since) {
+        if (since == null) {
+            return Instant.EPOCH;
+        }
+        Instant bound = since.minus(OVERLAP);
+        return bound.isBefore(Instant.EPOCH) ? Instant.EPOCH : bound;
+    }
+
+    /**
+     * Returns the current time of the database, which is the clock the
+     * last-modified times are measured with. Used as first point in time
+     * before polling for changes.
+     *
+     * @param em the {@link EntityManager} to query with
+     * @return Instant - the current time of the database
+     */
+    public static Instant currentTime(EntityManager em) {
+        Object now = em.createNativeQuery("SELECT CAST(CURRENT_TIMESTAMP(6) AS DATETIME(6))").getSingleResult();
+        return now instanceof Timestamp ? ((Timestamp) now).toInstant() : Instant.parse(now.toString());
+    }
+
+    /**
+     * Writes a {@link Tombstone} for each entity of the submitted class which
+     * matches the submitted condition, with one
+     * <code>insert ... select</code> statement. Must be called before the
+     * entities are removed.
+     * <p>
+     * The condition is a JPQL expression on the entity alias <code>e</code>
+     * with the parameter <code>:id</code>, e.g.
+     * <code>e.division.id = :id</code>.
+     *
+     * @param em the {@link EntityManager} of the running transaction
+     * @param entityClass the class of the entities to remove
+     * @param condition JPQL condition for the entities to remove
+     * @param id value of the parameter <code>:id</code>
+     * @return int - the number of written Tombstones
+     */
+    public static int recordTombstones(EntityManager em, Class<?> entityClass, String condition, long id) {
+        return em.createQuery("insert into " + Tombstone.class.getSimpleName() + " (entityType, entityId)"
+                + " select '" + Tombstone.typeOf(entityClass) + "', e.id from " + entityClass.getSimpleName() + " e"
+                + " where " + condition)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+}
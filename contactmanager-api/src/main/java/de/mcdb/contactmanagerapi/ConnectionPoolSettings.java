@@ -0,0 +1,92 @@
+package de.mcdb.contactmanagerapi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Class with static methods to load the settings of the connection pool.
+ * <p>
+ * The settings are read from {@value #RESOURCE} on the classpath. System
+ * properties starting with <code>hibernate.</code>,
+ * <code>javax.persistence.</code> or <code>contactmanager.</code> override
+ * them and are added as well, so e.g. the pool size, the JDBC URL of a
+ * persistence unit or the slow query threshold can be replaced without
+ * touching any file.
+ * <p>
+ * The JDBC URL, user and password can also be set with the environment
+ * variables {@value #URL_ENV}, {@value #USER_ENV} and {@value #PASSWORD_ENV},
+ * so they do not have to be kept in a persistence unit. System properties
+ * take precedence over them.
+ *
+ * @author Mirko Schulze
+ */
+public class ConnectionPoolSettings {
+
+    /**
+     * Classpath resource with the settings of the connection pool.
+     */
+    public static final String RESOURCE = "contactmanager-pool.properties";
+
+    /**
+     * Environment variable with the JDBC URL of the database.
+     */
+    public static final String URL_ENV = "CONTACTMANAGER_DB_URL";
+
+    /**
+     * Environment variable with the user of the database.
+     */
+    public static final String USER_ENV = "CONTACTMANAGER_DB_USER";
+
+    /**
+     * Environment variable with the password of the database user.
+     */
+    public static final String PASSWORD_ENV = "CONTACTMANAGER_DB_PASSWORD";
+
+    /**
+     * Loads the settings of the connection pool and returns them as a Map
+     * which can be passed to
+     * {@link javax.persistence.Persistence#createEntityManagerFactory(String, Map)}.
+     *
+     * @return Map&lt;String, String&gt; - the settings, overridden by the
+     * environment variables of the connection and by system properties
+     * @throws UncheckedIOException if {@value #RESOURCE} can not be read
+     */
+    public static Map<String, String> load() {
+        Properties properties = new Properties();
+        try (InputStream in = ConnectionPoolSettings.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IOException(RESOURCE + " not found on the classpath");
+            }
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Map<String, String> settings = new HashMap<>();
+        properties.stringPropertyNames().forEach(key -> settings.put(key, properties.getProperty(key)));
+        putEnv(settings, "javax.persistence.jdbc.url", URL_ENV);
+        putEnv(settings, "javax.persistence.jdbc.user", USER_ENV);
+        putEnv(settings, "javax.persistence.jdbc.password", PASSWORD_ENV);
+        System.getProperties().stringPropertyNames().stream()
+                .filter(key -> key.startsWith("hibernate.") || key.startsWith("javax.persistence.")
+                        || key.startsWith("contactmanager."))
+                .forEach(key -> settings.put(key, System.getProperty(key)));
+        return settings;
+    }
+
+    /**
+     * Puts the value of the submitted environment variable under the submitted
+     * key, if the variable is set.
+     */
+    private static void putEnv(Map<String, String> settings, String key, String variable) {
+        String value = System.getenv(variable);
+        if (value != null && !value.isEmpty()) {
+            settings.put(key, value);
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package de.mcdb.contactmanagerapi;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
+
+/**
+ * Class with static methods to stream query results through a forward-only
+ * database cursor.
+ *
+ * @author Mirko Schulze
+ */
+public class CursorStreams {
+
+    /**
+     * Number of rows fetched per JDBC round-trip if no fetch size is submitted.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    /**
+     * Executes the submitted {@link JPAQuery} with a forward-only
+     * {@link ScrollableResults} cursor and returns its rows as a
+     * {@link Stream}.
+     * <p>
+     * The Stream takes ownership of the submitted {@link EntityManager}: the
+     * persistence context is cleared every <code>fetchSize</code> rows to keep
+     * heap use flat, and closing the Stream closes the cursor and the
+     * EntityManager. The EntityManager must therefore not be shared with other
+     * operations.
+     *
+     * @param <T> type of the query results
+     * @param em the {@link EntityManager} the query was created with
+     * @param query the query to execute
+     * @param fetchSize number of rows to fetch per JDBC round-trip
+     * @return Stream&lt;T&gt; - Stream with the query results, to be closed
+     * after use
+     */
+    public static <T> Stream<T> stream(EntityManager em, JPAQuery<T> query, int fetchSize) {
+        if (fetchSize < 1) {
+            em.close();
+            throw new IllegalArgumentException("fetchSize must be >= 1, was " + fetchSize);
+        }
+        ScrollableResults results;
+        try {
+            results = query.createQuery()
+                    .unwrap(Query.class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .setCacheMode(CacheMode.IGNORE)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+        } catch (RuntimeException e) {
+            em.close();
+            throw e;
+        }
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+
+            private long count;
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (this.count > 0 && this.count % fetchSize == 0) {
+                    em.clear();
+                }
+                if (!results.next()) {
+                    return false;
+                }
+                this.count++;
+                action.accept((T) results.get(0));
+                return true;
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                results.close();
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+}
@@ -1,20 +1,38 @@
 package de.mcdb.contactmanagerapi;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 import javax.persistence.EntityManager;
 
 /**
  * Data access interface to enable accessing the underlying database.
  * <p>
- * Contains method declarations to find all entities, find an entity by id,
- * persist a new entity, update an entity selected by id and to remove an entity
- * selected by id.
+ * Contains method declarations to find all entities, find a page of entities,
+ * count all entities, find an entity by id, persist one or many new entities,
+ * update an entity selected by id and to remove an entity selected by id.
+ * <p>
+ * Associations are loaded lazily, methods which accept the name of an entity
+ * graph fetch the associations of that graph together with the entities.
  *
  * @param <T> generic placeolder for the concrete entity class
  * @author Mirko
  */
 public interface Dao<T> {
 
+    /**
+     * Query hint to apply an entity graph as load graph: the attributes of the
+     * graph are fetched eagerly, all others keep their mapped fetch type.
+     */
+    public static final String LOAD_GRAPH = "javax.persistence.loadgraph";
+
+    /**
+     * Query cache region for the results of {@link #findAll()} of cached
+     * entities.
+     */
+    public static final String FIND_ALL_CACHE_REGION = "findAll";
+
     /**
      * Looks for all entites of a class and collects them to a List which is
      * then returned.
@@ -23,6 +41,66 @@ public interface Dao<T> {
      */
     public List<T> findAll();
 
+    /**
+     * Looks for all entites of a class and collects them to a List which is
+     * then returned.
+     * <p>
+     * The associations of the named entity graph are fetched with the same
+     * query, so they can be accessed without further queries.
+     *
+     * @param graph name of the entity graph to load
+     * @return List&lt;T&gt; - List with the found entities
+     */
+    public List<T> findAll(String graph);
+
+    /**
+     * Looks for at most <code>limit</code> entities with an id greater than
+     * <code>afterId</code>, ordered by id, and collects them to a List which
+     * is then returned.
+     * <p>
+     * Pass 0 as <code>afterId</code> to get the first page and the id of the
+     * last entity of a page to get the following page. Seeking by id keeps the
+     * cost of each page constant, no matter how deep the page is.
+     *
+     * @param afterId id of the last entity of the previous page
+     * @param limit maximum number of entities to return
+     * @return List&lt;T&gt; - List with the found entities
+     */
+    public List<T> findPage(long afterId, int limit);
+
+    /**
+     * Counts all entites of a class.
+     *
+     * @return long - the number of entities
+     */
+    public long count();
+
+    /**
+     * Streams all entities of a class, ordered by id, through a forward-only
+     * database cursor which fetches <code>fetchSize</code> rows per
+     * round-trip.
+     * <p>
+     * The entities are read-only and detached in blocks of
+     * <code>fetchSize</code>, so heap use does not grow with the number of
+     * entities. The returned {@link Stream} holds an open cursor and must be
+     * closed after use, e.g. with a try-with-resources statement.
+     *
+     * @param fetchSize number of rows to fetch per JDBC round-trip
+     * @return Stream&lt;T&gt; - Stream with all entities, to be closed after use
+     * @see CursorStreams
+     */
+    public Stream<T> stream(int fetchSize);
+
+    /**
+     * Calls {@link #stream(int)} with
+     * {@link CursorStreams#DEFAULT_FETCH_SIZE}.
+     *
+     * @return Stream&lt;T&gt; - Stream with all entities, to be closed after use
+     */
+    public default Stream<T> stream() {
+        return stream(CursorStreams.DEFAULT_FETCH_SIZE);
+    }
+
     /**
      * Looks for the entity with the submitted id and returns it.
      *
@@ -31,6 +109,51 @@ public interface Dao<T> {
      */
     public T findById(long id);
 
+    /**
+     * Looks for the entity with the submitted id and returns it.
+     * <p>
+     * The associations of the named entity graph are fetched with the same
+     * query, so they can be accessed without further queries.
+     *
+     * @param id id of the wanted entity
+     * @param graph name of the entity graph to load
+     * @return T - the found entity
+     */
+    public T findById(long id, String graph);
+
+    /**
+     * Looks for the entities with the submitted ids and returns them, ordered
+     * by id. Ids without an entity are skipped.
+     * <p>
+     * The ids are queried with one <code>IN</code> list per
+     * {@value IdQueries#CHUNK_SIZE} ids instead of one query per id. The
+     * associations of the named entity graph are fetched with the same
+     * queries.
+     *
+     * @param ids ids of the wanted entities
+     * @param graph name of the entity graph to load, may be null
+     * @return List&lt;T&gt; - List with the found entities
+     */
+    public List<T> findByIds(Collection<Long> ids, String graph);
+
+    /**
+     * Looks for the entities which were created or changed and for the ids of
+     * the entities which were removed after the submitted point in time.
+     * <p>
+     * Clients poll with the {@link ChangeSet#getNextSince()} of the previous
+     * call and merge the changes by id. The times are measured by the clock of
+     * the database and each query looks back
+     * {@link ChangeTracking#OVERLAP} further, so a change can be returned
+     * twice, but is not missed, as long as its transaction took less than the
+     * overlap.
+     *
+     * @param since the point in time from the previous ChangeSet, or null to
+     * get all entities
+     * @return ChangeSet&lt;T&gt; - the changes after the submitted point in
+     * time
+     */
+    public ChangeSet<T> findModifiedSince(Instant since);
+
     /**
      * Persists the submitted entity to the database.
      *
@@ -38,6 +161,23 @@ public interface Dao<T> {
      */
     public void persist(T entity);
 
+    /**
+     * Persists all submitted entities to the database in one transaction.
+     * <p>
+     * The inserts are sent in JDBC batches of hibernate.jdbc.batch_size rows
+     * and the persistence context is flushed and cleared after every batch, so
+     * the submitted {@link Collection} may be large. Referenced entities are
+     * not loaded, they only have to exist in the database.
+     * <p>
+     * The transaction must commit within {@link ChangeTracking#OVERLAP},
+     * otherwise clients polling {@link #findModifiedSince(Instant)} in the
+     * meantime miss the persisted entities. Split very large collections into
+     * several calls or raise the overlap.
+     *
+     * @param entities the entities to persist
+     */
+    public void persistAll(Collection<T> entities);
+
     /**
      * Updates the entity with the submitted id with the values from the
      * submitted entity.
@@ -0,0 +1,256 @@
+package de.mcdb.contactmanagerapi;
+
+import de.mcdb.contactmanagerapi.metrics.DaoMetrics;
+import de.mcdb.contactmanagerapi.metrics.OperationMetrics;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link AsyncDao} which runs the methods of a {@link Dao} on an
+ * {@link Executor}.
+ * <p>
+ * The Dao must be safe to use from several threads, e.g. by opening an
+ * EntityManager per operation. Subclasses add asynchronous variants of the
+ * methods of a concrete Dao with {@link #supply(String, Supplier, ToLongFunction)}
+ * and {@link #run(String, Runnable, long)}.
+ * <p>
+ * Every operation is measured on the executor thread and recorded in
+ * {@link DaoMetrics#getDefault()}, the methods of {@link Dao} through a
+ * {@link MeteredDao}. The time a task waits in the queue is not included.
+ *
+ * @param <T> generic placeolder for the concrete entity class
+ * @param <D> type of the wrapped Dao
+ * @author Mirko Schulze
+ */
+public class ExecutorAsyncDao<T, D extends Dao<T>> implements AsyncDao<T> {
+
+    protected final D dao;
+
+    private final Dao<T> metered;
+
+    private final Class<T> entityClass;
+
+    private final Executor executor;
+
+    /**
+     * Creates a new ExecutorAsyncDao which runs the methods of the submitted
+     * {@link Dao} on the submitted {@link Executor}.
+     *
+     * @param entityClass the entity class of the Dao, used to name its
+     * metrics
+     * @param dao the Dao to run
+     * @param executor the Executor to run the Dao on, preferably one created
+     * with {@link #newBoundedExecutor(String, int, int)}
+     */
+    public ExecutorAsyncDao(Class<T> entityClass, D dao, Executor executor) {
+        this(entityClass, dao, dao, executor);
+    }
+
+    /**
+     * Creates a new ExecutorAsyncDao which runs the methods of {@link Dao} on
+     * a decorator of the submitted Dao, e.g. one which traces every call.
+     * Methods of the concrete Dao, called through {@link #dao}, are not
+     * decorated.
+     *
+     * @param entityClass the entity class of the Dao, used to name its
+     * metrics
+     * @param dao the Dao to run
+     * @param decorated the Dao to run the methods of {@link Dao} on, which
+     * delegates to <code>dao</code>
+     * @param executor the Executor to run the Dao on
+     */
+    protected ExecutorAsyncDao(Class<T> entityClass, D dao, Dao<T> decorated, Executor executor) {
+        this.dao = dao;
+        this.metered = new MeteredDao<>(entityClass, decorated);
+        this.entityClass = entityClass;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a new {@link ExecutorService} with a fixed number of daemon
+     * threads named <code>name-1</code>, <code>name-2</code>, ... and a
+     * queue for at most <code>capacity</code> waiting tasks.
+     * <p>
+     * Tasks submitted while the queue is full are rejected with a
+     * {@link RejectedExecutionException}, so a slow database makes callers
+     * fail fast instead of piling up work. The number of threads should not
+     * exceed the size of the connection pool.
+     *
+     * @param name prefix of the thread names
+     * @param threads number of threads
+     * @param capacity maximum number of waiting tasks
+     * @return ExecutorService - the new ExecutorService
+     */
+    public static ExecutorService newBoundedExecutor(String name, int threads, int capacity) {
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                r -> {
+                    Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs the submitted {@link Supplier} on the submitted {@link Executor}.
+     * <p>
+     * Unlike {@link CompletableFuture#supplyAsync(Supplier, Executor)} a
+     * rejected task does not throw, the returned future fails instead.
+     *
+     * @param <R> type of the result
+     * @param supplier the operation to run
+     * @param executor the Executor to run the operation on
+     * @return CompletableFuture&lt;R&gt; - future of the result, which fails
+     * with a {@link RejectedExecutionException} if the executor is saturated
+     */
+    public static <R> CompletableFuture<R> supplyAsync(Supplier<R> supplier, Executor executor) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<R> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+    }
+
+    /**
+     * Runs the submitted {@link Supplier} on the executor.
+     *
+     * @param <R> type of the result
+     * @param supplier the operation to run
+     * @return CompletableFuture&lt;R&gt; - future of the result, which fails
+     * with a {@link RejectedExecutionException} if the executor is saturated
+     */
+    protected <R> CompletableFuture<R> supply(Supplier<R> supplier) {
+        return supplyAsync(supplier, this.executor);
+    }
+
+    /**
+     * Runs the submitted {@link Runnable} on the executor.
+     *
+     * @param runnable the operation to run
+     * @return CompletableFuture&lt;Void&gt; - future which is completed when
+     * the operation is done, or fails with a
+     * {@link RejectedExecutionException} if the executor is saturated
+     */
+    protected CompletableFuture<Void> run(Runnable runnable) {
+        return supply(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the submitted {@link Supplier} on the executor and records it in
+     * {@link DaoMetrics#getDefault()} as the submitted operation.
+     *
+     * @param <R> type of the result
+     * @param operation name of the operation, usually the name of the method
+     * of the Dao
+     * @param supplier the operation to run
+     * @param rowsOf function to count the rows read or written from the
+     * result
+     * @return CompletableFuture&lt;R&gt; - future of the result, which fails
+     * with a {@link RejectedExecutionException} if the executor is saturated
+     */
+    protected <R> CompletableFuture<R> supply(String operation, Supplier<R> supplier, ToLongFunction<? super R> rowsOf) {
+        OperationMetrics metrics = DaoMetrics.getDefault().get(this.entityClass, operation);
+        return supply(() -> metrics.time(supplier, rowsOf));
+    }
+
+    /**
+     * Runs the submitted {@link Runnable} on the executor and records it in
+     * {@link DaoMetrics#getDefault()} as the submitted operation.
+     *
+     * @param operation name of the operation, usually the name of the method
+     * of the Dao
+     * @param runnable the operation to run
+     * @param rows number of rows the operation reads or writes
+     * @return CompletableFuture&lt;Void&gt; - future which is completed when
+     * the operation is done, or fails with a
+     * {@link RejectedExecutionException} if the executor is saturated
+     */
+    protected CompletableFuture<Void> run(String operation, Runnable runnable, long rows) {
+        OperationMetrics metrics = DaoMetrics.getDefault().get(this.entityClass, operation);
+        return run(() -> metrics.time(runnable, rows));
+    }
+
+    @Override
+    public CompletableFuture<List<T>> findAll() {
+        return supply(() -> this.metered.findAll());
+    }
+
+    @Override
+    public CompletableFuture<List<T>> findAll(String graph) {
+        return supply(() -> this.metered.findAll(graph));
+    }
+
+    @Override
+    public CompletableFuture<List<T>> findPage(long afterId, int limit) {
+        return supply(() -> this.metered.findPage(afterId, limit));
+    }
+
+    @Override
+    public CompletableFuture<Long> count() {
+        return supply(() -> this.metered.count());
+    }
+
+    @Override
+    public CompletableFuture<T> findById(long id) {
+        return supply(() -> this.metered.findById(id));
+    }
+
+    @Override
+    public CompletableFuture<T> findById(long id, String graph) {
+        return supply(() -> this.metered.findById(id, graph));
+    }
+
+    @Override
+    public CompletableFuture<List<T>> findByIds(Collection<Long> ids, String graph) {
+        return supply(() -> this.metered.findByIds(ids, graph));
+    }
+
+    @Override
+    public CompletableFuture<ChangeSet<T>> findModifiedSince(Instant since) {
+        return supply(() -> this.metered.findModifiedSince(since));
+    }
+
+    @Override
+    public CompletableFuture<Void> persist(T entity) {
+        return run(() -> this.metered.persist(entity));
+    }
+
+    @Override
+    public CompletableFuture<Void> persistAll(Collection<T> entities) {
+        return run(() -> this.metered.persistAll(entities));
+    }
+
+    @Override
+    public CompletableFuture<Void> update(long id, T entity) {
+        return run(() -> this.metered.update(id, entity));
+    }
+
+    @Override
+    public CompletableFuture<Void> remove(long id) {
+        return run(() -> this.metered.remove(id));
+    }
+
+    @Override
+    public void destroy() {
+        this.dao.destroy();
+    }
+
+}
@@ -0,0 +1,92 @@
+package de.mcdb.contactmanagerapi;
+
+import com.querydsl.core.types.dsl.EntityPathBase;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.jpa.impl.JPAQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+import javax.persistence.EntityManager;
+import org.hibernate.jpa.QueryHints;
+
+/**
+ * Class with static methods to query and update entities by many ids, with
+ * one <code>IN</code> list per chunk of ids instead of one statement per id.
+ *
+ * @author Mirko Schulze
+ */
+public final class IdQueries {
+
+    /**
+     * Maximum number of ids in the <code>IN</code> list of one statement.
+     */
+    public static final int CHUNK_SIZE = 1000;
+
+    private IdQueries() {
+    }
+
+    /**
+     * Splits the distinct submitted ids, in their order, into chunks of at
+     * most {@value #CHUNK_SIZE} ids, so each chunk fits into the
+     * <code>IN</code> list of one statement.
+     *
+     * @param ids the ids to split
+     * @return List&lt;List&lt;Long&gt;&gt; - the chunks of ids
+     */
+    public static List<List<Long>> chunked(Collection<Long> ids) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += CHUNK_SIZE) {
+            chunks.add(distinctIds.subList(from, Math.min(from + CHUNK_SIZE, distinctIds.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Runs the submitted query for each chunk of {@link #chunked(Collection)}
+     * and collects the results.
+     *
+     * @param <R> type of the results
+     * @param ids the ids to query for
+     * @param query the query for one chunk of ids
+     * @return List&lt;R&gt; - the results of all chunks
+     */
+    public static <R> List<R> inChunks(Collection<Long> ids, Function<List<Long>, List<R>> query) {
+        List<R> results = new ArrayList<>();
+        for (List<Long> chunk : chunked(ids)) {
+            results.addAll(query.apply(chunk));
+        }
+        return results;
+    }
+
+    /**
+     * Queries the entities with the submitted ids in chunks, ordered by id, to
+     * implement {@link Dao#findByIds(Collection, String)}. If a graph is
+     * submitted, it is applied as {@link Dao#LOAD_GRAPH} and the query is made
+     * distinct in memory, so fetched collections do not repeat the entities.
+     *
+     * @param <T> type of the entities
+     * @param em the {@link EntityManager} to create the queries with
+     * @param entity the query type of the entities
+     * @param id the id path of the query type
+     * @param ids ids of the wanted entities
+     * @param graph name of the entity graph to load, may be null
+     * @return List&lt;T&gt; - List with the found entities
+     */
+    public static <T> List<T> queryByIds(EntityManager em, EntityPathBase<T> entity, NumberPath<Long> id, Collection<Long> ids, String graph) {
+        return inChunks(ids, chunk -> {
+            JPAQuery<T> query = new JPAQuery<>(em).select(entity).from(entity)
+                    .where(id.in(chunk))
+                    .orderBy(id.asc());
+            if (graph != null) {
+                query.distinct()
+                        .setHint(Dao.LOAD_GRAPH, em.getEntityGraph(graph))
+                        .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false);
+            }
+            return query.fetch();
+        });
+    }
+
+}
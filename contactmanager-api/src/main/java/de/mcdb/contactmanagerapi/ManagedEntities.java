@@ -0,0 +1,47 @@
+package de.mcdb.contactmanagerapi;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Class with static methods to inspect the persistence context of an
+ * {@link EntityManager} without hitting the database.
+ *
+ * @author Mirko Schulze
+ */
+public class ManagedEntities {
+
+    /**
+     * Looks for the entities of the submitted class with the submitted ids
+     * which are currently managed by the submitted {@link EntityManager} and
+     * collects them to a List which is then returned.
+     * <p>
+     * Ids of entities which are not loaded are skipped, neither the entities
+     * nor proxies are fetched from the database. Useful to reconcile loaded
+     * entities with the result of a bulk statement.
+     *
+     * @param <T> type of the entities
+     * @param em the {@link EntityManager} to inspect
+     * @param entityClass the class of the entities
+     * @param ids the ids of the wanted entities
+     * @return List&lt;T&gt; - List with the managed entities
+     */
+    public static <T> List<T> findManaged(EntityManager em, Class<T> entityClass, Collection<? extends Serializable> ids) {
+        SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(entityClass);
+        List<T> managed = new ArrayList<>();
+        for (Serializable id : ids) {
+            Object entity = session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+            if (entity != null) {
+                managed.add(entityClass.cast(entity));
+            }
+        }
+        return managed;
+    }
+
+}
@@ -0,0 +1,127 @@
+package de.mcdb.contactmanagerapi;
+
+import de.mcdb.contactmanagerapi.metrics.DaoMetrics;
+import de.mcdb.contactmanagerapi.metrics.OperationMetrics;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * {@link Dao} which records the latency, the errors and the rows of every
+ * call of another Dao in {@link DaoMetrics}, under the simple name of the
+ * entity class and the name of the method.
+ * <p>
+ * {@link #stream(int)} is timed until the Stream is opened, reading it is not
+ * measured.
+ *
+ * @param <T> generic placeolder for the concrete entity class
+ * @author Mirko Schulze
+ */
+public class MeteredDao<T> implements Dao<T> {
+
+    private final Dao<T> dao;
+
+    private final String entity;
+
+    private final DaoMetrics metrics;
+
+    /**
+     * Creates a new MeteredDao which records into
+     * {@link DaoMetrics#getDefault()}.
+     *
+     * @param entityClass the entity class of the Dao
+     * @param dao the Dao to measure
+     */
+    public MeteredDao(Class<T> entityClass, Dao<T> dao) {
+        this(entityClass, dao, DaoMetrics.getDefault());
+    }
+
+    /**
+     * Creates a new MeteredDao.
+     *
+     * @param entityClass the entity class of the Dao
+     * @param dao the Dao to measure
+     * @param metrics the DaoMetrics to record into
+     */
+    public MeteredDao(Class<T> entityClass, Dao<T> dao, DaoMetrics metrics) {
+        this.dao = dao;
+        this.entity = entityClass.getSimpleName();
+        this.metrics = metrics;
+    }
+
+    private OperationMetrics metrics(String operation) {
+        return this.metrics.get(this.entity, operation);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return this.metrics("findAll").time(() -> this.dao.findAll(), List::size);
+    }
+
+    @Override
+    public List<T> findAll(String graph) {
+        return this.metrics("findAll").time(() -> this.dao.findAll(graph), List::size);
+    }
+
+    @Override
+    public List<T> findPage(long afterId, int limit) {
+        return this.metrics("findPage").time(() -> this.dao.findPage(afterId, limit), List::size);
+    }
+
+    @Override
+    public long count() {
+        return this.metrics("count").time(() -> this.dao.count(), count -> 0);
+    }
+
+    @Override
+    public Stream<T> stream(int fetchSize) {
+        return this.metrics("stream").time(() -> this.dao.stream(fetchSize), stream -> 0);
+    }
+
+    @Override
+    public T findById(long id) {
+        return this.metrics("findById").time(() -> this.dao.findById(id), DaoMetrics::rowsOf);
+    }
+
+    @Override
+    public T findById(long id, String graph) {
+        return this.metrics("findById").time(() -> this.dao.findById(id, graph), DaoMetrics::rowsOf);
+    }
+
+    @Override
+    public List<T> findByIds(Collection<Long> ids, String graph) {
+        return this.metrics("findByIds").time(() -> this.dao.findByIds(ids, graph), DaoMetrics::rowsOf);
+    }
+
+    @Override
+    public ChangeSet<T> findModifiedSince(Instant since) {
+        return this.metrics("findModifiedSince").time(() -> this.dao.findModifiedSince(since), DaoMetrics::rowsOf);
+    }
+
+    @Override
+    public void persist(T entity) {
+        this.metrics("persist").time(() -> this.dao.persist(entity), 1);
+    }
+
+    @Override
+    public void persistAll(Collection<T> entities) {
+        this.metrics("persistAll").time(() -> this.dao.persistAll(entities), entities.size());
+    }
+
+    @Override
+    public void update(long id, T entity) {
+        this.metrics("update").time(() -> this.dao.update(id, entity), 1);
+    }
+
+    @Override
+    public void remove(long id) {
+        this.metrics("remove").time(() -> this.dao.remove(id), 1);
+    }
+
+    @Override
+    public void destroy() {
+        this.dao.destroy();
+    }
+
+}
@@ -0,0 +1,202 @@
+package de.mcdb.contactmanagerapi;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Table-backed id generator which hands out ids in blocks.
+ * <p>
+ * Each JVM reserves a block of ids with one update of its row in the
+ * id_generator table and then assigns the ids of that block without any
+ * database round-trip (pooled-lo optimization). Several application instances
+ * can share the table, each of them simply reserves its own blocks.
+ * <p>
+ * The block size of an entity is read from the setting
+ * <code>contactmanager.id.block_size.&lt;segment_value&gt;</code>, then from
+ * <code>contactmanager.id.block_size</code>, then from the increment_size
+ * parameter of the mapping and defaults to 50. Settings can be placed in the
+ * persistence.xml or passed as system properties.
+ * <p>
+ * If the row of an entity is missing from the id_generator table, it is created
+ * with the highest id already stored in the entity table, so databases which
+ * used generated identity columns before keep their ids.
+ * <p>
+ * Bulk writers which insert rows with plain JDBC reserve their ids with
+ * {@link #reserve(Connection, long)}, so they never collide with the blocks of
+ * running applications.
+ *
+ * @author Mirko Schulze
+ */
+public class PooledLoIdGenerator extends TableGenerator {
+
+    private static final Logger L = LoggerFactory.getLogger(PooledLoIdGenerator.class);
+
+    /**
+     * Prefix of the settings to configure the block size per entity.
+     */
+    public static final String BLOCK_SIZE_SETTING = "contactmanager.id.block_size";
+
+    public static final int DEFAULT_BLOCK_SIZE = 50;
+
+    private static final String ID_TABLE = "id_generator";
+
+    private String entityTable, idColumn;
+
+    /**
+     * Whether the id_generator table stores the last id handed out, as with
+     * Hibernate's default, or the next one.
+     */
+    private boolean storeLastUsed;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<?, ?> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        String segment = params.getProperty(SEGMENT_VALUE_PARAM, params.getProperty(PersistentIdentifierGenerator.TABLE));
+
+        params.setProperty(SEGMENT_VALUE_PARAM, segment);
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        params.putIfAbsent(TABLE_PARAM, ID_TABLE);
+        params.putIfAbsent(SEGMENT_COLUMN_PARAM, DEF_SEGMENT_COLUMN);
+        params.putIfAbsent(VALUE_COLUMN_PARAM, DEF_VALUE_COLUMN);
+        params.setProperty(INCREMENT_PARAM, String.valueOf(resolveBlockSize(segment, settings, params)));
+        params.setProperty(INITIAL_PARAM, String.valueOf(findHighestId(params, serviceRegistry) + 1));
+        this.entityTable = params.getProperty(PersistentIdentifierGenerator.TABLE);
+        this.idColumn = params.getProperty(PersistentIdentifierGenerator.PK);
+        this.storeLastUsed = ConfigurationHelper.getBoolean(AvailableSettings.TABLE_GENERATOR_STORE_LAST_USED, settings, true);
+
+        super.configure(type, params, serviceRegistry);
+        L.info("Id segment [{}] uses blocks of {} ids", segment, getIncrementSize());
+    }
+
+    /**
+     * Resolves the block size of the submitted segment from the settings and
+     * the mapping parameters.
+     *
+     * @param segment the segment value of the entity
+     * @param settings the settings of the persistence unit
+     * @param params the parameters of the mapping
+     * @return int - the block size
+     */
+    private static int resolveBlockSize(String segment, Map<?, ?> settings, Properties params) {
+        Object blockSize = settings.get(BLOCK_SIZE_SETTING + "." + segment);
+        if (blockSize == null) {
+            blockSize = settings.get(BLOCK_SIZE_SETTING);
+        }
+        if (blockSize == null) {
+            blockSize = params.getProperty(INCREMENT_PARAM);
+        }
+        int size = blockSize != null ? Integer.parseInt(blockSize.toString().trim()) : DEFAULT_BLOCK_SIZE;
+        if (size < 1) {
+            throw new MappingException("Block size of id segment [" + segment + "] must be >= 1, was " + size);
+        }
+        return size;
+    }
+
+    /**
+     * Reserves the submitted number of consecutive ids with one update of the
+     * row of this generator in the id_generator table, or creates the row if it
+     * is missing.
+     * <p>
+     * The row is read and written like the pooled-lo optimizer of Hibernate
+     * does: with hibernate.id.generator.stored_last_used (the default) it holds
+     * the last id handed out and the reserved ids start one above it,
+     * otherwise it holds the next id to hand out.
+     * <p>
+     * The row stays locked until the transaction of the submitted
+     * {@link Connection} ends, so it should be committed right away.
+     *
+     * @param connection the Connection to update the id_generator table with
+     * @param count number of ids to reserve
+     * @return long - the first reserved id, the others follow without gaps
+     * @throws SQLException if the id_generator table cannot be read or updated
+     */
+    public long reserve(Connection connection, long count) throws SQLException {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must be >= 0, was " + count);
+        }
+        long stored;
+        try (PreparedStatement select = connection.prepareStatement("select " + this.getValueColumnName()
+                + " from " + this.getTableName() + " where " + this.getSegmentColumnName() + " = ? for update")) {
+            select.setString(1, this.getSegmentValue());
+            try (ResultSet rs = select.executeQuery()) {
+                stored = rs.next() ? rs.getLong(1) : -1;
+            }
+        }
+        String sql = stored < 0
+                ? "insert into " + this.getTableName() + " (" + this.getValueColumnName() + ", "
+                + this.getSegmentColumnName() + ") values (?, ?)"
+                : "update " + this.getTableName() + " set " + this.getValueColumnName() + " = ? where "
+                + this.getSegmentColumnName() + " = ?";
+        long first;
+        if (stored < 0) {
+            first = findHighestId(connection, this.entityTable, this.idColumn) + 1;
+        } else {
+            first = this.storeLastUsed ? stored + 1 : stored;
+        }
+        // like the pooled-lo optimizer, never hand out ids below 1
+        first = Math.max(first, 1);
+        try (PreparedStatement update = connection.prepareStatement(sql)) {
+            update.setLong(1, this.storeLastUsed ? first + count - 1 : first + count);
+            update.setString(2, this.getSegmentValue());
+            update.executeUpdate();
+        }
+        L.info("Reserved {} ids of segment [{}] from {}", count, this.getSegmentValue(), first);
+        return first;
+    }
+
+    /**
+     * Looks for the highest id stored in the entity table, which is used to
+     * initialize a missing row in the id_generator table.
+     * <p>
+     * Returns 0 if the entity table does not exist yet.
+     *
+     * @param params the parameters of the mapping
+     * @param serviceRegistry the {@link ServiceRegistry} to get a
+     * {@link Connection} from
+     * @return long - the highest id in use
+     */
+    private static long findHighestId(Properties params, ServiceRegistry serviceRegistry) {
+        String table = params.getProperty(PersistentIdentifierGenerator.TABLE);
+        String column = params.getProperty(PersistentIdentifierGenerator.PK);
+        ConnectionProvider provider = serviceRegistry.getService(ConnectionProvider.class);
+        if (table == null || column == null || provider == null) {
+            return 0;
+        }
+        try {
+            Connection connection = provider.getConnection();
+            try {
+                return findHighestId(connection, table, column);
+            } finally {
+                provider.closeConnection(connection);
+            }
+        } catch (SQLException e) {
+            L.info("Catching [{}] in [{}], no ids stored in [{}] yet", e.toString(), PooledLoIdGenerator.class.getSimpleName(), table);
+            return 0;
+        }
+    }
+
+    private static long findHighestId(Connection connection, String table, String column) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("select max(" + column + ") from " + table)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+}
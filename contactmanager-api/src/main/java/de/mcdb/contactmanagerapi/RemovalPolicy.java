@@ -0,0 +1,24 @@
+package de.mcdb.contactmanagerapi;
+
+/**
+ * Policy for the entities which belong to an entity that is removed, e.g. the
+ * {@link de.mcdb.contactmanagerapi.datamodel.Division}<code>s</code> of a
+ * {@link de.mcdb.contactmanagerapi.datamodel.Company}.
+ *
+ * @author Mirko Schulze
+ */
+public enum RemovalPolicy {
+
+    /**
+     * The belonging entities are kept and lose their reference to the removed
+     * entity.
+     */
+    ORPHAN,
+
+    /**
+     * The belonging entities are removed together with the removed entity,
+     * including their own belonging entities.
+     */
+    CASCADE
+
+}
@@ -1,44 +1,79 @@
 package de.mcdb.contactmanagerapi.datamodel;
 
+import de.mcdb.contactmanagerapi.PooledLoIdGenerator;
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.OptimisticLocking;
+import org.hibernate.annotations.Parameter;
 
 /**
  * Representation of a business organisation.
  * <p>
  * A Company has a name and consists of multiple {@link Division}<code>s</code>.
  * <p>
+ * The Divisions are loaded lazily, use the entity graph
+ * {@link #WITH_DIVISIONS} to fetch them with the Company.
+ * <p>
+ * Companies and their Divisions are held in the second-level cache.
+ * <p>
+ * The time of the last change is kept in the indexed column updated_at, which
+ * is set by the database on every insert and update. The name columns are
+ * indexed as well, tables are sorted and filtered by them.
+ * <p>
  * Contains an id.
  *
  * @author Mirko Schulze
  */
 @Entity
-@Table
+@Table(indexes = {
+    @Index(name = "idx_company_updated_at", columnList = "updated_at"),
+    @Index(name = "idx_company_name", columnList = "company_name")})
 @OptimisticLocking
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "company")
+@NamedEntityGraph(name = Company.WITH_DIVISIONS, attributeNodes = @NamedAttributeNode("divisions"))
 public class Company implements Serializable {
 
+    /**
+     * Name of the entity graph which fetches the {@link Division}<code>s</code>
+     * together with the Company.
+     */
+    public static final String WITH_DIVISIONS = "company.withDivisions";
+
     private static final String DEFAULT_NAME = "Die Lappen AG";
 
     @Id
     @Column(name = "company_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "company_id")
+    @GenericGenerator(name = "company_id", strategy = "de.mcdb.contactmanagerapi.PooledLoIdGenerator",
+            parameters = @Parameter(name = PooledLoIdGenerator.SEGMENT_VALUE_PARAM, value = "company"))
     private long id;
 
     @Column(name = "company_name")
     private String name;
 
     @OneToMany(targetEntity = Division.class, mappedBy = "company")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "company.divisions")
     private List<Division> divisions;
 
+    @Column(name = "updated_at", insertable = false, updatable = false, columnDefinition = Tombstone.TIMESTAMP_DEFINITION)
+    private Instant updatedAt;
+
     public Company() {
         this.divisions = new ArrayList<>();
     }
@@ -157,6 +192,18 @@ public class Company implements Serializable {
         return divisions;
     }
 
+    /**
+     * Returns the time of the last change, as it was when this Company was
+     * loaded. Set by the database, see {@link Tombstone#TIMESTAMP_DEFINITION},
+     * so it is null for a Company which was persisted in the current
+     * EntityManager.
+     *
+     * @return Instant - time of the last change, may be null
+     */
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
     @Override
     public int hashCode() {
         int hash = 7;
@@ -164,22 +211,21 @@ public class Company implements Serializable {
         return hash;
     }
 
+    /**
+     * Compares by id with <code>instanceof</code> and {@link #getId()}, so a
+     * lazy proxy equals the Company it stands for. Company<code>s</code> which
+     * were not persisted yet have the id 0 and only equal themselves.
+     */
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
             return true;
         }
-        if (obj == null) {
-            return false;
-        }
-        if (getClass() != obj.getClass()) {
+        if (!(obj instanceof Company)) {
             return false;
         }
         final Company other = (Company) obj;
-        if (this.id != other.id) {
-            return false;
-        }
-        return true;
+        return this.id != 0 && this.id == other.getId();
     }
 
     //</editor-fold>
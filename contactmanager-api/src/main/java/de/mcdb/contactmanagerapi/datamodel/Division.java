@@ -1,17 +1,34 @@
 package de.mcdb.contactmanagerapi.datamodel;
 
+import de.mcdb.contactmanagerapi.PooledLoIdGenerator;
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.OptimisticLocking;
+import org.hibernate.annotations.Parameter;
 
 /**
  * Representation of a specialized business branch.
@@ -20,31 +37,74 @@ import org.hibernate.annotations.OptimisticLocking;
  * <p>
  * A Division consists of multiple {@link Staffer}<code>s</code>.
  * <p>
+ * Company and Staffers are loaded lazily, use the entity graphs
+ * {@link #WITH_COMPANY}, {@link #WITH_STAFFERS} or
+ * {@link #WITH_COMPANY_AND_STAFFERS} to fetch them with the Division.
+ * <p>
+ * Divisions are held in the second-level cache, their Staffers are not: a
+ * cached collection of uncached Staffers would load each of them by id.
+ * <p>
+ * The time of the last change is kept in the indexed column updated_at, which
+ * is set by the database on every insert and update. The name columns are
+ * indexed as well, tables are sorted and filtered by them.
+ * <p>
  * Contains an id.
  *
  * @author Mirko Schulze
  */
 @Entity
-@Table
+@Table(indexes = {
+    @Index(name = "idx_division_updated_at", columnList = "updated_at"),
+    @Index(name = "idx_division_name", columnList = "division_name")})
 @OptimisticLocking
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "division")
+@NamedEntityGraphs({
+    @NamedEntityGraph(name = Division.WITH_COMPANY, attributeNodes = @NamedAttributeNode("company")),
+    @NamedEntityGraph(name = Division.WITH_STAFFERS, attributeNodes = @NamedAttributeNode("staffers")),
+    @NamedEntityGraph(name = Division.WITH_COMPANY_AND_STAFFERS,
+            attributeNodes = {@NamedAttributeNode("company"), @NamedAttributeNode("staffers")})})
 public class Division implements Serializable {
 
+    /**
+     * Name of the entity graph which fetches the {@link Company} together with
+     * the Division.
+     */
+    public static final String WITH_COMPANY = "division.withCompany";
+
+    /**
+     * Name of the entity graph which fetches the {@link Staffer}<code>s</code>
+     * together with the Division.
+     */
+    public static final String WITH_STAFFERS = "division.withStaffers";
+
+    /**
+     * Name of the entity graph which fetches the {@link Company} and the
+     * {@link Staffer}<code>s</code> together with the Division.
+     */
+    public static final String WITH_COMPANY_AND_STAFFERS = "division.withCompanyAndStaffers";
+
     private static final String DEFAULT_NAME = "Druckerpatronenwechslerei";
 
     @Id
     @Column(name = "division_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "division_id")
+    @GenericGenerator(name = "division_id", strategy = "de.mcdb.contactmanagerapi.PooledLoIdGenerator",
+            parameters = @Parameter(name = PooledLoIdGenerator.SEGMENT_VALUE_PARAM, value = "division"))
     private long id;
 
     @Column(name = "division_name")
     private String name;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Company company;
 
     @OneToMany(targetEntity = Staffer.class, mappedBy = "division")
     private List<Staffer> staffers;
 
+    @Column(name = "updated_at", insertable = false, updatable = false, columnDefinition = Tombstone.TIMESTAMP_DEFINITION)
+    private Instant updatedAt;
+
     public Division() {
         this.staffers = new ArrayList<>();
     }
@@ -77,6 +137,10 @@ public class Division implements Serializable {
      * submitted Company</li>
      * <li>Set this Divisions Company to the submitted
      * Company</li></ul></li></ul>
+     * <p>
+     * Divisions of a Company which were not loaded yet are left untouched,
+     * they are read from the database when they are needed. This also keeps
+     * the method usable with detached Companies.
      *
      * @param company the referenced {@link Company}
      */
@@ -84,29 +148,73 @@ public class Division implements Serializable {
         if (this.company == company) {
             return;
         }
-        if (this.company != null) {
+        if (this.company != null && isLoaded(this.company)) {
             this.company.getDivisions().remove(this);
         }
-        if (company != null) {
+        if (company != null && isLoaded(company)) {
             company.getDivisions().add(this);
         }
         this.company = company;
     }
 
+    private static boolean isLoaded(Company company) {
+        return Hibernate.isInitialized(company) && Hibernate.isInitialized(company.getDivisions());
+    }
+
     /**
      * If {@link List}&lt;{@link Staffer}&gt; is not null: Calls
-     * {@link #addStaffer(Staffer)} for each Staffer in List&lt;Staffer&gt; to
-     * ensure bidirectional mapping.
+     * {@link #addStaffers(Collection)} to ensure bidirectional mapping.
      *
      * @param staffers the {@link List} with referenced
      * {@link Staffer}<code>s</code>
      */
     public void setStaffers(List<Staffer> staffers) {
         if (staffers != null) {
-            for (Staffer staffer : staffers) {
-                this.addStaffer(staffer);
+            this.addStaffers(staffers);
+        }
+    }
+
+    /**
+     * Adds the submitted {@link Staffer}<code>s</code> to this
+     * {@link Division} and ensures bidirectional mapping in the following
+     * steps:
+     * <ul><li>Group the Staffers by their current Division, skipping Staffers
+     * which already belong to this Division</li>
+     * <li>Remove each group from its Division with a single pass over the
+     * Divisions Staffers, unless that List was not loaded yet</li>
+     * <li>Set the Division of each Staffer to this Division and append them to
+     * this Divisions Staffers</li></ul>
+     * <p>
+     * Moving n Staffers this way costs O(n) plus one pass per old Division,
+     * instead of one List scan per Staffer with
+     * {@link #addStaffer(Staffer)}.
+     *
+     * @param staffers the {@link Collection} with referenced
+     * {@link Staffer}<code>s</code>
+     */
+    public void addStaffers(Collection<Staffer> staffers) {
+        Map<Division, Set<Staffer>> byDivision = new IdentityHashMap<>();
+        List<Staffer> moved = new ArrayList<>(staffers.size());
+        Set<Staffer> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Staffer staffer : staffers) {
+            if (staffer == null || staffer.getDivision() == this || !seen.add(staffer)) {
+                continue;
+            }
+            if (staffer.getDivision() != null) {
+                byDivision.computeIfAbsent(staffer.getDivision(),
+                        d -> Collections.newSetFromMap(new IdentityHashMap<>())).add(staffer);
             }
+            moved.add(staffer);
         }
+        byDivision.forEach((division, group) -> {
+            if (Hibernate.isInitialized(division.getStaffers())) {
+                division.getStaffers().removeIf(group::contains);
+            }
+        });
+        for (Staffer staffer : moved) {
+            staffer.assignDivision(this);
+        }
+        this.getStaffers().addAll(moved);
     }
 
     /**
@@ -191,7 +299,7 @@ public class Division implements Serializable {
         return this.name;
     }
 
-    //<editor-fold defaultstate="collapsed" desc="Getter/Setter">
+    //<editor-fold defaultstate="collapsed" desc="Getter/Setter, equals, hashCode">
     public long getId() {
         return id;
     }
@@ -212,5 +320,36 @@ public class Division implements Serializable {
         return staffers;
     }
 
+    /**
+     * Returns the time of the last change, as it was when this Division was
+     * loaded. Set by the database, see {@link Tombstone#TIMESTAMP_DEFINITION},
+     * so it is null for a Division which was persisted in the current
+     * EntityManager.
+     *
+     * @return Instant - time of the last change, may be null
+     */
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 67 * hash + (int) (this.id ^ (this.id >>> 32));
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Division)) {
+            return false;
+        }
+        final Division other = (Division) obj;
+        return this.id != 0 && this.id == other.getId();
+    }
+
     //</editor-fold>
 }
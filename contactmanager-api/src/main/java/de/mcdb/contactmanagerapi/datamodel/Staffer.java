@@ -1,42 +1,83 @@
 package de.mcdb.contactmanagerapi.datamodel;
 
+import de.mcdb.contactmanagerapi.PooledLoIdGenerator;
 import java.io.Serializable;
+import java.time.Instant;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
+import javax.persistence.NamedSubgraph;
 import javax.persistence.Table;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.OptimisticLocking;
+import org.hibernate.annotations.Parameter;
 
 /**
  * Representation of a person with a job.
  * <p>
  * A Staffer has a forename, a surname and is part of a {@link Division}.
  * <p>
+ * The Division is loaded lazily, use the entity graph
+ * {@link #WITH_DIVISION_AND_COMPANY} to fetch it with the Staffer.
+ * <p>
+ * The time of the last change is kept in the indexed column updated_at, which
+ * is set by the database on every insert and update. The name columns are
+ * indexed as well, tables are sorted and filtered by them.
+ * <p>
  * Contains an id.
  *
  * @author Mirko Schulze
  */
 @Entity
-@Table
+@Table(indexes = {
+    @Index(name = "idx_staffer_updated_at", columnList = "updated_at"),
+    @Index(name = "idx_staffer_name", columnList = "surName, foreName")})
 @OptimisticLocking
+@NamedEntityGraphs({
+    @NamedEntityGraph(name = Staffer.WITH_DIVISION, attributeNodes = @NamedAttributeNode("division")),
+    @NamedEntityGraph(name = Staffer.WITH_DIVISION_AND_COMPANY,
+            attributeNodes = @NamedAttributeNode(value = "division", subgraph = "division"),
+            subgraphs = @NamedSubgraph(name = "division", attributeNodes = @NamedAttributeNode("company")))})
 public class Staffer implements Serializable {
 
+    /**
+     * Name of the entity graph which fetches the {@link Division} together
+     * with the Staffer.
+     */
+    public static final String WITH_DIVISION = "staffer.withDivision";
+
+    /**
+     * Name of the entity graph which fetches the {@link Division} and its
+     * {@link Company} together with the Staffer.
+     */
+    public static final String WITH_DIVISION_AND_COMPANY = "staffer.withDivisionAndCompany";
+
     private static final String DEFAULT_FORENAME = "Annika";
     private static final String DEFAULT_SURNAME = "Sahneschnitte";
 
     @Id
     @Column(name = "staffer_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "staffer_id")
+    @GenericGenerator(name = "staffer_id", strategy = "de.mcdb.contactmanagerapi.PooledLoIdGenerator",
+            parameters = @Parameter(name = PooledLoIdGenerator.SEGMENT_VALUE_PARAM, value = "staffer"))
     private long id;
 
     private String foreName, surName;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Division division;
 
+    @Column(name = "updated_at", insertable = false, updatable = false, columnDefinition = Tombstone.TIMESTAMP_DEFINITION)
+    private Instant updatedAt;
+
     public Staffer() {
 
     }
@@ -74,6 +115,10 @@ public class Staffer implements Serializable {
      * submitted Division</li>
      * <li>Set this Staffers Division to the submitted
      * Division</li></ul></li></ul>
+     * <p>
+     * Staffers of a Division which were not loaded yet are left untouched,
+     * they are read from the database when they are needed. This also keeps
+     * the method usable with detached Divisions.
      *
      * @param division the referenced {@link Division}
      */
@@ -81,15 +126,30 @@ public class Staffer implements Serializable {
         if (this.division == division) {
             return;
         }
-        if (this.division != null) {
+        if (this.division != null && isLoaded(this.division)) {
             this.division.getStaffers().remove(this);
         }
-        if (division != null) {
+        if (division != null && isLoaded(division)) {
             division.getStaffers().add(this);
         }
         this.division = division;
     }
 
+    private static boolean isLoaded(Division division) {
+        return Hibernate.isInitialized(division) && Hibernate.isInitialized(division.getStaffers());
+    }
+
+    /**
+     * Sets the {@link Division} of this {@link Staffer} without touching the
+     * Staffers of any Division. Used by {@link Division#addStaffers} which
+     * maintains the other side of the mapping for a whole group at once.
+     *
+     * @param division the referenced {@link Division}
+     */
+    void assignDivision(Division division) {
+        this.division = division;
+    }
+
     /**
      * Joins and returns a human-readable String with some data of this
      * {@link Staffer}.
@@ -155,6 +215,18 @@ public class Staffer implements Serializable {
     public Division getDivision() {
         return division;
     }
+
+    /**
+     * Returns the time of the last change, as it was when this Staffer was
+     * loaded. Set by the database, see {@link Tombstone#TIMESTAMP_DEFINITION},
+     * so it is null for a Staffer which was persisted in the current
+     * EntityManager.
+     *
+     * @return Instant - time of the last change, may be null
+     */
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
     
     @Override
     public int hashCode() {
@@ -168,17 +240,11 @@ public class Staffer implements Serializable {
         if (this == obj) {
             return true;
         }
-        if (obj == null) {
-            return false;
-        }
-        if (getClass() != obj.getClass()) {
+        if (!(obj instanceof Staffer)) {
             return false;
         }
         final Staffer other = (Staffer) obj;
-        if (this.id != other.id) {
-            return false;
-        }
-        return true;
+        return this.id != 0 && this.id == other.getId();
     }
 
     @Override
@@ -0,0 +1,90 @@
+package de.mcdb.contactmanagerapi.datamodel;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * Record of a removed {@link Company}, {@link Division} or {@link Staffer}.
+ * <p>
+ * Removing an entity leaves a Tombstone with the type and id of the entity and
+ * the time of the removal, so clients which synchronize with
+ * {@link de.mcdb.contactmanagerapi.Dao#findModifiedSince(Instant)} learn about
+ * removed entities as well. The times of the Tombstones and the last-modified
+ * times of the entities are set by the database, so all clients compare them
+ * on the same clock.
+ * <p>
+ * The id is an identity column, so Tombstones for many entities can be
+ * written with one <code>insert ... select</code> statement.
+ *
+ * @author Mirko Schulze
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_tombstone_removed_at", columnList = "entity_type, removed_at"))
+public class Tombstone implements Serializable {
+
+    /**
+     * Column definition of the last-modified and removal times: set by the
+     * database on every insert and every change of a row.
+     */
+    public static final String TIMESTAMP_DEFINITION
+            = "TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)";
+
+    @Id
+    @Column(name = "tombstone_id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "entity_type", nullable = false, length = 32)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private long entityId;
+
+    @Column(name = "removed_at", insertable = false, updatable = false, columnDefinition = TIMESTAMP_DEFINITION)
+    private Instant removedAt;
+
+    public Tombstone() {
+    }
+
+    public Tombstone(Class<?> entityClass, long entityId) {
+        this.entityType = typeOf(entityClass);
+        this.entityId = entityId;
+    }
+
+    /**
+     * Returns the value of the entity_type column for the submitted entity
+     * class.
+     *
+     * @param entityClass the class of the removed entity
+     * @return String - the entity type
+     */
+    public static String typeOf(Class<?> entityClass) {
+        return entityClass.getSimpleName();
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Getter">
+    public long getId() {
+        return id;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public long getEntityId() {
+        return entityId;
+    }
+
+    public Instant getRemovedAt() {
+        return removedAt;
+    }
+
+    //</editor-fold>
+}
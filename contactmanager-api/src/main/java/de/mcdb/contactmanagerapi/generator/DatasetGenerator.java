@@ -0,0 +1,293 @@
+package de.mcdb.contactmanagerapi.generator;
+
+import de.mcdb.contactmanagerapi.datamodel.Company;
+import de.mcdb.contactmanagerapi.datamodel.Division;
+import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generator for deterministic {@link Company}, {@link Division} and
+ * {@link Staffer} data of a chosen size, for load and scale tests.
+ * <p>
+ * Staffers get German forenames and surnames, Companies are named after a
+ * surname and a legal form, Divisions after a department. Sizes are skewed
+ * like in real data: the number of Staffers of the Companies follows a Zipf
+ * distribution with the submitted skew, and so does the number of Staffers
+ * of the Divisions within each Company. Common names are chosen more often
+ * than rare ones.
+ * <p>
+ * All choices are made by a {@link Random} with the submitted seed, whose
+ * algorithm is fixed by its specification, so the same seed and size give the
+ * same data on every JVM.
+ * <p>
+ * {@link #generate(Sink)} hands the data row by row to a {@link Sink} without
+ * holding it in memory, e.g. to the {@link DatasetWriter}, which writes
+ * millions of Staffers in seconds. {@link #generateEntities()} builds the
+ * entity graph for smaller sizes.
+ *
+ * @author Mirko Schulze
+ */
+public class DatasetGenerator {
+
+    /**
+     * Average number of Staffers per Division.
+     */
+    public static final int STAFFERS_PER_DIVISION = 40;
+
+    /**
+     * Average number of Divisions per Company.
+     */
+    public static final int DIVISIONS_PER_COMPANY = 8;
+
+    /**
+     * Exponent of the Zipf distribution of the Company and Division sizes if
+     * none is submitted. 0 gives equal sizes, higher values bigger
+     * differences.
+     */
+    public static final double DEFAULT_SKEW = 1.0;
+
+    /**
+     * Exponent of the Zipf distribution of the names.
+     */
+    private static final double NAME_SKEW = 0.5;
+
+    /**
+     * Receiver of the generated rows. Rows are referenced by their index,
+     * counted from 0 per type. All Companies are handed over first, then all
+     * Divisions, then all Staffers, so parents always come before their
+     * children.
+     *
+     * @param <E> type of the exception the Sink may throw
+     */
+    public interface Sink<E extends Exception> {
+
+        /**
+         * Receives a Company.
+         *
+         * @param index index of the Company
+         * @param name name of the Company
+         * @throws E if the Sink fails
+         */
+        public void company(int index, String name) throws E;
+
+        /**
+         * Receives a Division.
+         *
+         * @param index index of the Division
+         * @param companyIndex index of the Company of the Division
+         * @param name name of the Division
+         * @throws E if the Sink fails
+         */
+        public void division(int index, int companyIndex, String name) throws E;
+
+        /**
+         * Receives a Staffer.
+         *
+         * @param index index of the Staffer
+         * @param divisionIndex index of the Division of the Staffer
+         * @param foreName forename of the Staffer
+         * @param surName surname of the Staffer
+         * @throws E if the Sink fails
+         */
+        public void staffer(int index, int divisionIndex, String foreName, String surName) throws E;
+    }
+
+    private static final double[] FORENAMES = cumulative(zipf(GermanNames.FORENAMES.length, NAME_SKEW));
+
+    private static final double[] SURNAMES = cumulative(zipf(GermanNames.SURNAMES.length, NAME_SKEW));
+
+    private static final double[] LEGAL_FORMS = cumulative(zipf(GermanNames.LEGAL_FORMS.length, NAME_SKEW));
+
+    private final long seed;
+
+    private final int staffers, divisions, companies;
+
+    private final double skew;
+
+    /**
+     * Creates a new DatasetGenerator with the {@link #DEFAULT_SKEW}.
+     *
+     * @param seed seed of the random choices
+     * @param staffers number of Staffers to generate
+     */
+    public DatasetGenerator(long seed, int staffers) {
+        this(seed, staffers, DEFAULT_SKEW);
+    }
+
+    /**
+     * Creates a new DatasetGenerator. The numbers of Divisions and Companies
+     * follow from the number of Staffers, with at least one of each.
+     *
+     * @param seed seed of the random choices
+     * @param staffers number of Staffers to generate
+     * @param skew exponent of the Zipf distribution of the Company and
+     * Division sizes, &gt;= 0
+     */
+    public DatasetGenerator(long seed, int staffers, double skew) {
+        if (staffers < 0) {
+            throw new IllegalArgumentException("staffers must be >= 0, was " + staffers);
+        }
+        if (!(skew >= 0)) {
+            throw new IllegalArgumentException("skew must be >= 0, was " + skew);
+        }
+        this.seed = seed;
+        this.skew = skew;
+        this.staffers = staffers;
+        this.divisions = Math.max(1, staffers / STAFFERS_PER_DIVISION);
+        this.companies = Math.max(1, this.divisions / DIVISIONS_PER_COMPANY);
+    }
+
+    /**
+     * Generates the data and hands it row by row to the submitted
+     * {@link Sink}. Holds no more than the sizes of the Companies and
+     * Divisions in memory.
+     *
+     * @param <E> type of the exception the Sink may throw
+     * @param sink the Sink to receive the rows
+     * @throws E if the Sink fails
+     */
+    public <E extends Exception> void generate(Sink<E> sink) throws E {
+        Random random = new Random(this.seed);
+
+        double[] companyWeights = zipf(this.companies, this.skew);
+        shuffle(companyWeights, random);
+        for (int c = 0; c < this.companies; c++) {
+            sink.company(c, pick(GermanNames.SURNAMES, SURNAMES, random) + " "
+                    + pick(GermanNames.LEGAL_FORMS, LEGAL_FORMS, random));
+        }
+
+        // every Company gets one Division, the others are spread by size
+        double[] companyCumulative = cumulative(companyWeights);
+        int[] companyOf = new int[this.divisions];
+        int[] rankOf = new int[this.divisions];
+        int[] divisionsOf = new int[this.companies];
+        for (int d = 0; d < this.divisions; d++) {
+            int company = d < this.companies ? d : pick(companyCumulative, random);
+            companyOf[d] = company;
+            rankOf[d] = divisionsOf[company]++;
+        }
+        double[] rankSums = new double[this.companies];
+        for (int d = 0; d < this.divisions; d++) {
+            rankSums[companyOf[d]] += rankWeight(rankOf[d], this.skew);
+        }
+        double[] divisionWeights = new double[this.divisions];
+        for (int d = 0; d < this.divisions; d++) {
+            int company = companyOf[d];
+            divisionWeights[d] = companyWeights[company] * rankWeight(rankOf[d], this.skew) / rankSums[company];
+            sink.division(d, company, divisionName(rankOf[d]));
+        }
+
+        double[] divisionCumulative = cumulative(divisionWeights);
+        for (int s = 0; s < this.staffers; s++) {
+            sink.staffer(s, pick(divisionCumulative, random),
+                    pick(GermanNames.FORENAMES, FORENAMES, random), pick(GermanNames.SURNAMES, SURNAMES, random));
+        }
+    }
+
+    /**
+     * Generates the data as transient entities with bidirectional mapping.
+     * Holds all entities in memory, so it suits sizes up to some hundred
+     * thousand Staffers; larger data should be written with
+     * {@link DatasetWriter}.
+     *
+     * @return List&lt;Company&gt; - the Companies with their Divisions and
+     * Staffers
+     */
+    public List<Company> generateEntities() {
+        List<Company> companyList = new ArrayList<>(this.companies);
+        List<Division> divisionList = new ArrayList<>(this.divisions);
+        this.generate(new Sink<RuntimeException>() {
+            @Override
+            public void company(int index, String name) {
+                companyList.add(new Company(name));
+            }
+
+            @Override
+            public void division(int index, int companyIndex, String name) {
+                divisionList.add(new Division(name, companyList.get(companyIndex)));
+            }
+
+            @Override
+            public void staffer(int index, int divisionIndex, String foreName, String surName) {
+                new Staffer(foreName, surName, divisionList.get(divisionIndex));
+            }
+        });
+        return companyList;
+    }
+
+    private static String divisionName(int rank) {
+        String name = GermanNames.DIVISIONS[rank % GermanNames.DIVISIONS.length];
+        int round = rank / GermanNames.DIVISIONS.length;
+        return round == 0 ? name : name + " " + (round + 1);
+    }
+
+    private static double rankWeight(int rank, double skew) {
+        return 1 / Math.pow(rank + 1, skew);
+    }
+
+    private static double[] zipf(int size, double skew) {
+        double[] weights = new double[size];
+        for (int i = 0; i < size; i++) {
+            weights[i] = rankWeight(i, skew);
+        }
+        return weights;
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+
+    private static void shuffle(double[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            double value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    /**
+     * Picks an index with a probability proportional to its weight, given the
+     * cumulative weights.
+     */
+    private static int pick(double[] cumulative, Random random) {
+        double x = random.nextDouble() * cumulative[cumulative.length - 1];
+        int i = Arrays.binarySearch(cumulative, x);
+        return Math.min(i >= 0 ? i + 1 : -i - 1, cumulative.length - 1);
+    }
+
+    private static String pick(String[] values, double[] cumulative, Random random) {
+        return values[pick(cumulative, random)];
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Getter">
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getStafferCount() {
+        return staffers;
+    }
+
+    public int getDivisionCount() {
+        return divisions;
+    }
+
+    public int getCompanyCount() {
+        return companies;
+    }
+
+    public double getSkew() {
+        return skew;
+    }
+    //</editor-fold>
+}
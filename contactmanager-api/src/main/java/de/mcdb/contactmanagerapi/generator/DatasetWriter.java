@@ -0,0 +1,199 @@
+package de.mcdb.contactmanagerapi.generator;
+
+import de.mcdb.contactmanagerapi.PooledLoIdGenerator;
+import de.mcdb.contactmanagerapi.datamodel.Company;
+import de.mcdb.contactmanagerapi.datamodel.Division;
+import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the data of a {@link DatasetGenerator} with batched JDBC inserts,
+ * without creating any entity.
+ * <p>
+ * Table and column names are read from the mapping of the submitted
+ * {@link EntityManagerFactory}. The ids are reserved in one step per entity
+ * with {@link PooledLoIdGenerator#reserve(Connection, long)}, so applications
+ * running on the same database keep generating ids without collisions. The
+ * last-modified times are set by the database.
+ * <p>
+ * Rows are sent in batches of {@value #BATCH_SIZE}, which MySQL Connector/J
+ * rewrites to multi-row inserts with <code>rewriteBatchedStatements=true</code>,
+ * and committed every {@value #COMMIT_SIZE} rows. A failed write leaves the
+ * committed rows in the database.
+ * <p>
+ * The second-level cache does not know about the written rows, so caches
+ * should be cleared afterwards.
+ *
+ * @author Mirko Schulze
+ */
+public class DatasetWriter {
+
+    private static final Logger L = LoggerFactory.getLogger(DatasetWriter.class);
+
+    /**
+     * Number of rows per JDBC batch.
+     */
+    public static final int BATCH_SIZE = 1000;
+
+    /**
+     * Number of rows per transaction.
+     */
+    public static final int COMMIT_SIZE = 20_000;
+
+    private final Target companies, divisions, staffers;
+
+    /**
+     * Creates a new DatasetWriter for the tables of the submitted
+     * {@link EntityManagerFactory}.
+     *
+     * @param emf the EntityManagerFactory with the mapping of the entities
+     */
+    public DatasetWriter(EntityManagerFactory emf) {
+        SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        this.companies = new Target(sessionFactory, Company.class, "name");
+        this.divisions = new Target(sessionFactory, Division.class, "name", "company");
+        this.staffers = new Target(sessionFactory, Staffer.class, "foreName", "surName", "division");
+    }
+
+    /**
+     * Inserts the data of the submitted {@link DatasetGenerator} with the
+     * submitted {@link Connection}. The auto-commit mode of the Connection is
+     * switched off while writing and restored afterwards.
+     *
+     * @param connection the Connection to write with, not used by any
+     * transaction
+     * @param generator the generator of the data
+     * @throws SQLException if the ids cannot be reserved or a row cannot be
+     * inserted
+     */
+    public void write(Connection connection, DatasetGenerator generator) throws SQLException {
+        L.info("Writing {} [{}], {} [{}] and {} [{}] with seed {}",
+                generator.getCompanyCount(), Company.class.getSimpleName(),
+                generator.getDivisionCount(), Division.class.getSimpleName(),
+                generator.getStafferCount(), Staffer.class.getSimpleName(), generator.getSeed());
+        long start = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            long firstCompany = this.companies.generator.reserve(connection, generator.getCompanyCount());
+            long firstDivision = this.divisions.generator.reserve(connection, generator.getDivisionCount());
+            long firstStaffer = this.staffers.generator.reserve(connection, generator.getStafferCount());
+            connection.commit();
+            try (PreparedStatement company = connection.prepareStatement(this.companies.insert);
+                    PreparedStatement division = connection.prepareStatement(this.divisions.insert);
+                    PreparedStatement staffer = connection.prepareStatement(this.staffers.insert)) {
+                Batches batches = new Batches(connection);
+                generator.generate(new DatasetGenerator.Sink<SQLException>() {
+                    @Override
+                    public void company(int index, String name) throws SQLException {
+                        company.setLong(1, firstCompany + index);
+                        company.setString(2, name);
+                        batches.add(company);
+                    }
+
+                    @Override
+                    public void division(int index, int companyIndex, String name) throws SQLException {
+                        division.setLong(1, firstDivision + index);
+                        division.setString(2, name);
+                        division.setLong(3, firstCompany + companyIndex);
+                        batches.add(division);
+                    }
+
+                    @Override
+                    public void staffer(int index, int divisionIndex, String foreName, String surName) throws SQLException {
+                        staffer.setLong(1, firstStaffer + index);
+                        staffer.setString(2, foreName);
+                        staffer.setString(3, surName);
+                        staffer.setLong(4, firstDivision + divisionIndex);
+                        batches.add(staffer);
+                    }
+                });
+                batches.flush();
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        L.info("Data with seed {} written in {} ms", generator.getSeed(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Collects the rows of one {@link PreparedStatement} at a time into
+     * batches. A row of another statement first executes the pending batch,
+     * so parents are inserted before their children.
+     */
+    private static class Batches {
+
+        private final Connection connection;
+
+        private PreparedStatement current;
+
+        private int pending, uncommitted;
+
+        Batches(Connection connection) {
+            this.connection = connection;
+        }
+
+        void add(PreparedStatement statement) throws SQLException {
+            if (statement != this.current) {
+                this.flush();
+                this.current = statement;
+            }
+            statement.addBatch();
+            if (++this.pending == BATCH_SIZE) {
+                this.flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            if (this.pending == 0) {
+                return;
+            }
+            this.current.executeBatch();
+            this.uncommitted += this.pending;
+            this.pending = 0;
+            if (this.uncommitted >= COMMIT_SIZE) {
+                this.connection.commit();
+                this.uncommitted = 0;
+            }
+        }
+    }
+
+    /**
+     * Insert statement and id generator of the table of one entity.
+     */
+    private static class Target {
+
+        private final String insert;
+
+        private final PooledLoIdGenerator generator;
+
+        Target(SessionFactoryImplementor sessionFactory, Class<?> entityClass, String... properties) {
+            AbstractEntityPersister persister = (AbstractEntityPersister) sessionFactory.getMetamodel()
+                    .entityPersister(entityClass);
+            if (!(persister.getIdentifierGenerator() instanceof PooledLoIdGenerator)) {
+                throw new IllegalStateException("Ids of [" + entityClass.getSimpleName() + "] are not generated by ["
+                        + PooledLoIdGenerator.class.getSimpleName() + "]");
+            }
+            this.generator = (PooledLoIdGenerator) persister.getIdentifierGenerator();
+            StringBuilder columns = new StringBuilder(persister.getIdentifierColumnNames()[0]);
+            StringBuilder values = new StringBuilder("?");
+            for (String property : properties) {
+                columns.append(", ").append(persister.getPropertyColumnNames(property)[0]);
+                values.append(", ?");
+            }
+            this.insert = "insert into " + persister.getTableName() + " (" + columns + ") values (" + values + ")";
+        }
+    }
+
+}
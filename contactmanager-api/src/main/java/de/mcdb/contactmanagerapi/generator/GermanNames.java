@@ -0,0 +1,49 @@
+package de.mcdb.contactmanagerapi.generator;
+
+/**
+ * Name lists for the {@link DatasetGenerator}, each ordered from the most to
+ * the least common entry, so a skewed choice by rank gives a realistic
+ * distribution.
+ *
+ * @author Mirko Schulze
+ */
+class GermanNames {
+
+    static final String[] FORENAMES = {
+        "Maria", "Thomas", "Michael", "Andreas", "Stefan", "Peter", "Sabine", "Christian", "Klaus", "Susanne",
+        "Petra", "Wolfgang", "Jürgen", "Monika", "Frank", "Claudia", "Markus", "Andrea", "Martin", "Birgit",
+        "Alexander", "Nicole", "Uwe", "Julia", "Daniel", "Katharina", "Matthias", "Anja", "Sebastian", "Ursula",
+        "Tobias", "Karin", "Jan", "Stefanie", "Dirk", "Heike", "Florian", "Gabriele", "Jens", "Anna",
+        "Bernd", "Christina", "Holger", "Laura", "Torsten", "Lisa", "Ralf", "Sandra", "Jörg", "Melanie",
+        "Lukas", "Lena", "Felix", "Lea", "Jonas", "Hannah", "Maximilian", "Sophie", "Leon", "Emma",
+        "Paul", "Mia", "Niklas", "Marie", "Tim", "Johanna", "Philipp", "Annika", "Moritz", "Franziska",
+        "Dieter", "Renate", "Günter", "Ingrid", "Horst", "Helga", "Manfred", "Brigitte", "Rainer", "Elke"
+    };
+
+    static final String[] SURNAMES = {
+        "Müller", "Schmidt", "Schneider", "Fischer", "Weber", "Meyer", "Wagner", "Becker", "Schulz", "Hoffmann",
+        "Schäfer", "Koch", "Bauer", "Richter", "Klein", "Wolf", "Schröder", "Neumann", "Schwarz", "Zimmermann",
+        "Braun", "Krüger", "Hofmann", "Hartmann", "Lange", "Schmitt", "Werner", "Schmitz", "Krause", "Meier",
+        "Lehmann", "Schmid", "Schulze", "Maier", "Köhler", "Herrmann", "König", "Walter", "Mayer", "Huber",
+        "Kaiser", "Fuchs", "Peters", "Lang", "Scholz", "Möller", "Weiß", "Jung", "Hahn", "Schubert",
+        "Vogel", "Friedrich", "Keller", "Günther", "Frank", "Berger", "Winkler", "Roth", "Beck", "Lorenz",
+        "Baumann", "Franke", "Albrecht", "Schuster", "Simon", "Ludwig", "Böhm", "Winter", "Kraus", "Martin",
+        "Schumacher", "Krämer", "Vogt", "Stein", "Jäger", "Otto", "Sommer", "Groß", "Seidel", "Heinrich",
+        "Brandt", "Haas", "Schreiber", "Graf", "Schulte", "Dietrich", "Ziegler", "Kuhn", "Kühn", "Pohl",
+        "Engel", "Horn", "Busch", "Bergmann", "Thomas", "Voigt", "Sauer", "Arnold", "Wolff", "Pfeiffer"
+    };
+
+    static final String[] LEGAL_FORMS = {
+        "GmbH", "GmbH & Co. KG", "AG", "KG", "OHG", "e.K.", "SE", "GbR"
+    };
+
+    static final String[] DIVISIONS = {
+        "Vertrieb", "Verwaltung", "Produktion", "Einkauf", "Buchhaltung", "Personal", "IT", "Marketing",
+        "Logistik", "Kundendienst", "Controlling", "Forschung und Entwicklung", "Qualitätssicherung", "Recht",
+        "Geschäftsführung", "Lager", "Instandhaltung", "Öffentlichkeitsarbeit"
+    };
+
+    private GermanNames() {
+    }
+
+}
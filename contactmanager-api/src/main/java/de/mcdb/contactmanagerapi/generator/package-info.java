@@ -0,0 +1,5 @@
+/**
+ * Contains a generator for deterministic test data and a writer which inserts
+ * it with batched JDBC, for load and scale tests.
+ */
+package de.mcdb.contactmanagerapi.generator;
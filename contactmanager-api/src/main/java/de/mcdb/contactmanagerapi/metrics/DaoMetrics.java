@@ -0,0 +1,224 @@
+package de.mcdb.contactmanagerapi.metrics;
+
+import de.mcdb.contactmanagerapi.ChangeSet;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of the {@link OperationMetrics} of all DAO operations, by entity
+ * and operation.
+ * <p>
+ * The metrics of an operation are created with its first call and registered
+ * as MXBean on the platform MBeanServer, so they can be watched with
+ * JConsole or VisualVM. {@link #writeText(Appendable)} writes all of them in
+ * the Prometheus text format.
+ * <p>
+ * All counters are lock-free; looking up the metrics of an operation is one
+ * read of a {@link ConcurrentHashMap}.
+ *
+ * @author Mirko Schulze
+ */
+public class DaoMetrics {
+
+    private static final Logger L = LoggerFactory.getLogger(DaoMetrics.class);
+
+    /**
+     * Domain of the ObjectNames of the registered MXBeans.
+     */
+    public static final String JMX_DOMAIN = "de.mcdb.contactmanager";
+
+    private static final String METRIC_PREFIX = "contactmanager_dao_";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static final DaoMetrics DEFAULT = new DaoMetrics(true);
+
+    private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    private final boolean registerMBeans;
+
+    /**
+     * Creates a new DaoMetrics.
+     *
+     * @param registerMBeans whether to register the metrics of each operation
+     * as MXBean
+     */
+    public DaoMetrics(boolean registerMBeans) {
+        this.registerMBeans = registerMBeans;
+    }
+
+    /**
+     * Returns the DaoMetrics shared by all DAOs of the application, which
+     * registers its MXBeans.
+     *
+     * @return DaoMetrics - the shared DaoMetrics
+     */
+    public static DaoMetrics getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the metrics of the submitted operation of the submitted entity,
+     * and creates them if they do not exist yet.
+     *
+     * @param entity simple name of the entity class, e.g. Staffer
+     * @param operation name of the DAO method, e.g. update
+     * @return OperationMetrics - the metrics of the operation
+     */
+    public OperationMetrics get(String entity, String operation) {
+        String key = entity + '.' + operation;
+        OperationMetrics metrics = this.operations.get(key);
+        if (metrics != null) {
+            return metrics;
+        }
+        return this.operations.computeIfAbsent(key, k -> {
+            OperationMetrics created = new OperationMetrics(entity, operation);
+            if (this.registerMBeans) {
+                register(created);
+            }
+            return created;
+        });
+    }
+
+    /**
+     * Returns the metrics of the submitted operation of the submitted entity
+     * class.
+     *
+     * @param entityClass the entity class
+     * @param operation name of the DAO method, e.g. update
+     * @return OperationMetrics - the metrics of the operation
+     */
+    public OperationMetrics get(Class<?> entityClass, String operation) {
+        return this.get(entityClass.getSimpleName(), operation);
+    }
+
+    /**
+     * Returns the metrics of all operations which were called so far, ordered
+     * by entity and operation.
+     *
+     * @return List&lt;OperationMetrics&gt; - the metrics
+     */
+    public List<OperationMetrics> getAll() {
+        List<OperationMetrics> all = new ArrayList<>(this.operations.values());
+        all.sort(Comparator.comparing(OperationMetrics::getEntity).thenComparing(OperationMetrics::getOperation));
+        return all;
+    }
+
+    /**
+     * Sets the counters of all operations back to 0.
+     */
+    public void reset() {
+        this.operations.values().forEach(OperationMetrics::reset);
+    }
+
+    /**
+     * Writes the metrics of all operations in the Prometheus text format:
+     * the latencies as summary in seconds with the 50th, 90th and 99th
+     * percentile, and the errors and rows as counters, each labeled with
+     * entity and operation.
+     *
+     * @param out the Appendable to write to
+     * @throws IOException if writing fails
+     */
+    public void writeText(Appendable out) throws IOException {
+        List<OperationMetrics> all = this.getAll();
+        String latency = METRIC_PREFIX + "latency_seconds";
+        out.append("# HELP ").append(latency).append(" Latency of the DAO operations.\n");
+        out.append("# TYPE ").append(latency).append(" summary\n");
+        for (OperationMetrics metrics : all) {
+            LatencyHistogram histogram = metrics.getLatency();
+            for (double quantile : QUANTILES) {
+                appendLine(out, latency, metrics, ",quantile=\"" + quantile + "\"",
+                        seconds(histogram.getPercentile(quantile)));
+            }
+            appendLine(out, latency + "_sum", metrics, "", seconds(histogram.getSum()));
+            appendLine(out, latency + "_count", metrics, "", String.valueOf(histogram.getCount()));
+        }
+        String errors = METRIC_PREFIX + "errors_total";
+        out.append("# HELP ").append(errors).append(" Failed calls of the DAO operations.\n");
+        out.append("# TYPE ").append(errors).append(" counter\n");
+        for (OperationMetrics metrics : all) {
+            appendLine(out, errors, metrics, "", String.valueOf(metrics.getErrors()));
+        }
+        String rows = METRIC_PREFIX + "rows_total";
+        out.append("# HELP ").append(rows).append(" Rows read or written by the DAO operations.\n");
+        out.append("# TYPE ").append(rows).append(" counter\n");
+        for (OperationMetrics metrics : all) {
+            appendLine(out, rows, metrics, "", String.valueOf(metrics.getRows()));
+        }
+    }
+
+    private static void appendLine(Appendable out, String name, OperationMetrics metrics, String labels,
+            String value) throws IOException {
+        out.append(name).append("{entity=\"").append(metrics.getEntity())
+                .append("\",operation=\"").append(metrics.getOperation()).append('"')
+                .append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Registers the submitted metrics as MXBean. An MXBean of the same name,
+     * e.g. of a previous deployment of the web application, is replaced.
+     */
+    private static void register(OperationMetrics metrics) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(JMX_DOMAIN + ":type=DaoMetrics,entity="
+                    + ObjectName.quote(metrics.getEntity()) + ",operation=" + ObjectName.quote(metrics.getOperation()));
+            try {
+                server.registerMBean(metrics, name);
+            } catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(name);
+                server.registerMBean(metrics, name);
+            }
+        } catch (JMException | SecurityException e) {
+            L.info("Catching [{}] in [{}], metrics of {}.{} are not available through JMX", e.toString(),
+                    DaoMetrics.class.getSimpleName(), metrics.getEntity(), metrics.getOperation());
+        }
+    }
+
+    /**
+     * Counts the rows of the submitted result of a DAO operation: the size of
+     * a {@link Collection}, the modified and removed entities of a
+     * {@link ChangeSet}, 0 for null and 1 for any other object. Numbers are
+     * not counted, since they may be a count as well as a number of changed
+     * rows, and neither are Streams, which are read after the call.
+     *
+     * @param result the result of the operation
+     * @return long - the number of rows
+     */
+    public static long rowsOf(Object result) {
+        if (result == null || result instanceof Number || result instanceof BaseStream) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof ChangeSet) {
+            ChangeSet<?> changes = (ChangeSet<?>) result;
+            return changes.getModified().size() + changes.getRemovedIds().size();
+        }
+        return 1;
+    }
+
+}
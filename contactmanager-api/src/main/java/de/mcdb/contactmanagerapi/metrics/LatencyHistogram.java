@@ -0,0 +1,153 @@
+package de.mcdb.contactmanagerapi.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds.
+ * <p>
+ * Values are counted in log-linear buckets: each power of two is split into
+ * {@value #SUB_BUCKETS} buckets of equal width, so a percentile is off by at
+ * most 1/{@value #SUB_BUCKETS} of its value, whatever the range of the
+ * values. Recording a value costs a few atomic increments and no allocation,
+ * so it can be called on every DAO operation from any number of threads.
+ * <p>
+ * Reads are not atomic across the counters. A percentile computed while
+ * values are recorded may count a value in the total but not yet in its
+ * bucket, which is irrelevant for monitoring.
+ *
+ * @author Mirko Schulze
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+
+    /**
+     * Number of buckets per power of two.
+     */
+    public static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records the submitted latency. Negative values are counted as 0.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        this.buckets.incrementAndGet(bucketOf(value));
+        this.count.increment();
+        this.sum.add(value);
+        this.max.accumulate(value);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return long - the number of values
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Returns the sum of the recorded values.
+     *
+     * @return long - the sum in nanoseconds
+     */
+    public long getSum() {
+        return this.sum.sum();
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return long - the maximum in nanoseconds, 0 if there are no values
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return double - the mean in nanoseconds, 0 if there are no values
+     */
+    public double getMean() {
+        long n = this.getCount();
+        return n == 0 ? 0 : (double) this.getSum() / n;
+    }
+
+    /**
+     * Returns the value below which the submitted fraction of the recorded
+     * values lies, as upper bound of its bucket, but not above
+     * {@link #getMax()}.
+     *
+     * @param quantile the fraction, from 0 to 1, e.g. 0.99 for the 99th
+     * percentile
+     * @return long - the percentile in nanoseconds, 0 if there are no values
+     */
+    public long getPercentile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("quantile must be between 0 and 1, was " + quantile);
+        }
+        long n = this.getCount();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), this.getMax());
+            }
+        }
+        return this.getMax();
+    }
+
+    /**
+     * Sets all counters back to 0.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets.set(i, 0);
+        }
+        this.count.reset();
+        this.sum.reset();
+        this.max.reset();
+    }
+
+    /**
+     * Values below {@link #SUB_BUCKETS} get a bucket each, larger values
+     * share the bucket of their highest {@value #SUB_BITS} + 1 bits.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+        return lower + (1L << (exponent - SUB_BITS)) - 1;
+    }
+
+}
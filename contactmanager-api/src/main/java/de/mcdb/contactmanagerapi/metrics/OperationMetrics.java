@@ -0,0 +1,159 @@
+package de.mcdb.contactmanagerapi.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Latencies, errors and affected rows of one operation of the DAO of one
+ * entity, e.g. <code>update</code> of <code>Division</code>.
+ * <p>
+ * Failed calls are counted as errors, and their latency is recorded as well,
+ * since a call which runs into a timeout is just the one to show up in the
+ * 99th percentile. Rows are counted for successful calls only.
+ *
+ * @author Mirko Schulze
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String entity, operation;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder rows = new LongAdder();
+
+    OperationMetrics(String entity, String operation) {
+        this.entity = entity;
+        this.operation = operation;
+    }
+
+    /**
+     * Runs the submitted operation and records its latency, and the rows
+     * counted by the submitted function from the result, or an error if it
+     * throws.
+     *
+     * @param <R> type of the result
+     * @param operation the operation to run
+     * @param rowsOf function to count the affected rows from the result
+     * @return R - the result of the operation
+     */
+    public <R> R time(Supplier<R> operation, ToLongFunction<? super R> rowsOf) {
+        long start = System.nanoTime();
+        R result;
+        try {
+            result = operation.get();
+        } catch (RuntimeException | Error e) {
+            this.recordError(System.nanoTime() - start);
+            throw e;
+        }
+        this.record(System.nanoTime() - start, rowsOf.applyAsLong(result));
+        return result;
+    }
+
+    /**
+     * Runs the submitted operation and records its latency and the submitted
+     * number of rows, or an error if it throws.
+     *
+     * @param operation the operation to run
+     * @param rows number of rows the operation affects
+     */
+    public void time(Runnable operation, long rows) {
+        this.time(() -> {
+            operation.run();
+            return null;
+        }, result -> rows);
+    }
+
+    /**
+     * Records a successful call.
+     *
+     * @param nanos latency of the call
+     * @param rows number of rows read or written by the call
+     */
+    public void record(long nanos, long rows) {
+        this.latency.record(nanos);
+        this.rows.add(rows);
+    }
+
+    /**
+     * Records a failed call.
+     *
+     * @param nanos latency of the call until it failed
+     */
+    public void recordError(long nanos) {
+        this.latency.record(nanos);
+        this.errors.increment();
+    }
+
+    /**
+     * Returns the histogram of the latencies of all calls.
+     *
+     * @return LatencyHistogram - the histogram
+     */
+    public LatencyHistogram getLatency() {
+        return this.latency;
+    }
+
+    @Override
+    public String getEntity() {
+        return this.entity;
+    }
+
+    @Override
+    public String getOperation() {
+        return this.operation;
+    }
+
+    @Override
+    public long getCount() {
+        return this.latency.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return this.errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return this.rows.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return this.latency.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return this.latency.getPercentile(0.5) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP90Millis() {
+        return this.latency.getPercentile(0.9) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return this.latency.getPercentile(0.99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return this.latency.getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public void reset() {
+        this.latency.reset();
+        this.errors.reset();
+        this.rows.reset();
+    }
+
+}
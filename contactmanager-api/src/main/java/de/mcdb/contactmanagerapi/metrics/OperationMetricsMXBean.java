@@ -0,0 +1,38 @@
+package de.mcdb.contactmanagerapi.metrics;
+
+/**
+ * JMX view of the {@link OperationMetrics} of one DAO operation, registered
+ * as
+ * <code>de.mcdb.contactmanager:type=DaoMetrics,entity=...,operation=...</code>.
+ * Latencies are in milliseconds.
+ *
+ * @author Mirko Schulze
+ */
+public interface OperationMetricsMXBean {
+
+    public String getEntity();
+
+    public String getOperation();
+
+    public long getCount();
+
+    public long getErrors();
+
+    public long getRows();
+
+    public double getMeanMillis();
+
+    public double getP50Millis();
+
+    public double getP90Millis();
+
+    public double getP99Millis();
+
+    public double getMaxMillis();
+
+    /**
+     * Sets all counters of the operation back to 0.
+     */
+    public void reset();
+
+}
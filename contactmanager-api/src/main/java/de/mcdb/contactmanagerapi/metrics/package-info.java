@@ -0,0 +1,5 @@
+/**
+ * Contains lock-free latency histograms and counters of the DAO operations,
+ * exposed through JMX and as text.
+ */
+package de.mcdb.contactmanagerapi.metrics;
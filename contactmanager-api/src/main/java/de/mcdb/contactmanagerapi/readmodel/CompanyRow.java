@@ -0,0 +1,78 @@
+package de.mcdb.contactmanagerapi.readmodel;
+
+import de.mcdb.contactmanagerapi.datamodel.Company;
+import java.io.Serializable;
+
+/**
+ * Flat read-only view of a {@link Company}.
+ *
+ * @author Mirko Schulze
+ */
+public class CompanyRow implements Serializable {
+
+    private final long id;
+
+    private final String name;
+
+    /**
+     * Creates a new row.
+     *
+     * @param id id of the {@link Company}
+     * @param name name of the Company
+     */
+    public CompanyRow(long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    /**
+     * Joins and returns a human-readable String with some data of this
+     * {@link CompanyRow}.
+     *
+     * @return String - human-readable representation of this
+     * {@link CompanyRow}
+     */
+    public String toSimpleLine() {
+        return this.name;
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Getter, equals, hashCode, toString">
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 59 * hash + (int) (this.id ^ (this.id >>> 32));
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final CompanyRow other = (CompanyRow) obj;
+        if (this.id != other.id) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "CompanyRow{" + "id=" + id + ", name=" + name + '}';
+    }
+    //</editor-fold>
+}
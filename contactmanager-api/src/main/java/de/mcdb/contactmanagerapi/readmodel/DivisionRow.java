@@ -0,0 +1,93 @@
+package de.mcdb.contactmanagerapi.readmodel;
+
+import de.mcdb.contactmanagerapi.datamodel.Division;
+import java.io.Serializable;
+
+/**
+ * Flat read-only view of a {@link Division} with the id and name of its
+ * Company.
+ *
+ * @author Mirko Schulze
+ */
+public class DivisionRow implements Serializable {
+
+    private final long id;
+
+    private final Long companyId;
+
+    private final String name, companyName;
+
+    /**
+     * Creates a new row.
+     *
+     * @param id id of the {@link Division}
+     * @param name name of the Division
+     * @param companyId id of the Company of the Division, may be null
+     * @param companyName name of the Company of the Division, may be null
+     */
+    public DivisionRow(long id, String name, Long companyId, String companyName) {
+        this.id = id;
+        this.name = name;
+        this.companyId = companyId;
+        this.companyName = companyName;
+    }
+
+    /**
+     * Joins and returns a human-readable String with some data of this
+     * {@link DivisionRow}.
+     *
+     * @return String - human-readable representation of this
+     * {@link DivisionRow}
+     */
+    public String toSimpleLine() {
+        return this.name;
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Getter, equals, hashCode, toString">
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public String getCompanyName() {
+        return companyName;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 59 * hash + (int) (this.id ^ (this.id >>> 32));
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final DivisionRow other = (DivisionRow) obj;
+        if (this.id != other.id) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "DivisionRow{" + "id=" + id + ", name=" + name + ", companyId=" + companyId + ", companyName=" + companyName + '}';
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,116 @@
+package de.mcdb.contactmanagerapi.readmodel;
+
+import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import java.io.Serializable;
+
+/**
+ * Flat read-only view of a {@link Staffer} with the ids and names of its
+ * Division and Company.
+ * <p>
+ * Filled by a single joined projection query, so showing a list of Staffers
+ * does not load any Division or Company entity.
+ *
+ * @author Mirko Schulze
+ */
+public class StafferRow implements Serializable {
+
+    private final long id;
+
+    private final Long divisionId, companyId;
+
+    private final String foreName, surName, divisionName, companyName;
+
+    /**
+     * Creates a new row. Used as the constructor expression of the projection
+     * query, so the parameter order must match the selected columns.
+     *
+     * @param id id of the {@link Staffer}
+     * @param foreName forename of the Staffer
+     * @param surName surname of the Staffer
+     * @param divisionId id of the Division of the Staffer, may be null
+     * @param divisionName name of the Division of the Staffer, may be null
+     * @param companyId id of the Company of the Division, may be null
+     * @param companyName name of the Company of the Division, may be null
+     */
+    public StafferRow(long id, String foreName, String surName, Long divisionId, String divisionName,
+            Long companyId, String companyName) {
+        this.id = id;
+        this.foreName = foreName;
+        this.surName = surName;
+        this.divisionId = divisionId;
+        this.divisionName = divisionName;
+        this.companyId = companyId;
+        this.companyName = companyName;
+    }
+
+    /**
+     * Joins and returns a human-readable String with some data of this
+     * {@link StafferRow}.
+     *
+     * @return String - human-readable representation of this
+     * {@link StafferRow}
+     */
+    public String toSimpleLine() {
+        return this.foreName + " " + this.surName;
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Getter, equals, hashCode, toString">
+    public long getId() {
+        return id;
+    }
+
+    public String getForeName() {
+        return foreName;
+    }
+
+    public String getSurName() {
+        return surName;
+    }
+
+    public Long getDivisionId() {
+        return divisionId;
+    }
+
+    public String getDivisionName() {
+        return divisionName;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public String getCompanyName() {
+        return companyName;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 59 * hash + (int) (this.id ^ (this.id >>> 32));
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final StafferRow other = (StafferRow) obj;
+        if (this.id != other.id) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "StafferRow{" + "id=" + id + ", foreName=" + foreName + ", surName=" + surName + ", divisionId=" + divisionId + ", divisionName=" + divisionName + ", companyId=" + companyId + ", companyName=" + companyName + '}';
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,5 @@
+/**
+ * Contains flat read-only views of the entities, filled by projection queries
+ * or built from loaded entities.
+ */
+package de.mcdb.contactmanagerapi.readmodel;
@@ -0,0 +1,129 @@
+package de.mcdb.contactmanagerapi.slowquery;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One statement which took longer than the threshold of the
+ * {@link SlowQueryLog}.
+ * <p>
+ * The SQL is normalized: whitespace is collapsed and the literals of plain
+ * statements are replaced with <code>?</code> and listed as parameters, so
+ * equal statements look equal whatever their values are.
+ *
+ * @author Mirko Schulze
+ */
+public final class SlowQuery {
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Instant time;
+
+    private final String sql;
+
+    private final List<String> parameters;
+
+    private final long rows;
+
+    private final int batchSize;
+
+    private final long nanos;
+
+    private final String caller;
+
+    /**
+     * Creates a new SlowQuery.
+     *
+     * @param time the time the statement was finished
+     * @param sql the normalized SQL
+     * @param parameters the bind values as SQL literals, of the first
+     * statement if it was a batch
+     * @param rows number of rows read or changed
+     * @param batchSize number of statements of the batch, 1 if it was no
+     * batch
+     * @param nanos time to execute the statement and to read its rows
+     * @param caller the calling DAO method, e.g.
+     * <code>StafferDao.findAllRows</code>, or null if it is not known
+     */
+    public SlowQuery(Instant time, String sql, List<String> parameters, long rows, int batchSize, long nanos,
+            String caller) {
+        this.time = time;
+        this.sql = sql;
+        this.parameters = Collections.unmodifiableList(parameters);
+        this.rows = rows;
+        this.batchSize = batchSize;
+        this.nanos = nanos;
+        this.caller = caller;
+    }
+
+    /**
+     * Returns the time of the statement in milliseconds.
+     *
+     * @return double - the time in milliseconds
+     */
+    public double getMillis() {
+        return this.nanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the bind values separated by commas.
+     *
+     * @return String - the bind values
+     */
+    public String getParameterText() {
+        return String.join(", ", this.parameters);
+    }
+
+    /**
+     * Returns the SlowQuery as one line, e.g.
+     * <code>812.4 ms, 1000 rows, StafferDao.findAllRows: select ... [3]</code>.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%.1f ms, %d rows", this.getMillis(), this.rows));
+        if (this.batchSize > 1) {
+            sb.append(", batch of ").append(this.batchSize);
+        }
+        if (this.caller != null) {
+            sb.append(", ").append(this.caller);
+        }
+        sb.append(": ").append(this.sql);
+        if (!this.parameters.isEmpty()) {
+            sb.append(" [").append(this.getParameterText()).append(']');
+        }
+        return sb.toString();
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Getter">
+    public Instant getTime() {
+        return time;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public String getCaller() {
+        return caller;
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,63 @@
+package de.mcdb.contactmanagerapi.slowquery;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.hibernate.HibernateException;
+import org.hibernate.hikaricp.internal.HikariCPConnectionProvider;
+
+/**
+ * {@link HikariCPConnectionProvider} whose connections write every statement
+ * slower than a threshold into {@link SlowQueryLog#getDefault()}, with its
+ * normalized SQL, bind values, rows and calling DAO method.
+ * <p>
+ * Configured with <code>hibernate.connection.provider_class</code> and the
+ * settings {@value #THRESHOLD_SETTING} and {@value #CAPACITY_SETTING}. The
+ * {@link DataSource} returned by {@link #unwrap(Class)} logs as well, so plain
+ * JDBC statements on the pool show up in the same log.
+ *
+ * @author Mirko Schulze
+ */
+public class SlowQueryConnectionProvider extends HikariCPConnectionProvider {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Setting for the minimum time of a logged statement in milliseconds.
+     */
+    public static final String THRESHOLD_SETTING = "contactmanager.slow_query.threshold_ms";
+
+    /**
+     * Setting for the maximum number of logged statements.
+     */
+    public static final String CAPACITY_SETTING = "contactmanager.slow_query.capacity";
+
+    private final SlowQueryLog log = SlowQueryLog.getDefault();
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void configure(Map props) throws HibernateException {
+        super.configure(props);
+        Object threshold = props.get(THRESHOLD_SETTING);
+        Object capacity = props.get(CAPACITY_SETTING);
+        this.log.configure(
+                threshold != null ? Long.parseLong(threshold.toString().trim()) : SlowQueryLog.DEFAULT_THRESHOLD_MILLIS,
+                capacity != null ? Integer.parseInt(capacity.toString().trim()) : SlowQueryLog.DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return Statements.wrap(super.getConnection(), this.log);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> unwrapType) {
+        T unwrapped = super.unwrap(unwrapType);
+        if (unwrapType.isAssignableFrom(DataSource.class) && unwrapped instanceof DataSource) {
+            return unwrapType.cast(Statements.wrap((DataSource) unwrapped, this.log));
+        }
+        return unwrapped;
+    }
+
+}
@@ -0,0 +1,156 @@
+package de.mcdb.contactmanagerapi.slowquery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ring buffer of the latest {@link SlowQuery SlowQueries}.
+ * <p>
+ * Statements are only written if they took longer than the threshold, so the
+ * lock around the buffer is not taken for the usual fast statement; checking
+ * the threshold is one volatile read. When the buffer is full, the oldest
+ * SlowQuery is overwritten.
+ *
+ * @author Mirko Schulze
+ */
+public class SlowQueryLog {
+
+    /**
+     * Threshold of {@link #getDefault()} until it is configured.
+     */
+    public static final long DEFAULT_THRESHOLD_MILLIS = 500;
+
+    /**
+     * Capacity of {@link #getDefault()} until it is configured.
+     */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    private static final SlowQueryLog DEFAULT = new SlowQueryLog(DEFAULT_THRESHOLD_MILLIS, DEFAULT_CAPACITY);
+
+    private volatile long thresholdNanos;
+
+    private SlowQuery[] buffer;
+
+    private long written;
+
+    /**
+     * Creates a new, empty SlowQueryLog.
+     *
+     * @param thresholdMillis minimum time of a statement to be logged, 0 logs
+     * every statement
+     * @param capacity maximum number of logged statements
+     */
+    public SlowQueryLog(long thresholdMillis, int capacity) {
+        this.configure(thresholdMillis, capacity);
+    }
+
+    /**
+     * Returns the SlowQueryLog which the connections of the
+     * {@link SlowQueryConnectionProvider} write to.
+     *
+     * @return SlowQueryLog - the default SlowQueryLog
+     */
+    public static SlowQueryLog getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Sets the threshold and the capacity. The latest statements are kept if
+     * the capacity shrinks.
+     *
+     * @param thresholdMillis minimum time of a statement to be logged, 0 logs
+     * every statement
+     * @param capacity maximum number of logged statements
+     * @throws IllegalArgumentException if the threshold is negative or the
+     * capacity is not positive
+     */
+    public synchronized void configure(long thresholdMillis, int capacity) {
+        if (thresholdMillis < 0) {
+            throw new IllegalArgumentException("threshold must be >= 0, was " + thresholdMillis);
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be > 0, was " + capacity);
+        }
+        List<SlowQuery> latest = this.buffer == null ? new ArrayList<>() : this.getQueries();
+        this.buffer = new SlowQuery[capacity];
+        this.written = 0;
+        for (int i = Math.min(latest.size(), capacity) - 1; i >= 0; i--) {
+            this.add(latest.get(i));
+        }
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    /**
+     * Returns whether a statement which took the submitted time is slow
+     * enough to be logged.
+     *
+     * @param nanos time of the statement
+     * @return boolean - true if the statement is to be logged
+     */
+    public boolean isSlow(long nanos) {
+        return nanos >= this.thresholdNanos;
+    }
+
+    /**
+     * Adds the submitted {@link SlowQuery}, overwriting the oldest one if the
+     * buffer is full.
+     *
+     * @param query the SlowQuery to add
+     */
+    public synchronized void add(SlowQuery query) {
+        this.buffer[(int) (this.written++ % this.buffer.length)] = query;
+    }
+
+    /**
+     * Returns the logged statements, the latest first.
+     *
+     * @return List&lt;SlowQuery&gt; - copy of the logged statements
+     */
+    public synchronized List<SlowQuery> getQueries() {
+        int size = (int) Math.min(this.written, this.buffer.length);
+        List<SlowQuery> queries = new ArrayList<>(size);
+        for (long i = this.written - 1; i >= this.written - size; i--) {
+            queries.add(this.buffer[(int) (i % this.buffer.length)]);
+        }
+        return queries;
+    }
+
+    /**
+     * Removes all logged statements.
+     */
+    public synchronized void clear() {
+        Arrays.fill(this.buffer, null);
+        this.written = 0;
+    }
+
+    /**
+     * Returns the number of statements logged since the start or the last
+     * {@link #clear()}, including the overwritten ones.
+     *
+     * @return long - number of logged statements
+     */
+    public synchronized long getCount() {
+        return this.written;
+    }
+
+    /**
+     * Returns the minimum time of a statement to be logged.
+     *
+     * @return long - the threshold in milliseconds
+     */
+    public long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.thresholdNanos);
+    }
+
+    /**
+     * Returns the maximum number of logged statements.
+     *
+     * @return int - the capacity
+     */
+    public synchronized int getCapacity() {
+        return this.buffer.length;
+    }
+
+}
@@ -0,0 +1,448 @@
+package de.mcdb.contactmanagerapi.slowquery;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.sql.DataSource;
+
+/**
+ * Dynamic proxies for {@link DataSource}, {@link Connection},
+ * {@link Statement} and {@link ResultSet} which time every statement and
+ * write the slow ones to a {@link SlowQueryLog}.
+ * <p>
+ * The time of a query is the time to execute it plus the time spent in
+ * {@link ResultSet#next()}, it is logged when its ResultSet or Statement is
+ * closed. Bind values are held as they are set and only formatted if the
+ * statement turns out to be slow.
+ *
+ * @author Mirko Schulze
+ */
+final class Statements {
+
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    private Statements() {
+    }
+
+    /**
+     * Wraps the submitted {@link DataSource}, so its connections log into the
+     * submitted {@link SlowQueryLog}.
+     */
+    static DataSource wrap(DataSource dataSource, SlowQueryLog log) {
+        return proxy(DataSource.class, (proxy, method, args) -> {
+            Object result = invoke(dataSource, method, args);
+            return result instanceof Connection ? wrap((Connection) result, log) : result;
+        });
+    }
+
+    /**
+     * Wraps the submitted {@link Connection}, so its statements log into the
+     * submitted {@link SlowQueryLog}.
+     */
+    static Connection wrap(Connection connection, SlowQueryLog log) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return proxy(Statement.class, new StatementHandler((Statement) result, null, log));
+                case "prepareStatement":
+                    return proxy(PreparedStatement.class, new StatementHandler((Statement) result, (String) args[0], log));
+                case "prepareCall":
+                    return proxy(CallableStatement.class, new StatementHandler((Statement) result, (String) args[0], log));
+                default:
+                    return result;
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(Statements.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Statement whose rows are still being read, logged when its ResultSet is
+     * closed.
+     */
+    private static final class Execution {
+
+        private final String sql;
+
+        private final Object[] parameters;
+
+        private final int batchSize;
+
+        private long nanos;
+
+        private long rows;
+
+        private boolean logged;
+
+        Execution(String sql, Object[] parameters, int batchSize, long nanos) {
+            this.sql = sql;
+            this.parameters = parameters;
+            this.batchSize = batchSize;
+            this.nanos = nanos;
+        }
+
+        void log(SlowQueryLog log) {
+            if (this.logged) {
+                return;
+            }
+            this.logged = true;
+            if (log.isSlow(this.nanos)) {
+                List<String> values = new ArrayList<>();
+                String normalized;
+                if (this.parameters == null) {
+                    normalized = normalize(this.sql, values);
+                } else {
+                    normalized = normalize(this.sql, null);
+                    for (Object value : this.parameters) {
+                        values.add(format(value));
+                    }
+                }
+                log.add(new SlowQuery(Instant.now(), normalized, values, this.rows, this.batchSize, this.nanos,
+                        caller()));
+            }
+        }
+    }
+
+    /**
+     * Handler of a Statement, PreparedStatement or CallableStatement.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+
+        private static final Object[] NO_PARAMETERS = new Object[0];
+
+        private final Statement statement;
+
+        private final String sql;
+
+        private final SlowQueryLog log;
+
+        private Object[] parameters = NO_PARAMETERS;
+
+        private int parameterCount;
+
+        private Object[] batchParameters;
+
+        private String batchSql;
+
+        private int batchSize;
+
+        private Execution pending;
+
+        StatementHandler(Statement statement, String sql, SlowQueryLog log) {
+            this.statement = statement;
+            this.sql = sql;
+            this.log = log;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                    && method.getDeclaringClass() != Statement.class) {
+                this.bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                return Statements.invoke(this.statement, method, args);
+            }
+            switch (name) {
+                case "clearParameters":
+                    Arrays.fill(this.parameters, null);
+                    this.parameterCount = 0;
+                    break;
+                case "addBatch":
+                    if (this.batchSize++ == 0) {
+                        this.batchSql = args == null ? this.sql : (String) args[0];
+                        this.batchParameters = args == null ? this.boundParameters() : null;
+                    }
+                    break;
+                case "clearBatch":
+                    this.batchSize = 0;
+                    break;
+                case "executeQuery":
+                case "execute":
+                    return this.execute(method, args);
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                    return this.update(method, args);
+                case "executeBatch":
+                case "executeLargeBatch":
+                    return this.batch(method, args);
+                case "getResultSet":
+                    return this.wrap((ResultSet) Statements.invoke(this.statement, method, args));
+                case "close":
+                    this.finish();
+                    break;
+                default:
+                    break;
+            }
+            return Statements.invoke(this.statement, method, args);
+        }
+
+        private void bind(int index, Object value) {
+            if (index > this.parameters.length) {
+                this.parameters = Arrays.copyOf(this.parameters, Math.max(index, this.parameters.length * 2));
+            }
+            this.parameters[index - 1] = value;
+            this.parameterCount = Math.max(this.parameterCount, index);
+        }
+
+        private Object[] boundParameters() {
+            return Arrays.copyOf(this.parameters, this.parameterCount);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            this.finish();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = Statements.invoke(this.statement, method, args);
+            } finally {
+                this.pending = this.execution(args, 1, System.nanoTime() - start);
+            }
+            if (result instanceof ResultSet) {
+                return this.wrap((ResultSet) result);
+            }
+            if (Boolean.FALSE.equals(result)) {
+                this.pending.rows = Math.max(this.statement.getUpdateCount(), 0);
+                this.finish();
+            }
+            return result;
+        }
+
+        private Object update(Method method, Object[] args) throws Throwable {
+            this.finish();
+            long start = System.nanoTime();
+            Object result = null;
+            try {
+                result = Statements.invoke(this.statement, method, args);
+                return result;
+            } finally {
+                this.pending = this.execution(args, 1, System.nanoTime() - start);
+                this.pending.rows = result == null ? 0 : ((Number) result).longValue();
+                this.finish();
+            }
+        }
+
+        private Object batch(Method method, Object[] args) throws Throwable {
+            this.finish();
+            if (this.batchSize == 0) {
+                return Statements.invoke(this.statement, method, args);
+            }
+            long start = System.nanoTime();
+            Object result = null;
+            try {
+                result = Statements.invoke(this.statement, method, args);
+                return result;
+            } finally {
+                this.pending = new Execution(this.batchSql, this.batchParameters, this.batchSize,
+                        System.nanoTime() - start);
+                this.pending.rows = rows(result);
+                this.batchSize = 0;
+                this.finish();
+            }
+        }
+
+        private Execution execution(Object[] args, int batchSize, long nanos) {
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                return new Execution((String) args[0], null, batchSize, nanos);
+            }
+            return new Execution(this.sql, this.sql == null ? null : this.boundParameters(), batchSize, nanos);
+        }
+
+        private ResultSet wrap(ResultSet resultSet) {
+            Execution execution = this.pending;
+            if (resultSet == null || execution == null) {
+                return resultSet;
+            }
+            return proxy(ResultSet.class, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "next":
+                        long start = System.nanoTime();
+                        try {
+                            Object result = Statements.invoke(resultSet, method, args);
+                            if (Boolean.TRUE.equals(result)) {
+                                execution.rows++;
+                            }
+                            return result;
+                        } finally {
+                            execution.nanos += System.nanoTime() - start;
+                        }
+                    case "close":
+                        execution.log(this.log);
+                        return Statements.invoke(resultSet, method, args);
+                    default:
+                        return Statements.invoke(resultSet, method, args);
+                }
+            });
+        }
+
+        private void finish() {
+            if (this.pending != null) {
+                this.pending.log(this.log);
+                this.pending = null;
+            }
+        }
+
+        private static long rows(Object counts) {
+            long rows = 0;
+            if (counts instanceof int[]) {
+                for (int count : (int[]) counts) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (counts instanceof long[]) {
+                for (long count : (long[]) counts) {
+                    rows += Math.max(count, 0);
+                }
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Collapses the whitespace of the submitted SQL. If a List is submitted,
+     * string and number literals are replaced with <code>?</code> and added to
+     * it.
+     *
+     * @param sql the SQL to normalize
+     * @param literals the List to add the literals to, or null to keep them
+     * @return String - the normalized SQL
+     */
+    static String normalize(String sql, List<String> literals) {
+        if (sql == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(sql.length());
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (sb.length() > 0 && i < sql.length()) {
+                    sb.append(' ');
+                }
+            } else if (c == '\'' && literals != null) {
+                int end = i + 1;
+                while (end < sql.length()) {
+                    if (sql.charAt(end) == '\'') {
+                        if (end + 1 < sql.length() && sql.charAt(end + 1) == '\'') {
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    end++;
+                }
+                end = Math.min(end + 1, sql.length());
+                literals.add(sql.substring(i, end));
+                sb.append('?');
+                i = end;
+            } else if (Character.isDigit(c) && literals != null && !isIdentifierPart(sb)) {
+                int end = i;
+                while (end < sql.length() && (Character.isDigit(sql.charAt(end)) || sql.charAt(end) == '.')) {
+                    end++;
+                }
+                literals.add(sql.substring(i, end));
+                sb.append('?');
+                i = end;
+            } else {
+                sb.append(c);
+                i++;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isIdentifierPart(StringBuilder sb) {
+        if (sb.length() == 0) {
+            return false;
+        }
+        char last = sb.charAt(sb.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '.' || last == '`';
+    }
+
+    /**
+     * Formats the submitted bind value as SQL literal, long strings are cut.
+     *
+     * @param value the bind value
+     * @return String - the literal
+     */
+    static String format(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        if (value instanceof byte[]) {
+            return "<" + ((byte[]) value).length + " bytes>";
+        }
+        if (value instanceof InputStream || value instanceof Reader) {
+            return "<stream>";
+        }
+        String text = value.toString();
+        if (text.length() > MAX_VALUE_LENGTH) {
+            text = text.substring(0, MAX_VALUE_LENGTH) + "...";
+        }
+        return "'" + text.replace("'", "''") + "'";
+    }
+
+    /**
+     * Returns the innermost DAO method on the stack of the calling thread, or
+     * the innermost method of the application if there is none, as
+     * <code>SimpleClassName.method</code>.
+     *
+     * @return String - the calling method, or null if it is not known
+     */
+    static String caller() {
+        String own = Statements.class.getPackage().getName();
+        String fallback = null;
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            String className = element.getClassName();
+            if (!className.startsWith("de.mcdb.") || className.startsWith(own)) {
+                continue;
+            }
+            String simpleName = className.substring(className.lastIndexOf('.') + 1);
+            int inner = simpleName.indexOf('$');
+            if (inner >= 0) {
+                simpleName = simpleName.substring(0, inner);
+            }
+            String method = element.getMethodName();
+            if (method.startsWith("lambda$")) {
+                int end = method.indexOf('$', 7);
+                method = method.substring(7, end > 7 ? end : method.length());
+            }
+            String caller = simpleName + "." + method;
+            if (simpleName.endsWith("Dao")) {
+                return caller;
+            }
+            if (fallback == null) {
+                fallback = caller;
+            }
+        }
+        return fallback;
+    }
+
+}
@@ -0,0 +1,6 @@
+/**
+ * Contains a JDBC interceptor which keeps the statements slower than a
+ * threshold, with their bind values, rows and calling DAO method, in a
+ * bounded in-memory log.
+ */
+package de.mcdb.contactmanagerapi.slowquery;
@@ -0,0 +1,31 @@
+-- Seeds the id_generator table of an existing contact_db.
+--
+-- Company, Division and Staffer used to get their ids from AUTO_INCREMENT
+-- columns. Their ids are now drawn in blocks from the id_generator table, which
+-- stores the last id handed out per entity, the last id of the latest reserved
+-- block (Hibernate's default hibernate.id.generator.stored_last_used=true), so
+-- the next block starts one above it. PooledLoIdGenerator creates a
+-- missing row with the highest id of the entity table by itself. Run this
+-- script instead before several application instances are started against an
+-- upgraded database for the first time, so they do not race to create the
+-- rows.
+--
+-- Safe to run more than once: an existing row is only ever moved forward.
+
+CREATE TABLE IF NOT EXISTS id_generator (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (sequence_name)
+);
+
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'company', COALESCE(MAX(company_id), 0) FROM Company
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'division', COALESCE(MAX(division_id), 0) FROM Division
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'staffer', COALESCE(MAX(staffer_id), 0) FROM Staffer
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
@@ -0,0 +1,95 @@
+package de.mcdb.contactmanagerbenchmarks;
+
+import de.mcdb.contactmanagerapi.datamodel.Company;
+import de.mcdb.contactmanagerapi.datamodel.Division;
+import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import de.mcdb.contactmanagerapi.generator.DatasetGenerator;
+import de.mcdb.contactmanagerapi.generator.DatasetWriter;
+import de.mcdb.contactmanagerdesktop.dao.HibernateUtils;
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.persistence.EntityManager;
+
+/**
+ * Class with static methods to point the desktop DAOs at an embedded database
+ * and to fill it with generated entities.
+ * <p>
+ * The desktop application reads its settings with
+ * {@link de.mcdb.contactmanagerapi.ConnectionPoolSettings}, which lets system
+ * properties override the persistence.xml. {@link #configure()} sets them to
+ * an in-memory H2 database in MySQL mode before the first DAO is used, so the
+ * benchmarks run the same mappings, queries, batch sizes and caches as the
+ * application, without a MySQL server. Properties which are already set, e.g.
+ * with <code>-Djavax.persistence.jdbc.url=...</code>, are kept, so the same
+ * benchmarks can be run against a real database as well.
+ *
+ * @author Mirko Schulze
+ */
+public class BenchmarkDatabase {
+
+    /**
+     * Seed of the generated data, the same in every run.
+     */
+    public static final long SEED = 20191101L;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Sets the system properties for the embedded database and the logging,
+     * unless they are set already. Has to be called before the first DAO or
+     * logger is created.
+     */
+    public static void configure() {
+        setDefault("logback.configurationFile", "logback-benchmarks.xml");
+        setDefault("javax.persistence.jdbc.driver", "org.h2.Driver");
+        setDefault("javax.persistence.jdbc.url", "jdbc:h2:mem:contact_db;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        setDefault("javax.persistence.jdbc.user", "sa");
+        setDefault("javax.persistence.jdbc.password", "");
+        setDefault("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        setDefault("hibernate.hbm2ddl.auto", "create");
+        // seeding a million Staffers holds one connection longer than the threshold
+        setDefault("hibernate.hikari.leakDetectionThreshold", "0");
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    /**
+     * Writes the submitted number of {@link Staffer}<code>s</code> with their
+     * {@link Division}<code>s</code> and {@link Company}<code>s</code>,
+     * generated by a {@link DatasetGenerator} with the {@link #SEED}, through
+     * the batched JDBC path of the {@link DatasetWriter}.
+     * <p>
+     * Clears the second-level cache afterwards.
+     *
+     * @param staffers number of Staffers to write
+     */
+    public static void seed(int staffers) {
+        EntityManager em = HibernateUtils.getEntityManager();
+        try (Connection connection = HibernateUtils.getDataSource().getConnection()) {
+            new DatasetWriter(em.getEntityManagerFactory()).write(connection, new DatasetGenerator(SEED, staffers));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Seeding " + staffers + " Staffers failed", e);
+        } finally {
+            em.close();
+        }
+        HibernateUtils.evictCaches();
+    }
+
+    /**
+     * Creates a new {@link Staffer} with names derived from the submitted
+     * number.
+     *
+     * @param number number of the Staffer
+     * @param division the Division of the Staffer
+     * @return Staffer - the new, transient Staffer
+     */
+    public static Staffer createStaffer(int number, Division division) {
+        return new Staffer("Vorname" + number, "Nachname" + number, division);
+    }
+
+}
@@ -0,0 +1,51 @@
+package de.mcdb.contactmanagerbenchmarks;
+
+import de.mcdb.contactmanagerapi.datamodel.Company;
+import de.mcdb.contactmanagerapi.datamodel.Division;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the methods of the data model which grow with the number of
+ * Staffers, on a transient {@link Division} with {@link #staffers} Staffers.
+ * Needs no database.
+ *
+ * @author Mirko Schulze
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DatamodelBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int staffers;
+
+    private Division division;
+
+    @Setup
+    public void setUp() {
+        this.division = new Division("Benchmark", new Company("Benchmark AG"));
+        for (int s = 0; s < this.staffers; s++) {
+            BenchmarkDatabase.createStaffer(s, this.division);
+        }
+    }
+
+    @Benchmark
+    public String toEnhancedLine() {
+        return this.division.toEnhancedLine();
+    }
+
+}
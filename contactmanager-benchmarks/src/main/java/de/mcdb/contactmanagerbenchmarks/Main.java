@@ -0,0 +1,50 @@
+package de.mcdb.contactmanagerbenchmarks;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the JMH command line options, e.g.
+ * <code>java -jar target/benchmarks.jar StafferDao -p staffers=1000</code>.
+ * <p>
+ * Unlike the main class of JMH, the results are written as JSON to
+ * <code>jmh-result-&lt;timestamp&gt;.json</code> if no other format or file is
+ * given with <code>-rf</code> and <code>-rff</code>, so every run leaves a
+ * file to compare with later runs, e.g. on https://jmh.morethan.io.
+ *
+ * @author Mirko Schulze
+ */
+public class Main {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    public static void main(String[] args) throws CommandLineOptionException, IOException, RunnerException {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp()) {
+            cli.showHelp();
+            return;
+        }
+        if (cli.shouldList() || cli.shouldListWithParams()) {
+            new Runner(cli).list();
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        if (!cli.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cli.getResult().hasValue()) {
+            String extension = cli.getResultFormat().orElse(ResultFormatType.JSON).toString().toLowerCase();
+            options.result("jmh-result-" + LocalDateTime.now().format(TIMESTAMP) + "." + extension);
+        }
+        new Runner(options.build()).run();
+    }
+
+}
@@ -0,0 +1,140 @@
+package de.mcdb.contactmanagerbenchmarks;
+
+import de.mcdb.contactmanagerapi.RemovalPolicy;
+import de.mcdb.contactmanagerapi.datamodel.Company;
+import de.mcdb.contactmanagerapi.datamodel.Division;
+import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import de.mcdb.contactmanagerdesktop.dao.CompanyDao;
+import de.mcdb.contactmanagerdesktop.dao.DivisionDao;
+import de.mcdb.contactmanagerdesktop.dao.HibernateUtils;
+import de.mcdb.contactmanagerdesktop.dao.StafferDao;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the removal of a {@link Company} and of a {@link Division}
+ * with each {@link RemovalPolicy}, on a database with {@link #staffers}
+ * Staffers.
+ * <p>
+ * Every invocation removes a Company with {@value #DIVISIONS} Divisions of
+ * {@value #STAFFERS} Staffers each, or a Division with {@value #STAFFERS}
+ * Staffers. The removed entities of a whole iteration are persisted before
+ * the iteration and not measured, so every iteration is a single shot of
+ * {@value #BATCH} invocations and its score is the time of all of them.
+ *
+ * @author Mirko Schulze
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = RemovalBenchmark.BATCH)
+@Measurement(iterations = 5, batchSize = RemovalBenchmark.BATCH)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RemovalBenchmark {
+
+    /**
+     * Number of Divisions of the removed Company.
+     */
+    public static final int DIVISIONS = 10;
+
+    /**
+     * Number of Staffers of each removed Division.
+     */
+    public static final int STAFFERS = 100;
+
+    /**
+     * Number of invocations per iteration, and of Companies persisted before
+     * each iteration.
+     */
+    public static final int BATCH = 10;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int staffers;
+
+    private CompanyDao companyDao;
+
+    private DivisionDao divisionDao;
+
+    private StafferDao stafferDao;
+
+    private final Deque<Company> companies = new ArrayDeque<>(BATCH);
+
+    private final Deque<Division> divisions = new ArrayDeque<>(BATCH);
+
+    private int created;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDatabase.configure();
+        BenchmarkDatabase.seed(this.staffers);
+        this.companyDao = new CompanyDao();
+        this.divisionDao = new DivisionDao();
+        this.stafferDao = new StafferDao();
+    }
+
+    @Setup(Level.Iteration)
+    public void createEntities() {
+        this.companies.clear();
+        this.divisions.clear();
+        for (int c = 0; c < BATCH; c++) {
+            Company company = new Company("Removed " + this.created);
+            this.companyDao.persist(company);
+            List<Division> divisions = new ArrayList<>(DIVISIONS);
+            for (int d = 0; d < DIVISIONS; d++) {
+                divisions.add(new Division("Removed " + this.created + "/" + d, company));
+            }
+            this.divisionDao.persistAll(divisions);
+            List<Staffer> staffers = new ArrayList<>(DIVISIONS * STAFFERS);
+            for (Division d : divisions) {
+                for (int s = 0; s < STAFFERS; s++) {
+                    staffers.add(BenchmarkDatabase.createStaffer(this.created++, d));
+                }
+            }
+            this.stafferDao.persistAll(staffers);
+            this.companies.add(company);
+            this.divisions.add(divisions.get(0));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        HibernateUtils.shutdown();
+    }
+
+    @Benchmark
+    public void removeCompanyCascade() {
+        this.companyDao.remove(this.companies.pop().getId(), RemovalPolicy.CASCADE);
+    }
+
+    @Benchmark
+    public void removeCompanyOrphan() {
+        this.companyDao.remove(this.companies.pop().getId(), RemovalPolicy.ORPHAN);
+    }
+
+    @Benchmark
+    public void removeDivisionCascade() {
+        this.divisionDao.remove(this.divisions.pop().getId(), RemovalPolicy.CASCADE);
+    }
+
+    @Benchmark
+    public void removeDivisionOrphan() {
+        this.divisionDao.remove(this.divisions.pop().getId(), RemovalPolicy.ORPHAN);
+    }
+
+}
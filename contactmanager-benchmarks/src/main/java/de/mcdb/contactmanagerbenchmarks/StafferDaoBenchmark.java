@@ -0,0 +1,147 @@
+package de.mcdb.contactmanagerbenchmarks;
+
+import de.mcdb.contactmanagerapi.datamodel.Division;
+import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import de.mcdb.contactmanagerapi.readmodel.StafferRow;
+import de.mcdb.contactmanagerdesktop.dao.DivisionDao;
+import de.mcdb.contactmanagerdesktop.dao.HibernateUtils;
+import de.mcdb.contactmanagerdesktop.dao.StafferDao;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the reads and inserts of {@link StafferDao} on a database
+ * with {@link #staffers} Staffers.
+ * <p>
+ * {@link #findAll(ColdCaches)} and {@link #findAllRows(ColdCaches)} clear the
+ * second-level cache before every invocation with {@link ColdCaches}, so they
+ * measure the queries and the loading of the entities, not the query cache.
+ * The other benchmarks take microseconds, so they run without a setup per
+ * invocation, which would distort their results.
+ * <p>
+ * {@link #persist()} and {@link #persistAll()} report their throughput in
+ * inserted rows per second, one operation of persistAll being one of its
+ * {@value #BATCH} Staffers, so the scores of the single inserts and of the
+ * JDBC batches can be compared directly. They add their Staffers to one
+ * extra Division, so the table grows during a run, which is why they are best
+ * compared at the same {@link #staffers}.
+ *
+ * @author Mirko Schulze
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class StafferDaoBenchmark {
+
+    /**
+     * Number of Staffers per {@link #persistAll()}.
+     */
+    public static final int BATCH = 100;
+
+    /**
+     * Number of Staffers per {@link #findPage()}.
+     */
+    public static final int PAGE_SIZE = 100;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int staffers;
+
+    private StafferDao stafferDao;
+
+    private Division division;
+
+    private long middleId;
+
+    private int created;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDatabase.configure();
+        BenchmarkDatabase.seed(this.staffers);
+        this.stafferDao = new StafferDao();
+        this.division = new Division("Benchmark");
+        new DivisionDao().persist(this.division);
+        List<Staffer> page = this.stafferDao.findPage(0, 1);
+        this.middleId = page.get(0).getId() + this.staffers / 2;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        HibernateUtils.shutdown();
+    }
+
+    @Benchmark
+    public List<Staffer> findAll(ColdCaches caches) {
+        return this.stafferDao.findAll();
+    }
+
+    @Benchmark
+    public List<StafferRow> findAllRows(ColdCaches caches) {
+        return this.stafferDao.findAllRows();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Staffer> findPage() {
+        return this.stafferDao.findPage(this.middleId, PAGE_SIZE);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Staffer persist() {
+        Staffer staffer = BenchmarkDatabase.createStaffer(this.created++, this.division);
+        this.stafferDao.persist(staffer);
+        this.division.getStaffers().clear();
+        return staffer;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH)
+    public List<Staffer> persistAll() {
+        List<Staffer> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(BenchmarkDatabase.createStaffer(this.created++, this.division));
+        }
+        this.stafferDao.persistAll(batch);
+        this.division.getStaffers().clear();
+        return batch;
+    }
+
+    /**
+     * State which evicts the second-level and the query cache before every
+     * invocation of the benchmarks which use it. Only used by the benchmarks
+     * which load the whole table and take milliseconds, for which the setup
+     * per invocation does not distort the result.
+     */
+    @State(Scope.Thread)
+    public static class ColdCaches {
+
+        @Setup(Level.Invocation)
+        public void evictCaches() {
+            HibernateUtils.evictCaches();
+        }
+
+    }
+
+}
@@ -0,0 +1,6 @@
+/**
+ * Contains JMH benchmarks for the DAOs of the desktop application and the
+ * {@link de.mcdb.contactmanagerapi.datamodel} entities, run against an
+ * embedded H2 database in MySQL mode.
+ */
+package de.mcdb.contactmanagerbenchmarks;
@@ -0,0 +1,64 @@
+package de.mcdb.contactmanagerbenchmarks;
+
+import de.mcdb.contactmanagerapi.datamodel.Company;
+import de.mcdb.contactmanagerapi.generator.DatasetGenerator;
+import de.mcdb.contactmanagerdesktop.dao.CompanyDao;
+import de.mcdb.contactmanagerdesktop.dao.HibernateUtils;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link BenchmarkDatabase#seed(int)} against the embedded database.
+ *
+ * @author Mirko Schulze
+ */
+public class BenchmarkDatabaseTest {
+
+    private static final int STAFFERS = 100;
+
+    /**
+     * More than the block size of 10 Company ids in the persistence.xml, so the
+     * DAO uses up its open block and reserves the next one.
+     */
+    private static final int PERSISTED_AFTER_SEED = 25;
+
+    @BeforeClass
+    public static void setUp() {
+        BenchmarkDatabase.configure();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        HibernateUtils.shutdown();
+    }
+
+    /**
+     * Seeds while the DAO holds an open block of Company ids and then persists
+     * through the DAO again. The ids reserved by the seeding must neither
+     * overlap the open block nor the blocks reserved after it.
+     */
+    @Test
+    public void seedDoesNotReuseIdsOfAnOpenBlock() {
+        CompanyDao companyDao = new CompanyDao();
+        Set<Long> ids = new HashSet<>();
+        Company before = new Company("Before seed");
+        companyDao.persist(before);
+        ids.add(before.getId());
+
+        BenchmarkDatabase.seed(STAFFERS);
+
+        for (int i = 0; i < PERSISTED_AFTER_SEED; i++) {
+            Company after = new Company("After seed " + i);
+            companyDao.persist(after);
+            assertTrue("id " + after.getId() + " was handed out twice", ids.add(after.getId()));
+        }
+        int seeded = new DatasetGenerator(BenchmarkDatabase.SEED, STAFFERS).getCompanyCount();
+        assertEquals(seeded + 1 + PERSISTED_AFTER_SEED, companyDao.count());
+    }
+
+}
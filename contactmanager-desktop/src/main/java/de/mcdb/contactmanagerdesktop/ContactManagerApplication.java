@@ -53,19 +53,27 @@ public class ContactManagerApplication extends Application {
     /**
      * Tries to load the {@link Scene} for the main application {@link Stage}.
      * <p>
+     * Loads the FXML and starts the prefetch of the tables while the
+     * {@link StartupPipeline} prepares the database, and waits until the
+     * table of the selected tab is filled.
+     * <p>
      * Catches an {@link IOException} or {@link IllegalStateException} by
      * closing resources and building an alternative {@link Scene} with a
      * respective error message.
      */
     @Override
     public void init() {
+        StartupPipeline pipeline = StartupPipeline.current();
         try {
-            Parent parent = this.loader.load();
+            Parent parent = pipeline.loadFxml(this.loader);
             this.scene = new Scene(parent);
+            pipeline.awaitReady(this.loader.<ContactManagerController>getController().prefetch());
         } catch (IOException | IllegalStateException e) {
             L.info("Catching [{}] in [{}]", e.toString(), ContactManagerApplication.class.getSimpleName());
             ContactManagerController controller = this.loader.<ContactManagerController>getController();
-            controller.shutdown();
+            if (controller != null) {
+                controller.shutdown();
+            }
 
             Label label = new Label("Da ist leider etwas schiefgegangen =/ ");
 
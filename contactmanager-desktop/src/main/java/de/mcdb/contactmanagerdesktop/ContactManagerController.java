@@ -1,38 +1,55 @@
 package de.mcdb.contactmanagerdesktop;
 
 //<editor-fold defaultstate="collapsed" desc="imports">
-import de.mcdb.contactmanagerdesktop.dao.StafferDao;
-import de.mcdb.contactmanagerdesktop.dao.CompanyDao;
-import de.mcdb.contactmanagerdesktop.dao.DivisionDao;
+import de.mcdb.contactmanagerdesktop.dao.AsyncStafferDao;
+import de.mcdb.contactmanagerdesktop.dao.AsyncCompanyDao;
+import de.mcdb.contactmanagerdesktop.dao.AsyncDivisionDao;
 import ch.qos.logback.classic.Logger;
-import de.mcdb.contactmanagerapi.Dao;
+import de.mcdb.contactmanagerapi.AsyncDao;
+import de.mcdb.contactmanagerapi.ChangeEvent;
+import de.mcdb.contactmanagerapi.ExecutorAsyncDao;
 import de.mcdb.contactmanagerapi.datamodel.Company;
 import de.mcdb.contactmanagerapi.datamodel.Division;
 import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import de.mcdb.contactmanagerapi.readmodel.StafferRow;
+import de.mcdb.contactmanagerapi.slowquery.SlowQueryLog;
+import de.mcdb.contactmanagerdesktop.dao.ChangeEvents;
+import de.mcdb.contactmanagerdesktop.dao.ChangePoller;
 import de.mcdb.contactmanagerdesktop.dao.HibernateUtils;
+import de.mcdb.contactmanagerdesktop.dao.QueryTask;
 import de.mcdb.contactmanagerdesktop.fx.CompanyDialog;
 import de.mcdb.contactmanagerdesktop.fx.DivisionDialog;
+import de.mcdb.contactmanagerdesktop.fx.EntityTableModel;
 import de.mcdb.contactmanagerdesktop.fx.RequestIdDialog;
 import de.mcdb.contactmanagerdesktop.fx.ResultDialog;
 import de.mcdb.contactmanagerdesktop.fx.StafferDialog;
+import de.mcdb.contactmanagerdesktop.jfr.FormatEvent;
+import de.mcdb.contactmanagerdesktop.jfr.QueryEvent;
+import de.mcdb.contactmanagerdesktop.jfr.SynchronizeEvent;
 import java.net.URL;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.ResourceBundle;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleLongProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -67,14 +84,36 @@ public class ContactManagerController implements Initializable {
     private static final String[] SQL_OPERATIONS = {"SELECT * FROM", "INSERT INTO", "DELETE FROM"};
 
     private static final String[] TABLE_NAMES = {"STAFFER", "DIVISION", "COMPANY"};
-    
-    private final ExecutorService es = Executors.newCachedThreadPool();
 
-    private StafferDao stafferDao = new StafferDao();
+    /**
+     * Number of threads running database operations, kept below the size of
+     * the connection pool.
+     */
+    private static final int DB_THREADS = 4;
+
+    /**
+     * Number of database operations which may wait for a thread, further
+     * operations fail fast with an {@link Alert}.
+     */
+    private static final int DB_QUEUE_CAPACITY = 64;
 
-    private DivisionDao divisionDao = new DivisionDao();
+    /**
+     * Bounded executor for all database operations, so the JavaFX application
+     * thread never waits for the database.
+     */
+    private final ExecutorService es = ExecutorAsyncDao.newBoundedExecutor("contactmanager-db", DB_THREADS, DB_QUEUE_CAPACITY);
+
+    /**
+     * Polls for changes of other clients and publishes them as
+     * {@link ChangeEvent}<code>s</code>.
+     */
+    private final ChangePoller poller = new ChangePoller();
 
-    private CompanyDao companyDao = new CompanyDao();
+    private AsyncStafferDao stafferDao = new AsyncStafferDao(this.es);
+
+    private AsyncDivisionDao divisionDao = new AsyncDivisionDao(this.es);
+
+    private AsyncCompanyDao companyDao = new AsyncCompanyDao(this.es);
 
     //<editor-fold defaultstate="collapsed" desc="FX components">
     @FXML
@@ -111,7 +150,30 @@ public class ContactManagerController implements Initializable {
 
     private TableView<Division> divisionTableView;
 
-    private TableView<Staffer> stafferTableView;
+    private TableView<StafferRow> stafferTableView;
+
+    private final EntityTableModel<Company> companyModel = new EntityTableModel<>(Company::getId);
+
+    private final EntityTableModel<Division> divisionModel = new EntityTableModel<>(Division::getId);
+
+    private final EntityTableModel<StafferRow> stafferModel = new EntityTableModel<>(StafferRow::getId);
+
+    /**
+     * Tabs whose table was loaded already with the future of their first
+     * load, tables are loaded when their tab is selected for the first time
+     * or by {@link #prefetch()}.
+     */
+    private final Map<Tab, CompletableFuture<?>> loadedTabs = new HashMap<>();
+
+    /**
+     * {@link ChangeEvent}<code>s</code> which are not applied to the tables
+     * yet.
+     */
+    private final Queue<ChangeEvent> pendingChanges = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean applyScheduled = new AtomicBoolean();
+
+    private final Consumer<ChangeEvent> changeListener = this::onChange;
 
     @FXML
     private Button findByIdBtn;
@@ -179,7 +241,7 @@ public class ContactManagerController implements Initializable {
                 this.removeBtn.setOnAction(e -> {
                     removeCompany();
                 });
-                this.synchronizeCompanies();
+                this.loadedTabs.computeIfAbsent(nV, tab -> this.synchronizeCompanies());
             } else if (nV == this.tabPane.getTabs().get(1)) {
                 this.findByIdBtn.setOnAction(e -> {
                     findDivisionById();
@@ -193,7 +255,7 @@ public class ContactManagerController implements Initializable {
                 this.removeBtn.setOnAction(e -> {
                     removeDivision();
                 });
-                this.synchronizeDivisions();
+                this.loadedTabs.computeIfAbsent(nV, tab -> this.synchronizeDivisions());
             } else if (nV == this.tabPane.getTabs().get(2)) {
                 this.findByIdBtn.setOnAction(e -> {
                     findStafferById();
@@ -207,7 +269,7 @@ public class ContactManagerController implements Initializable {
                 this.removeBtn.setOnAction(e -> {
                     removeStaffer();
                 });
-                this.synchronizeStaffers();
+                this.loadedTabs.computeIfAbsent(nV, tab -> this.synchronizeStaffers());
             }
         });
         //</editor-fold>
@@ -224,6 +286,7 @@ public class ContactManagerController implements Initializable {
         });
 
         this.companyTableView = new TableView<>();
+        this.bind(this.companyTableView, this.companyModel);
 
         this.companyTableView.getColumns().setAll(companyIdColumn, companyNameColumn);
         //</editor-fold>
@@ -244,43 +307,38 @@ public class ContactManagerController implements Initializable {
         });
 
         this.divisionTableView = new TableView<>();
+        this.bind(this.divisionTableView, this.divisionModel);
 
         this.divisionTableView.getColumns().setAll(divisionIdColumn,
                 divisionNameColumn, divisionCompanyColumn);
         //</editor-fold>
         //<editor-fold defaultstate="collapsed" desc="staffer tableview">
-        TableColumn<Staffer, Long> stafferIdColumn = new TableColumn<>("Mitarbeiter ID");
+        TableColumn<StafferRow, Long> stafferIdColumn = new TableColumn<>("Mitarbeiter ID");
         stafferIdColumn.setCellValueFactory(p -> {
             return new SimpleLongProperty(p.getValue().getId()).asObject();
         });
 
-        TableColumn<Staffer, String> stafferForeNameColumn = new TableColumn<>("Vorname");
+        TableColumn<StafferRow, String> stafferForeNameColumn = new TableColumn<>("Vorname");
         stafferForeNameColumn.setCellValueFactory(p -> {
             return new SimpleStringProperty(p.getValue().getForeName());
         });
-        TableColumn<Staffer, String> stafferSurNameColumn = new TableColumn<>("Nachname");
+        TableColumn<StafferRow, String> stafferSurNameColumn = new TableColumn<>("Nachname");
         stafferSurNameColumn.setCellValueFactory(p -> {
             return new SimpleStringProperty(p.getValue().getSurName());
         });
 
-        TableColumn<Staffer, String> stafferDivisionColumn = new TableColumn<>("Arbeitet in");
+        TableColumn<StafferRow, String> stafferDivisionColumn = new TableColumn<>("Arbeitet in");
         stafferDivisionColumn.setCellValueFactory(p -> {
-            return (p.getValue().getDivision() != null) ? new SimpleStringProperty(p.getValue().getDivision().getName()) : null;
+            return new SimpleStringProperty(p.getValue().getDivisionName());
         });
 
-        TableColumn<Staffer, String> stafferCompanyColumn = new TableColumn<>("Arbeitet bei");
+        TableColumn<StafferRow, String> stafferCompanyColumn = new TableColumn<>("Arbeitet bei");
         stafferCompanyColumn.setCellValueFactory(p -> {
-            if (p.getValue().getDivision() != null) {
-                Division division = p.getValue().getDivision();
-                if (division.getCompany() != null) {
-                    Company company = division.getCompany();
-                    return new SimpleStringProperty(company.getName());
-                }
-            }
-            return null;
+            return new SimpleStringProperty(p.getValue().getCompanyName());
         });
 
         this.stafferTableView = new TableView<>();
+        this.bind(this.stafferTableView, this.stafferModel);
 
         this.stafferTableView.getColumns().setAll(stafferIdColumn,
                 stafferForeNameColumn, stafferSurNameColumn, stafferDivisionColumn, stafferCompanyColumn);
@@ -291,11 +349,11 @@ public class ContactManagerController implements Initializable {
         Tab stafferTab = new Tab("Staffer", this.stafferTableView);
 
         this.tabPane.getTabs().addAll(companyTab, divisionTab, stafferTab);
-        this.tabPane.getSelectionModel().select(1);
-        this.tabPane.getSelectionModel().select(2);
-        this.tabPane.getSelectionModel().select(0);
         //</editor-fold>
         //</editor-fold>
+
+        ChangeEvents.subscribe(this.changeListener);
+        this.poller.start();
     }
 
     //</editor-fold>
@@ -303,15 +361,16 @@ public class ContactManagerController implements Initializable {
     /**
      * Creates a SQL String by combining the selected values from
      * {@link #operationSelection}, {@link #tableSelection} and
-     * {@link #conditionInput} and executes a JDBC query with that String.
+     * {@link #conditionInput} and executes it as {@link QueryTask} on the
+     * database executor.
      * <p>
-     * Opens a new {@link ResultDialog} to show the results.
+     * Opens a new {@link ResultDialog} at once, the rows of a query are added
+     * in chunks while they are read and the query can be cancelled from the
+     * dialog. Every statement is recorded as {@link QueryEvent} for the Java
+     * Flight Recorder.
      */
     @FXML
     private void executeQuery() {
-        ObservableList<String> result = FXCollections.observableArrayList();
-        CompletableFuture<Boolean> isDone = new CompletableFuture<>();
-
         StringBuilder sb = new StringBuilder();
 
         String operation = this.operationSelection.getSelectionModel().getSelectedItem();
@@ -321,56 +380,78 @@ public class ContactManagerController implements Initializable {
         sb.append(table).append(" ");
         Optional.ofNullable(this.conditionInput.getText()).ifPresent(t -> sb.append(t));
 
-        result.add(sb.toString());
+        QueryTask task = new QueryTask(sb.toString());
+
+        if (operation.equalsIgnoreCase("select * from")) {
+            ResultDialog dialog = new ResultDialog(sb.toString(), task::cancel);
+            dialog.show();
 
-        this.es.execute(() -> {
-            try (Connection connection = DriverManager
-                    .getConnection("jdbc:mysql://localhost:3306/contact_db?serverTimezone=UTC",
-                            "root", "acbbaber")) {
-                Statement statement = connection.createStatement();
-                if (operation.equalsIgnoreCase("select * from")) {
-                    ResultSet rs = statement.executeQuery(sb.toString());
-                    while (rs.next()) {
+            CompletableFuture<Long> futureCount = ExecutorAsyncDao.supplyAsync(() -> {
+                QueryEvent event = new QueryEvent(sb.toString());
+                try {
+                    long count = task.query(rs -> {
                         if (table.equalsIgnoreCase("company")) {
-                            result.add(rs.getString("company_name"));
+                            return rs.getString("company_name");
                         } else if (table.equalsIgnoreCase("division")) {
-                            result.add(rs.getString("division_name"));
-                        } else if (table.equalsIgnoreCase("staffer")) {
-                            result.add(rs.getString("foreName") + " " + rs.getString("surName"));
+                            return rs.getString("division_name");
+                        } else {
+                            return rs.getString("foreName") + " " + rs.getString("surName");
                         }
-                    }
-                } else {
-                    statement.execute(sb.toString());
-                    if (table.equalsIgnoreCase("staffer")) {
-                        this.synchronizeStaffers();
-                    } else if (table.equalsIgnoreCase("division")) {
-                        this.synchronizeDivisions();
-                    } else if (table.equalsIgnoreCase("company")) {
-                        this.synchronizeCompanies();
-                    }
-                    result.add("Success");
+                    }, rows -> Platform.runLater(() -> dialog.addResults(rows)));
+                    event.done(count, task.isCancelled());
+                    return count;
+                } catch (SQLException | RuntimeException e) {
+                    event.failed();
+                    throw new CompletionException(e);
                 }
-                isDone.complete(true);
-            } catch (SQLException e) {
-                L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
-                L.info("Opening new [{}]", Alert.class.getSimpleName());
-                new Alert(Alert.AlertType.WARNING, "Fehlermeldung:\n" + e.getLocalizedMessage()).show();
-                isDone.complete(false);
-            }
-        });
+            }, this.es);
 
-        try {
-            if (isDone.get() == true) {
-                new ResultDialog(result).show();
-            } else {
-                new ResultDialog("").show();
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
-            L.info("Opening new [{}]", Alert.class.getSimpleName());
-            new Alert(Alert.AlertType.ERROR, "Fehlermeldung:\n" + e.getLocalizedMessage()).show();
+            this.onFxThread(futureCount, count -> {
+                dialog.finish(count + " Ergebnisse" + (task.isCancelled() ? " (abgebrochen)" : ""));
+            });
+        } else {
+            CompletableFuture<Integer> futureUpdated = ExecutorAsyncDao.supplyAsync(() -> {
+                QueryEvent event = new QueryEvent(sb.toString());
+                try {
+                    int updated = task.update();
+                    event.done(updated, false);
+                    HibernateUtils.evictCaches();
+                    return updated;
+                } catch (SQLException | RuntimeException e) {
+                    event.failed();
+                    throw new CompletionException(e);
+                }
+            }, this.es);
+
+            this.onFxThread(futureUpdated, updated -> {
+                new ResultDialog(sb.toString(), "Success", updated + " Zeilen geändert").show();
+                if (table.equalsIgnoreCase("staffer")) {
+                    this.onChange(ChangeEvent.invalidated(Staffer.class));
+                } else if (table.equalsIgnoreCase("division")) {
+                    this.onChange(ChangeEvent.invalidated(Division.class));
+                } else if (table.equalsIgnoreCase("company")) {
+                    this.onChange(ChangeEvent.invalidated(Company.class));
+                }
+            });
         }
+    }
+
 
+    /**
+     * Opens a new {@link ResultDialog} with the statements which were slower
+     * than the threshold of {@link SlowQueryLog#getDefault()}, the latest
+     * first.
+     */
+    @FXML
+    private void showSlowQueries() {
+        SlowQueryLog log = SlowQueryLog.getDefault();
+        List<String> lines = log.getQueries().stream()
+                .map(q -> q.getTime().atZone(ZoneId.systemDefault()).toLocalTime().withNano(0) + "  " + q)
+                .collect(Collectors.toList());
+        ResultDialog dialog = new ResultDialog(lines);
+        dialog.setHeaderText(log.getCount() + " Queries langsamer als " + log.getThresholdMillis() + " ms"
+                + ", die letzten " + log.getCapacity() + " werden behalten.");
+        dialog.show();
     }
 
     //</editor-fold>
@@ -378,20 +459,16 @@ public class ContactManagerController implements Initializable {
     /**
      * <ul><li>Opens a new {@link IdDialog} to request an id from the user</li>
      * <li>Opens a new {@link ResultDialog} with the search results from
-     * {@link Dao#findStafferById(long)}</li></ul>
+     * {@link AsyncDao#findById(long, String)}</li></ul>
      */
     @FXML
     private void findStafferById() {
         Platform.runLater(() -> {
             new RequestIdDialog().showAndWait().ifPresent(id -> {
                 if (id != 0L) {
-                    try {
-                        new ResultDialog(this.stafferDao.findById(id).toEnhancedLine()).show();
-                    } catch (NullPointerException e) {
-                        L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
-                        L.info("Opening new [{}]", Alert.class.getSimpleName());
-                        new Alert(Alert.AlertType.WARNING, ID_NOT_FOUND_ERROR_MESSAGE + "\n\nFehlermeldung:\n" + e.toString()).show();
-                    }
+                    this.ifFound(this.stafferDao.findById(id, Staffer.WITH_DIVISION_AND_COMPANY), s -> {
+                        new ResultDialog(FormatEvent.format(Staffer.class.getSimpleName(), s.getId(), s::toEnhancedLine)).show();
+                    });
                 }
             });
         });
@@ -401,21 +478,16 @@ public class ContactManagerController implements Initializable {
      * <ul><li>Opens a new {@link RequestIdDialog} to request an id from the
      * user</li>
      * <li>Opens a new {@link ResultDialog} with the search results from
-     * {@link Dao#findDivisionById(long)}</li></ul>
+     * {@link AsyncDao#findById(long, String)}</li></ul>
      */
     @FXML
     private void findDivisionById() {
         Platform.runLater(() -> {
             new RequestIdDialog().showAndWait().ifPresent(id -> {
                 if (id != 0L) {
-                    try {
-                        Division division = this.divisionDao.findById(id);
-                        new ResultDialog(division.toEnhancedLine()).show();
-                    } catch (NullPointerException e) {
-                        L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
-                        L.info("Opening new [{}]", Alert.class.getSimpleName());
-                        new Alert(Alert.AlertType.WARNING, ID_NOT_FOUND_ERROR_MESSAGE + "\n\nFehlermeldung:\n" + e.toString()).show();
-                    }
+                    this.ifFound(this.divisionDao.findById(id, Division.WITH_COMPANY_AND_STAFFERS), d -> {
+                        new ResultDialog(FormatEvent.format(Division.class.getSimpleName(), d.getId(), d::toEnhancedLine)).show();
+                    });
                 }
             });
         });
@@ -426,21 +498,16 @@ public class ContactManagerController implements Initializable {
      * <ul><li>Opens a new {@link RequestIdDialog} to request an id from the
      * user</li>
      * <li>Opens a new {@link ResultDialog} with the search results from
-     * {@link Dao#findCompanyById(long)}</li></ul>
+     * {@link AsyncDao#findById(long, String)}</li></ul>
      */
     @FXML
     private void findCompanyById() {
         Platform.runLater(() -> {
             new RequestIdDialog().showAndWait().ifPresent(id -> {
                 if (id != 0L) {
-                    try {
-                        Company company = this.companyDao.findById(id);
-                        new ResultDialog(company.toEnhancedLine()).show();
-                    } catch (NullPointerException e) {
-                        L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
-                        L.info("Opening new [{}]", Alert.class.getSimpleName());
-                        new Alert(Alert.AlertType.WARNING, ID_NOT_FOUND_ERROR_MESSAGE + "\n\nFehlermeldung:\n" + e.toString()).show();
-                    }
+                    this.ifFound(this.companyDao.findById(id, Company.WITH_DIVISIONS), c -> {
+                        new ResultDialog(FormatEvent.format(Company.class.getSimpleName(), c.getId(), c::toEnhancedLine)).show();
+                    });
                 }
             });
         });
@@ -450,34 +517,34 @@ public class ContactManagerController implements Initializable {
     //</editor-fold>
     //<editor-fold defaultstate="collapsed" desc="persist()">
     /**
-     * <ul><li>Opens a new {@link StafferDialog} to create a new
+     * <ul><li>Loads the {@link Division}<code>s</code> to choose from</li>
+     * <li>Opens a new {@link StafferDialog} to create a new
      * {@link Staffer}</li>
-     * <li>Calls {@link Dao#persistStaffer(Staffer)} to persist the created
+     * <li>Calls {@link AsyncDao#persist(Object)} to persist the created
      * {@link Staffer}</li></ul>
      */
     @FXML
     private void persistStaffer() {
-        Platform.runLater(() -> {
-            new StafferDialog().showAndWait().ifPresent(s -> {
-                this.stafferDao.persist(s);
-                this.synchronizeStaffers();
+        this.onFxThread(this.divisionDao.findAll(Division.WITH_COMPANY), divisions -> {
+            new StafferDialog(divisions).showAndWait().ifPresent(s -> {
+                this.onFailure(this.stafferDao.persist(s));
             });
         });
 
     }
 
     /**
-     * <ul><li>Opens a new {@link DivisionDialog} to create a new
+     * <ul><li>Loads the {@link Company}<code>s</code> to choose from</li>
+     * <li>Opens a new {@link DivisionDialog} to create a new
      * {@link Division}</li>
-     * <li>Calls {@link Dao#persistDivision(Division)} to persist the created
+     * <li>Calls {@link AsyncDao#persist(Object)} to persist the created
      * {@link Division}</li></ul>
      */
     @FXML
     private void persistDivision() {
-        Platform.runLater(() -> {
-            new DivisionDialog().showAndWait().ifPresent(d -> {
-                this.divisionDao.persist(d);
-                this.synchronizeDivisions();
+        this.onFxThread(this.companyDao.findAll(), companies -> {
+            new DivisionDialog(companies).showAndWait().ifPresent(d -> {
+                this.onFailure(this.divisionDao.persist(d));
             });
         });
     }
@@ -485,15 +552,14 @@ public class ContactManagerController implements Initializable {
     /**
      * <ul><li>Opens a new {@link CompanyDialog} to create a new
      * {@link Company}</li>
-     * <li>Calls {@link Dao#persistCompany(Company)} to persist the created
+     * <li>Calls {@link AsyncDao#persist(Object)} to persist the created
      * {@link Company}</li></ul>
      */
     @FXML
     private void persistCompany() {
         Platform.runLater(() -> {
             new CompanyDialog().showAndWait().ifPresent(c -> {
-                this.companyDao.persist(c);
-                this.synchronizeCompanies();
+                this.onFailure(this.companyDao.persist(c));
             });
         });
     }
@@ -505,29 +571,22 @@ public class ContactManagerController implements Initializable {
      * user</li>
      * <li>Opens a new {@link StafferDialog} to create a new
      * {@link Staffer}</li>
-     * <li>Calls {@link Dao#updateStaffer(long, Staffer)} to update the Staffer
+     * <li>Calls {@link AsyncDao#update(long, Object)} to update the Staffer
      * with the entered id to the values of the new Staffer</li>
-     * <li>Refreshes the view of {@link TableView} stafferTableView</li></ul>
+     * <li>The {@link TableView} is updated by the resulting
+     * {@link ChangeEvent}</li></ul>
      */
     @FXML
     private void updateStaffer() {
         Platform.runLater(() -> {
             new RequestIdDialog().showAndWait().ifPresent(id -> {
-                if (id != 0L && this.stafferDao.findById(id) != null) {
-                    try {
-                        new StafferDialog().showAndWait().ifPresent(s -> {
-                            this.stafferDao.update(id, s);
-                            this.synchronizeStaffers();
+                this.ifFound(this.findById(this.stafferDao, id), staffer -> {
+                    this.onFxThread(this.divisionDao.findAll(Division.WITH_COMPANY), divisions -> {
+                        new StafferDialog(divisions).showAndWait().ifPresent(s -> {
+                            this.onFailure(this.stafferDao.update(id, s));
                         });
-                    } catch (NullPointerException e) {
-                        L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
-                        L.info("Opening new [{}]", Alert.class.getSimpleName());
-                        new Alert(Alert.AlertType.WARNING, ID_NOT_FOUND_ERROR_MESSAGE + "\n\nFehlermeldung:\n" + e.toString()).show();
-                    }
-                } else {
-                    L.info("Opening new [{}]", Alert.class.getSimpleName());
-                    new Alert(Alert.AlertType.WARNING, ID_NOT_FOUND_ERROR_MESSAGE).show();
-                }
+                    });
+                });
             });
         });
     }
@@ -537,29 +596,22 @@ public class ContactManagerController implements Initializable {
      * user</li>
      * <li>Opens a new {@link DivisionDialog} to create a new
      * {@link Division}</li>
-     * <li>Calls {@link Dao#updateDivision(long, Division)} to update the
+     * <li>Calls {@link AsyncDao#update(long, Object)} to update the
      * Division with the entered id to the values of the new Division</li>
-     * <li>Refreshes the view of {@link TableView} divisionTableView</li></ul>
+     * <li>The {@link TableView} is updated by the resulting
+     * {@link ChangeEvent}</li></ul>
      */
     @FXML
     private void updateDivision() {
         Platform.runLater(() -> {
             new RequestIdDialog().showAndWait().ifPresent(id -> {
-                if (id != 0L && this.divisionDao.findById(id) != null) {
-                    try {
-                        new DivisionDialog().showAndWait().ifPresent(d -> {
-                            this.divisionDao.update(id, d);
-                            this.synchronizeDivisions();
+                this.ifFound(this.findById(this.divisionDao, id), division -> {
+                    this.onFxThread(this.companyDao.findAll(), companies -> {
+                        new DivisionDialog(companies).showAndWait().ifPresent(d -> {
+                            this.onFailure(this.divisionDao.update(id, d));
                         });
-                    } catch (NullPointerException e) {
-                        L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
-                        L.info("Opening new [{}]", Alert.class.getSimpleName());
-                        new Alert(Alert.AlertType.WARNING, ID_NOT_FOUND_ERROR_MESSAGE + "\n\nFehlermeldung:\n" + e.toString()).show();
-                    }
-                } else {
-                    L.info("Opening new [{}]", Alert.class.getSimpleName());
-                    new Alert(Alert.AlertType.WARNING, ID_NOT_FOUND_ERROR_MESSAGE).show();
-                }
+                    });
+                });
             });
         });
     }
@@ -569,29 +621,20 @@ public class ContactManagerController implements Initializable {
      * user</li>
      * <li>Opens a new {@link CompanyDialog} to create a new
      * {@link Company}</li>
-     * <li>Calls {@link Dao#updateCompany(long, Company)} to update the Company
+     * <li>Calls {@link AsyncDao#update(long, Object)} to update the Company
      * with the entered id to the values of the new Company</li>
-     * <li>Refreshes the view of {@link TableView} companyTableView</li></ul>
+     * <li>The {@link TableView} is updated by the resulting
+     * {@link ChangeEvent}</li></ul>
      */
     @FXML
     private void updateCompany() {
         Platform.runLater(() -> {
             new RequestIdDialog().showAndWait().ifPresent(id -> {
-                if (id != 0L && this.companyDao.findById(id) != null) {
-                    try {
-                        new CompanyDialog().showAndWait().ifPresent(c -> {
-                            this.companyDao.update(id, c);
-                            this.synchronizeCompanies();
-                        });
-                    } catch (NullPointerException e) {
-                        L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
-                        L.info("Opening new [{}]", Alert.class.getSimpleName());
-                        new Alert(Alert.AlertType.WARNING, ID_NOT_FOUND_ERROR_MESSAGE + "\n\nFehlermeldung:\n" + e.toString()).show();
-                    }
-                } else {
-                    L.info("Opening new [{}]", Alert.class.getSimpleName());
-                    new Alert(Alert.AlertType.WARNING, ID_NOT_FOUND_ERROR_MESSAGE).show();
-                }
+                this.ifFound(this.findById(this.companyDao, id), company -> {
+                    new CompanyDialog().showAndWait().ifPresent(c -> {
+                        this.onFailure(this.companyDao.update(id, c));
+                    });
+                });
             });
         });
     }
@@ -606,19 +649,9 @@ public class ContactManagerController implements Initializable {
     private void removeStaffer() {
         Platform.runLater(() -> {
             new RequestIdDialog().showAndWait().ifPresent(id -> {
-                if (id != 0L && this.stafferDao.findById(id) != null) {
-                    try {
-                        this.stafferDao.remove(id);
-                        this.synchronizeStaffers();
-                    } catch (NullPointerException e) {
-                        L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
-                        L.info("Opening new [{}]", Alert.class.getSimpleName());
-                        new Alert(Alert.AlertType.WARNING, ID_NOT_FOUND_ERROR_MESSAGE + "\n\nFehlermeldung:\n" + e.toString()).show();
-                    }
-                } else {
-                    L.info("Opening new [{}]", Alert.class.getSimpleName());
-                    new Alert(Alert.AlertType.WARNING, ID_NOT_FOUND_ERROR_MESSAGE).show();
-                }
+                this.ifFound(this.findById(this.stafferDao, id), staffer -> {
+                    this.onFailure(this.stafferDao.remove(id));
+                });
             });
         });
     }
@@ -631,19 +664,9 @@ public class ContactManagerController implements Initializable {
     private void removeDivision() {
         Platform.runLater(() -> {
             new RequestIdDialog().showAndWait().ifPresent(id -> {
-                if (id != 0L && this.divisionDao.findById(id) != null) {
-                    try {
-                        this.divisionDao.remove(id);
-                        this.synchronizeDivisions();
-                    } catch (NullPointerException e) {
-                        L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
-                        L.info("Opening new [{}]", Alert.class.getSimpleName());
-                        new Alert(Alert.AlertType.WARNING, ID_NOT_FOUND_ERROR_MESSAGE + "\n\nFehlermeldung:\n" + e.toString()).show();
-                    }
-                } else {
-                    L.info("Opening new [{}]", Alert.class.getSimpleName());
-                    new Alert(Alert.AlertType.WARNING, ID_NOT_FOUND_ERROR_MESSAGE).show();
-                }
+                this.ifFound(this.findById(this.divisionDao, id), division -> {
+                    this.onFailure(this.divisionDao.remove(id));
+                });
             });
         });
     }
@@ -656,19 +679,9 @@ public class ContactManagerController implements Initializable {
     private void removeCompany() {
         Platform.runLater(() -> {
             new RequestIdDialog().showAndWait().ifPresent(id -> {
-                if (id != 0L && this.companyDao.findById(id) != null) {
-                    try {
-                        this.companyDao.remove(id);
-                        this.synchronizeCompanies();
-                    } catch (NullPointerException e) {
-                        L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
-                        L.info("Opening new [{}]", Alert.class.getSimpleName());
-                        new Alert(Alert.AlertType.WARNING, ID_NOT_FOUND_ERROR_MESSAGE + "\n\nFehlermeldung:\n" + e.toString()).show();
-                    }
-                } else {
-                    L.info("Opening new [{}]", Alert.class.getSimpleName());
-                    new Alert(Alert.AlertType.WARNING, ID_NOT_FOUND_ERROR_MESSAGE).show();
-                }
+                this.ifFound(this.findById(this.companyDao, id), company -> {
+                    this.onFailure(this.companyDao.remove(id));
+                });
             });
         });
     }
@@ -678,115 +691,243 @@ public class ContactManagerController implements Initializable {
     /**
      * Synchronizes the view of {@link Staffer} objects with the actual data in
      * the database.
+     * <p>
+     * Loads flat {@link StafferRow}<code>s</code> with
+     * {@link AsyncStafferDao#findAllRows()} in one query instead of Staffer
+     * entities. Like all synchronizations it is recorded as
+     * {@link SynchronizeEvent}.
+     *
+     * @return CompletableFuture&lt;?&gt; - future completed when the table
+     * shows the loaded rows
      */
-    private void synchronizeStaffers() {
+    private CompletableFuture<?> synchronizeStaffers() {
         L.info("Synchronizing database and view for [{}]", Staffer.class.getSimpleName());
-        CompletableFuture<List<Staffer>> futureStaffers = new CompletableFuture<>();
-        CompletableFuture<Boolean> isComplete = new CompletableFuture<>();
-
-        this.es.execute(() -> {
-            futureStaffers.complete(this.stafferDao.findAll());
+        return this.stafferModel.inOrder(() -> {
+            SynchronizeEvent event = new SynchronizeEvent(Staffer.class.getSimpleName());
+            return this.onFxThread(this.stafferDao.findAllRows(), staffers -> event.refresh(staffers.size(), () -> this.stafferModel.setAll(staffers)));
         });
-
-        es.execute(() -> {
-            try {
-                this.stafferTableView.setItems(FXCollections.observableArrayList(futureStaffers.get()));
-                isComplete.complete(true);
-            } catch (InterruptedException | ExecutionException e) {
-                L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
-                L.info("Opening new [{}]", Alert.class.getSimpleName());
-                new Alert(Alert.AlertType.ERROR, "Fehlermeldung:\n" + e.getLocalizedMessage()).show();
-                isComplete.complete(false);
-            }
-        });
-
-        try {
-            if (isComplete.get() == true) {
-                Platform.runLater(() -> {
-                    this.stafferTableView.refresh();
-                });
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
-            L.info("Opening new [{}]", Alert.class.getSimpleName());
-            new Alert(Alert.AlertType.ERROR, "Fehlermeldung:\n" + e.getLocalizedMessage()).show();
-        }
     }
 
     /**
      * Synchronizes the view of {@link Division} objects with the actual data in
      * the database.
+     *
+     * @return CompletableFuture&lt;?&gt; - future completed when the table
+     * shows the loaded rows
      */
-    private void synchronizeDivisions() {
+    private CompletableFuture<?> synchronizeDivisions() {
         L.info("Synchronizing database and view for [{}]", Division.class.getSimpleName());
-        CompletableFuture<List<Division>> futureDivisions = new CompletableFuture<>();
-        CompletableFuture<Boolean> isComplete = new CompletableFuture<>();
+        return this.divisionModel.inOrder(() -> {
+            SynchronizeEvent event = new SynchronizeEvent(Division.class.getSimpleName());
+            return this.onFxThread(this.divisionDao.findAll(Division.WITH_COMPANY), divisions -> event.refresh(divisions.size(), () -> this.divisionModel.setAll(divisions)));
+        });
+    }
 
-        this.es.execute(() -> {
-            futureDivisions.complete(this.divisionDao.findAll());
+    /**
+     * Synchronizes the view of {@link Company} objects with the actual data in
+     * the database.
+     *
+     * @return CompletableFuture&lt;?&gt; - future completed when the table
+     * shows the loaded rows
+     */
+    private CompletableFuture<?> synchronizeCompanies() {
+        L.info("Synchronizing database and view for [{}]", Company.class.getSimpleName());
+        return this.companyModel.inOrder(() -> {
+            SynchronizeEvent event = new SynchronizeEvent(Company.class.getSimpleName());
+            return this.onFxThread(this.companyDao.findAll(), companies -> event.refresh(companies.size(), () -> this.companyModel.setAll(companies)));
         });
+    }
 
-        es.execute(() -> {
-            try {
-                this.divisionTableView.setItems(FXCollections.observableArrayList(futureDivisions.get()));
-                isComplete.complete(true);
-            } catch (InterruptedException | ExecutionException e) {
-                L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
-                L.info("Opening new [{}]", Alert.class.getSimpleName());
-                new Alert(Alert.AlertType.ERROR, "Fehlermeldung:\n" + e.getLocalizedMessage()).show();
-                isComplete.complete(false);
+    /**
+     * Collects the submitted {@link ChangeEvent} and schedules
+     * {@link #applyChanges()} on the JavaFX application thread, unless it is
+     * scheduled already. Called by {@link ChangeEvents} on the committing
+     * thread.
+     *
+     * @param event the committed change
+     */
+    private void onChange(ChangeEvent event) {
+        this.pendingChanges.add(event);
+        if (this.applyScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::applyChanges);
+        }
+    }
+
+    /**
+     * Applies all collected {@link ChangeEvent}<code>s</code> to the tables
+     * which were loaded already:
+     * <ul><li>created, updated and removed entities are looked up by id, found
+     * ones are put into their table and removed ones are dropped from it,
+     * together with the rows which show the name of an updated or removed
+     * Company or Division</li>
+     * <li>a table is only loaded completely after an invalidation</li></ul>
+     * All reads of one table run one after another with
+     * {@link EntityTableModel#inOrder}, so a full load which was
+     * started before a change can not bring back the old rows.
+     */
+    private void applyChanges() {
+        this.applyScheduled.set(false);
+        Set<Long> companyIds = new LinkedHashSet<>();
+        Set<Long> divisionIds = new LinkedHashSet<>();
+        Set<Long> stafferIds = new LinkedHashSet<>();
+        Set<Class<?>> invalidated = new HashSet<>();
+
+        ChangeEvent event;
+        while ((event = this.pendingChanges.poll()) != null) {
+            long id = event.getId();
+            if (event.getType() == ChangeEvent.Type.INVALIDATED) {
+                invalidated.add(event.getEntityClass());
+            } else if (event.isAbout(Company.class)) {
+                companyIds.add(id);
+                if (event.getType() != ChangeEvent.Type.CREATED) {
+                    divisionIds.addAll(this.divisionModel.idsWhere(d -> d.getCompany() != null && d.getCompany().getId() == id));
+                    stafferIds.addAll(this.stafferModel.idsWhere(r -> r.getCompanyId() != null && r.getCompanyId() == id));
+                }
+            } else if (event.isAbout(Division.class)) {
+                divisionIds.add(id);
+                if (event.getType() != ChangeEvent.Type.CREATED) {
+                    stafferIds.addAll(this.stafferModel.idsWhere(r -> r.getDivisionId() != null && r.getDivisionId() == id));
+                }
+            } else if (event.isAbout(Staffer.class)) {
+                stafferIds.add(id);
             }
-        });
+        }
 
-        try {
-            if (isComplete.get() == true) {
-                Platform.runLater(() -> {
-                    this.divisionTableView.refresh();
-                });
+        if (this.isLoaded(this.companyTableView)) {
+            if (invalidated.contains(Company.class)) {
+                this.synchronizeCompanies();
+            } else if (!companyIds.isEmpty()) {
+                this.companyModel.inOrder(() -> this.onFxThread(this.companyDao.findByIds(companyIds, null), found -> this.companyModel.apply(companyIds, found)));
+            }
+        }
+        if (this.isLoaded(this.divisionTableView)) {
+            if (invalidated.contains(Division.class) || invalidated.contains(Company.class)) {
+                this.synchronizeDivisions();
+            } else if (!divisionIds.isEmpty()) {
+                this.divisionModel.inOrder(() -> this.onFxThread(this.divisionDao.findByIds(divisionIds, Division.WITH_COMPANY), found -> this.divisionModel.apply(divisionIds, found)));
+            }
+        }
+        if (this.isLoaded(this.stafferTableView)) {
+            if (!invalidated.isEmpty()) {
+                this.synchronizeStaffers();
+            } else if (!stafferIds.isEmpty()) {
+                this.stafferModel.inOrder(() -> this.onFxThread(this.stafferDao.findRows(stafferIds), found -> this.stafferModel.apply(stafferIds, found)));
             }
-        } catch (InterruptedException | ExecutionException e) {
-            L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
-            L.info("Opening new [{}]", Alert.class.getSimpleName());
-            new Alert(Alert.AlertType.ERROR, "Fehlermeldung:\n" + e.getLocalizedMessage()).show();
         }
     }
 
     /**
-     * Synchronizes the view of {@link Company} objects with the actual data in
-     * the database.
+     * Loads the tables of all tabs which were not loaded yet, so switching to
+     * another tab shows its rows at once. Called by
+     * {@link ContactManagerApplication} while the application starts.
+     *
+     * @return CompletableFuture&lt;?&gt; - future of the first load of the
+     * table of the selected tab
      */
-    private void synchronizeCompanies() {
-        L.info("Synchronizing database and view for [{}]", Company.class.getSimpleName());
-        CompletableFuture<List<Company>> futureCompanies = new CompletableFuture<>();
-        CompletableFuture<Boolean> isComplete = new CompletableFuture<>();
+    public CompletableFuture<?> prefetch() {
+        List<Tab> tabs = this.tabPane.getTabs();
+        this.loadedTabs.computeIfAbsent(tabs.get(0), tab -> this.synchronizeCompanies());
+        this.loadedTabs.computeIfAbsent(tabs.get(1), tab -> this.synchronizeDivisions());
+        this.loadedTabs.computeIfAbsent(tabs.get(2), tab -> this.synchronizeStaffers());
+        return this.loadedTabs.get(this.tabPane.getSelectionModel().getSelectedItem());
+    }
 
-        this.es.execute(() -> {
-            futureCompanies.complete(this.companyDao.findAll());
-        });
+    /**
+     * Returns whether the table in the submitted {@link TableView} was loaded
+     * already. Tables which were not loaded yet get all changes with their
+     * first load.
+     *
+     * @param tableView the TableView to check
+     * @return boolean - true if the table was loaded
+     */
+    private boolean isLoaded(TableView<?> tableView) {
+        return this.loadedTabs.keySet().stream().anyMatch(tab -> tab.getContent() == tableView);
+    }
 
-        es.execute(() -> {
-            try {
-                this.companyTableView.setItems(FXCollections.observableArrayList(futureCompanies.get()));
-                isComplete.complete(true);
-            } catch (InterruptedException | ExecutionException e) {
-                L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
+    /**
+     * Shows the rows of the submitted {@link EntityTableModel} in the
+     * submitted {@link TableView}. The rows are wrapped into a
+     * {@link SortedList}, so sorting by a column does not change the order of
+     * the model.
+     *
+     * @param <T> type of the rows
+     * @param tableView the TableView to show the rows in
+     * @param model the model with the rows
+     */
+    private <T> void bind(TableView<T> tableView, EntityTableModel<T> model) {
+        SortedList<T> sorted = new SortedList<>(model.getItems());
+        sorted.comparatorProperty().bind(tableView.comparatorProperty());
+        tableView.setItems(sorted);
+    }
+    //</editor-fold>
+    //<editor-fold defaultstate="collapsed" desc="async helpers">
+    /**
+     * Hands the result of the submitted {@link CompletableFuture} to the
+     * submitted {@link Consumer} on the JavaFX application thread, or opens
+     * an {@link Alert} with the cause if the future failed.
+     *
+     * @param <R> type of the result
+     * @param future the future of a database operation
+     * @param action the action to apply the result to the view
+     * @return CompletableFuture&lt;R&gt; - future completed after the action
+     * ran, or with the cause of the failure
+     */
+    private <R> CompletableFuture<R> onFxThread(CompletableFuture<R> future, Consumer<R> action) {
+        return future.whenCompleteAsync((result, e) -> {
+            if (e == null) {
+                action.accept(result);
+            } else {
+                Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+                L.info("Catching [{}] in [{}]", cause.toString(), ContactManagerController.class.getSimpleName());
                 L.info("Opening new [{}]", Alert.class.getSimpleName());
-                new Alert(Alert.AlertType.ERROR, "Fehlermeldung:\n" + e.getLocalizedMessage()).show();
-                isComplete.complete(false);
+                new Alert(Alert.AlertType.ERROR, "Fehlermeldung:\n" + cause.getLocalizedMessage()).show();
             }
+        }, Platform::runLater);
+    }
+
+    /**
+     * Opens an {@link Alert} on the JavaFX application thread if the
+     * submitted future fails. Used for writes, whose results reach the view
+     * as {@link ChangeEvent}<code>s</code>.
+     *
+     * @param future the future of a database operation
+     */
+    private void onFailure(CompletableFuture<?> future) {
+        this.onFxThread(future, result -> {
         });
+    }
 
-        try {
-            if (isComplete.get() == true) {
-                Platform.runLater(() -> {
-                    this.companyTableView.refresh();
-                });
+    /**
+     * Like {@link #onFxThread(CompletableFuture, Consumer)}, but opens an
+     * {@link Alert} instead of calling the {@link Consumer} if the future is
+     * completed with null.
+     *
+     * @param <R> type of the result
+     * @param future the future of a lookup by id
+     * @param action the action to run with the found entity
+     */
+    private <R> void ifFound(CompletableFuture<R> future, Consumer<R> action) {
+        this.onFxThread(future, entity -> {
+            if (entity != null) {
+                action.accept(entity);
+            } else {
+                L.info("Opening new [{}]", Alert.class.getSimpleName());
+                new Alert(Alert.AlertType.WARNING, ID_NOT_FOUND_ERROR_MESSAGE).show();
             }
-        } catch (InterruptedException | ExecutionException e) {
-            L.info("Catching [{}] in [{}]", e.toString(), ContactManagerController.class.getSimpleName());
-            L.info("Opening new [{}]", Alert.class.getSimpleName());
-            new Alert(Alert.AlertType.ERROR, "Fehlermeldung:\n" + e.getLocalizedMessage()).show();
-        }
+        });
+    }
+
+    /**
+     * Looks for the entity with the submitted id, the future is completed with
+     * null without a query if the id is 0.
+     *
+     * @param <T> type of the entity
+     * @param dao the {@link AsyncDao} to look up the entity with
+     * @param id id of the wanted entity
+     * @return CompletableFuture&lt;T&gt; - future of the found entity
+     */
+    private <T> CompletableFuture<T> findById(AsyncDao<T> dao, long id) {
+        return id != 0L ? dao.findById(id) : CompletableFuture.completedFuture(null);
     }
     //</editor-fold>
 
@@ -795,20 +936,16 @@ public class ContactManagerController implements Initializable {
      * request.
      * <p>
      * If the user confirms the request:
-     * <ul><li>calls {@link HibernateUtils#shutdown()}</li>
+     * <ul><li>calls {@link AsyncDao#destroy()} for each AsyncDao
+     * implementation</li>
      * <li>calls {@link ExecutorService#shutdown()}</li>
-     * <li>calls {@link Dao#destroy()} for each Dao implementation</li>
      * <li>closes the primary application stage</li></ul>
      * to exit the application properly.
      */
     @FXML
     public void exit() {
         if (new Alert(Alert.AlertType.CONFIRMATION, "Wollen Sie die Anwendung beenden?").showAndWait().get() == ButtonType.OK) {
-            L.info("Shutting down the application");
-            this.es.shutdown();
-            this.stafferDao.destroy();
-            this.divisionDao.destroy();
-            this.companyDao.destroy();
+            this.shutdown();
 
             Stage stage = (Stage) this.exitBtn.getScene().getWindow();
             stage.close();
@@ -817,15 +954,18 @@ public class ContactManagerController implements Initializable {
 
     /**
      * Shuts down the controller by calling:
-     * <ul><li>{@link ExecutorService#shutdown()}</li>
-     * <li>and {@link Dao#destroy()} for each Dao implementation</li></ul>
+     * <ul><li>{@link ChangePoller#stop()}</li>
+     * <li>{@link AsyncDao#destroy()} for each AsyncDao implementation</li>
+     * <li>and {@link ExecutorService#shutdown()}</li></ul>
      */
     public void shutdown() {
         L.info("Shutting down the application");
-        this.es.shutdown();
+        ChangeEvents.unsubscribe(this.changeListener);
+        this.poller.stop();
         this.stafferDao.destroy();
         this.divisionDao.destroy();
         this.companyDao.destroy();
+        this.es.shutdown();
     }
 
 }
@@ -1,17 +1,12 @@
 package de.mcdb.contactmanagerdesktop;
 
 import de.mcdb.contactmanagerdesktop.fx.UserDataDialog;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
-import java.sql.Statement;
+import de.mcdb.contactmanagerdesktop.jfr.PreloaderPhaseEvent;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import javafx.application.Platform;
 import javafx.application.Preloader;
 import javafx.scene.Scene;
-import javafx.scene.control.Alert;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.layout.BorderPane;
@@ -29,11 +24,9 @@ public class ContactManagerPreloader extends Preloader {
 
     private static final Logger L = LoggerFactory.getLogger(Preloader.class);
 
-    private final ExecutorService es = Executors.newCachedThreadPool();
-    private final PersistenceWriter writer = new PersistenceWriter();
-
     private Stage stage;
     private ProgressBar bar;
+    private boolean started;
 
     /**
      * The main entry point for all JavaFX applications.
@@ -59,16 +52,16 @@ public class ContactManagerPreloader extends Preloader {
      * Before Load:
      * <p>
      * Opens a {@link UserDataDialog} to ask the user for jdbc values and
-     * prepares the persistence.xml with the entered values.
-     * <p>
-     * Before Init:
-     * <p>
-     * Puts the Thread to sleep for 5 seconds to ensure writing of the
-     * persistence.xml is finished.
+     * starts the {@link StartupPipeline} with the entered values, whose
+     * progress is shown at the {@link ProgressBar} until the application is
+     * ready.
      * <p>
      * Before Start:
      * <p>
      * Hides the {@link Preloader} {@link Stage}.
+     * <p>
+     * Every phase is recorded as {@link PreloaderPhaseEvent} for the Java
+     * Flight Recorder.
      *
      * @param stateChangeNotification a notification that signals a change in
      * the application state
@@ -76,52 +69,31 @@ public class ContactManagerPreloader extends Preloader {
     @Override
     public void handleStateChangeNotification(StateChangeNotification stateChangeNotification) {
         if (stateChangeNotification.getType() != null) {
-            try {
-                switch (stateChangeNotification.getType()) {
-                    case BEFORE_LOAD:
-                        this.bar.setProgress(0.33);
-                        Map<String, String> data = new HashMap<>();
+            switch (stateChangeNotification.getType()) {
+                case BEFORE_LOAD:
+                    this.bar.setProgress(0);
+                    Map<String, String> data = new HashMap<>();
+                    PreloaderPhaseEvent.record("user data", () -> {
                         new UserDataDialog().showAndWait().ifPresent(ud -> {
                             data.put("user", ud.get("user"));
                             data.put("pw", ud.get("pw"));
                         });
-                        if (!data.isEmpty()) {
-                            String user = data.get("user");
-                            String pw = data.get("pw");
-                            es.execute(() -> {
-                                L.info("Preparing MySQL scheme");
-                                try (Connection c = DriverManager.getConnection("jdbc:mysql://localhost:3306/?serverTimezone=UTC", user, pw)) {
-                                    Statement s = c.createStatement();
-                                    s.execute("create database if not exists contact_db;");
-                                } catch (SQLException e) {
-                                    L.error("Catching {} in [{}], shutting down the program via System.exit(0)", e, Preloader.class);
-                                    new Alert(Alert.AlertType.ERROR,"Fehler=\n" + e).showAndWait();
-                                    System.exit(0);
-                                }
-                            });
-                            es.execute(() -> {
-                                L.info("Writing persistence.xml");
-                                this.writer.writePersistenceXML(user, pw);
-                            });
-                        } else {
-                            L.info("No user data entered, shutting down the program via System.exit(0)");
-                            System.exit(0);
-                        }
-                        break;
-                    case BEFORE_INIT:
-                        this.bar.setProgress(0.66);
-                        Thread.sleep(5000);
-                        es.shutdown();
-                        break;
-                    case BEFORE_START:
-                        this.bar.setProgress(0.99);
-                        this.stage.hide();
-                        break;
-                    default:
-                        break;
-                }
-            } catch (InterruptedException e) {
-                L.info("Catching {} in [{}]", e, ContactManagerPreloader.class.getSimpleName());
+                    });
+                    if (!data.isEmpty()) {
+                        this.started = true;
+                        StartupPipeline.start(data.get("user"), data.get("pw"))
+                                .addProgressListener(progress -> Platform.runLater(() -> this.bar.setProgress(progress)));
+                    } else {
+                        L.info("No user data entered, shutting down the program via System.exit(0)");
+                        System.exit(0);
+                    }
+                    break;
+                case BEFORE_START:
+                    this.bar.setProgress(1);
+                    this.stage.hide();
+                    break;
+                default:
+                    break;
             }
         }
     }
@@ -130,14 +102,17 @@ public class ContactManagerPreloader extends Preloader {
      * This method is called by the FX runtime to indicate progress while
      * application resources are being loaded.
      * <p>
-     * Sets the progress at the {@link ProgressBar}.
+     * Sets the progress at the {@link ProgressBar} until the
+     * {@link StartupPipeline} is started, which reports its own progress.
      *
      * @param progressNotification {@link Preloader} notification that reports
      * progress
      */
     @Override
     public void handleProgressNotification(ProgressNotification progressNotification) {
-        this.bar.setProgress(progressNotification.getProgress());
+        if (!this.started) {
+            this.bar.setProgress(progressNotification.getProgress());
+        }
     }
 
 }
@@ -63,6 +63,10 @@ public class PersistenceWriter {
             writer.writeCharacters("de.mcdb.contactmanagerapi.datamodel.Staffer");
             writer.writeEndElement();
 
+            writer.writeStartElement("class");
+            writer.writeCharacters("de.mcdb.contactmanagerapi.datamodel.Tombstone");
+            writer.writeEndElement();
+
             writer.writeStartElement("properties");
 
             writer.writeStartElement("property");
@@ -72,7 +76,7 @@ public class PersistenceWriter {
 
             writer.writeStartElement("property");
             writer.writeAttribute("name", "javax.persistence.jdbc.url");
-            writer.writeAttribute("value", "jdbc:mysql://localhost:3306/contact_db?serverTimezone=UTC");
+            writer.writeAttribute("value", "jdbc:mysql://localhost:3306/contact_db?serverTimezone=UTC&useCursorFetch=true&rewriteBatchedStatements=true");
             writer.writeEndElement();
 
             writer.writeStartElement("property");
@@ -100,6 +104,71 @@ public class PersistenceWriter {
             writer.writeAttribute("value", "update");
             writer.writeEndElement();
 
+            writer.writeStartElement("property");
+            writer.writeAttribute("name", "contactmanager.id.block_size.company");
+            writer.writeAttribute("value", "10");
+            writer.writeEndElement();
+
+            writer.writeStartElement("property");
+            writer.writeAttribute("name", "contactmanager.id.block_size.division");
+            writer.writeAttribute("value", "10");
+            writer.writeEndElement();
+
+            writer.writeStartElement("property");
+            writer.writeAttribute("name", "contactmanager.id.block_size.staffer");
+            writer.writeAttribute("value", "100");
+            writer.writeEndElement();
+
+            writer.writeStartElement("property");
+            writer.writeAttribute("name", "hibernate.jdbc.batch_size");
+            writer.writeAttribute("value", "50");
+            writer.writeEndElement();
+
+            writer.writeStartElement("property");
+            writer.writeAttribute("name", "hibernate.order_inserts");
+            writer.writeAttribute("value", "true");
+            writer.writeEndElement();
+
+            writer.writeStartElement("property");
+            writer.writeAttribute("name", "hibernate.order_updates");
+            writer.writeAttribute("value", "true");
+            writer.writeEndElement();
+
+            writer.writeStartElement("property");
+            writer.writeAttribute("name", "hibernate.cache.use_second_level_cache");
+            writer.writeAttribute("value", "true");
+            writer.writeEndElement();
+
+            writer.writeStartElement("property");
+            writer.writeAttribute("name", "hibernate.cache.use_query_cache");
+            writer.writeAttribute("value", "true");
+            writer.writeEndElement();
+
+            writer.writeStartElement("property");
+            writer.writeAttribute("name", "hibernate.cache.region.factory_class");
+            writer.writeAttribute("value", "jcache");
+            writer.writeEndElement();
+
+            writer.writeStartElement("property");
+            writer.writeAttribute("name", "hibernate.javax.cache.provider");
+            writer.writeAttribute("value", "org.ehcache.jsr107.EhcacheCachingProvider");
+            writer.writeEndElement();
+
+            writer.writeStartElement("property");
+            writer.writeAttribute("name", "hibernate.javax.cache.uri");
+            writer.writeAttribute("value", "contactmanager-ehcache.xml");
+            writer.writeEndElement();
+
+            writer.writeStartElement("property");
+            writer.writeAttribute("name", "hibernate.cache.auto_evict_collection_cache");
+            writer.writeAttribute("value", "true");
+            writer.writeEndElement();
+
+            writer.writeStartElement("property");
+            writer.writeAttribute("name", "hibernate.generate_statistics");
+            writer.writeAttribute("value", "true");
+            writer.writeEndElement();
+
             writer.writeStartElement("property");
             writer.writeAttribute("name", "hibernate.show_sql");
             writer.writeAttribute("value", "false");
@@ -0,0 +1,271 @@
+package de.mcdb.contactmanagerdesktop;
+
+import ch.qos.logback.classic.Logger;
+import de.mcdb.contactmanagerapi.ExecutorAsyncDao;
+import de.mcdb.contactmanagerdesktop.dao.HibernateUtils;
+import de.mcdb.contactmanagerdesktop.jfr.PreloaderPhaseEvent;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
+import javafx.fxml.FXMLLoader;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the stages of the start of the application in parallel and reports
+ * their progress.
+ * <p>
+ * {@link ContactManagerPreloader} starts the pipeline with the entered user
+ * data, which runs on background threads:
+ * <ul><li>prepare the database scheme, bootstrap the
+ * {@link EntityManagerFactory} and warm up the connection pool, one after
+ * another</li>
+ * <li>write the persistence.xml, next to them</li></ul>
+ * {@link ContactManagerApplication} meanwhile loads the FXML and starts the
+ * prefetch of the tables, which waits for the EntityManagerFactory on the
+ * threads of the DAOs. The application is ready when the table of the
+ * selected tab is filled, the other tables continue to load in the
+ * background.
+ * <p>
+ * Every stage adds its weight to the progress when it is finished and is
+ * recorded as {@link PreloaderPhaseEvent} for the Java Flight Recorder.
+ *
+ * @author Mirko Schulze
+ */
+public class StartupPipeline {
+
+    private static final Logger L = (Logger) LoggerFactory.getLogger(StartupPipeline.class);
+
+    private static final int THREADS = 2;
+
+    private static final int QUEUE_CAPACITY = 8;
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 3;
+
+    private static StartupPipeline current;
+
+    /**
+     * Stages of the start with their share of the progress.
+     */
+    private enum Stage {
+        PREPARE_SCHEME("prepare scheme", 1),
+        BOOTSTRAP("bootstrap EntityManagerFactory", 5),
+        WARM_UP("warm up connection pool", 1),
+        WRITE_PERSISTENCE_XML("write persistence.xml", 1),
+        LOAD_FXML("load FXML", 2),
+        PREFETCH("prefetch", 2);
+
+        private static final int TOTAL_WEIGHT = 12;
+
+        private final String phase;
+
+        private final int weight;
+
+        private Stage(String phase, int weight) {
+            this.phase = phase;
+            this.weight = weight;
+        }
+    }
+
+    private final ExecutorService es = ExecutorAsyncDao.newBoundedExecutor("contactmanager-startup", THREADS, QUEUE_CAPACITY);
+
+    private final PersistenceWriter writer = new PersistenceWriter();
+
+    private final List<DoubleConsumer> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger finishedWeight = new AtomicInteger();
+
+    private final long started = System.nanoTime();
+
+    private final CompletableFuture<Void> database;
+
+    private final CompletableFuture<Void> persistenceXml;
+
+    private StartupPipeline(String user, String password) {
+        if (user != null) {
+            HibernateUtils.configure(user, password);
+            this.database = CompletableFuture
+                    .runAsync(this.task(Stage.PREPARE_SCHEME, () -> prepareScheme(user, password)), this.es)
+                    .thenRunAsync(this.task(Stage.BOOTSTRAP, HibernateUtils::bootstrap), this.es)
+                    .thenRunAsync(this.task(Stage.WARM_UP, StartupPipeline::warmUp), this.es);
+            this.persistenceXml = CompletableFuture
+                    .runAsync(this.task(Stage.WRITE_PERSISTENCE_XML, () -> this.writer.writePersistenceXML(user, password)), this.es);
+        } else {
+            this.finished(Stage.PREPARE_SCHEME);
+            this.finished(Stage.WRITE_PERSISTENCE_XML);
+            this.database = CompletableFuture
+                    .runAsync(this.task(Stage.BOOTSTRAP, HibernateUtils::bootstrap), this.es)
+                    .thenRunAsync(this.task(Stage.WARM_UP, StartupPipeline::warmUp), this.es);
+            this.persistenceXml = CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Starts the pipeline with the submitted user data, which is used for the
+     * database scheme, the {@link EntityManagerFactory} and the
+     * persistence.xml.
+     *
+     * @param user the user name of the MySQL server
+     * @param password the password of the MySQL server
+     * @return StartupPipeline - the started pipeline
+     * @throws IllegalStateException if a pipeline was started already
+     */
+    public static synchronized StartupPipeline start(String user, String password) {
+        if (current != null) {
+            throw new IllegalStateException("StartupPipeline is started already");
+        }
+        L.info("Starting [{}]", StartupPipeline.class.getSimpleName());
+        current = new StartupPipeline(user, password);
+        return current;
+    }
+
+    /**
+     * Returns the started pipeline, or starts one with the user data of the
+     * persistence.xml if the application was launched without
+     * {@link ContactManagerPreloader}.
+     *
+     * @return StartupPipeline - the started pipeline
+     */
+    public static synchronized StartupPipeline current() {
+        if (current == null) {
+            L.info("Starting [{}] without user data", StartupPipeline.class.getSimpleName());
+            current = new StartupPipeline(null, null);
+        }
+        return current;
+    }
+
+    /**
+     * Adds a listener which is called with the progress between 0 and 1
+     * whenever a stage is finished, and once with the current progress right
+     * away. The listener is called on the thread of the finished stage.
+     *
+     * @param listener the listener to add
+     */
+    public void addProgressListener(DoubleConsumer listener) {
+        this.listeners.add(listener);
+        listener.accept(this.getProgress());
+    }
+
+    /**
+     * Loads the FXML with the submitted {@link FXMLLoader} on the calling
+     * thread, while the database stages continue in the background.
+     *
+     * @param <T> type of the root node
+     * @param loader the loader of the FXML
+     * @return T - the root node of the loaded FXML
+     * @throws IOException if the FXML cannot be loaded
+     */
+    public <T> T loadFxml(FXMLLoader loader) throws IOException {
+        List<T> root = new ArrayList<>(1);
+        this.run(Stage.LOAD_FXML, () -> root.add(loader.<T>load()));
+        return root.get(0);
+    }
+
+    /**
+     * Waits until the database stages, the persistence.xml and the submitted
+     * prefetch are finished, and shuts down the threads of the pipeline
+     * afterwards.
+     *
+     * @param prefetch future of the first table shown to the user
+     * @throws IllegalStateException if a stage failed, with the cause of the
+     * failure
+     */
+    public void awaitReady(CompletableFuture<?> prefetch) {
+        try {
+            CompletableFuture.allOf(this.database, this.persistenceXml).join();
+            this.run(Stage.PREFETCH, prefetch::join);
+            L.info("Application ready after {} ms", (System.nanoTime() - this.started) / 1_000_000);
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new IllegalStateException("Start of the application failed: " + cause, cause);
+        } finally {
+            this.es.shutdown();
+        }
+    }
+
+    /**
+     * Returns the share of the finished stages.
+     *
+     * @return double - the progress between 0 and 1
+     */
+    public double getProgress() {
+        return (double) this.finishedWeight.get() / Stage.TOTAL_WEIGHT;
+    }
+
+    /**
+     * Runs the submitted stage, records it as {@link PreloaderPhaseEvent} and
+     * reports the new progress.
+     */
+    private <X extends Exception> void run(Stage stage, PreloaderPhaseEvent.Phase<X> action) throws X {
+        long begin = System.nanoTime();
+        L.info("Running startup stage [{}]", stage.phase);
+        PreloaderPhaseEvent.record(stage.phase, action);
+        L.info("Startup stage [{}] finished after {} ms", stage.phase, (System.nanoTime() - begin) / 1_000_000);
+        this.finished(stage);
+    }
+
+    /**
+     * Returns the submitted stage as {@link Runnable} for a
+     * {@link CompletableFuture}, which rethrows checked exceptions wrapped
+     * into a {@link CompletionException}.
+     */
+    private Runnable task(Stage stage, PreloaderPhaseEvent.Phase<?> action) {
+        return () -> {
+            try {
+                this.run(stage, action);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        };
+    }
+
+    private void finished(Stage stage) {
+        double progress = (double) this.finishedWeight.addAndGet(stage.weight) / Stage.TOTAL_WEIGHT;
+        this.listeners.forEach(listener -> listener.accept(progress));
+    }
+
+    /**
+     * Creates the database of the Contact Manager unless it exists.
+     */
+    private static void prepareScheme(String user, String password) throws SQLException {
+        try (Connection c = DriverManager.getConnection("jdbc:mysql://localhost:3306/?serverTimezone=UTC", user, password);
+                Statement s = c.createStatement()) {
+            s.execute("create database if not exists contact_db;");
+        }
+    }
+
+    /**
+     * Borrows as many connections as the pool keeps idle and validates them,
+     * so the first queries of the application do not wait for connections
+     * to be established.
+     */
+    private static void warmUp() throws SQLException {
+        DataSource dataSource = HibernateUtils.getDataSource();
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < HibernateUtils.getMinimumIdle(); i++) {
+                Connection c = dataSource.getConnection();
+                connections.add(c);
+                c.isValid(VALIDATION_TIMEOUT_SECONDS);
+            }
+        } finally {
+            for (Connection c : connections) {
+                c.close();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package de.mcdb.contactmanagerdesktop.dao;
+
+import de.mcdb.contactmanagerapi.AsyncDao;
+import de.mcdb.contactmanagerapi.RemovalPolicy;
+import de.mcdb.contactmanagerapi.datamodel.Company;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link AsyncDao} for {@link Company} entities which runs a {@link CompanyDao} on
+ * an {@link Executor}.
+ *
+ * @author Mirko Schulze
+ */
+public class AsyncCompanyDao extends RecordingAsyncDao<Company, CompanyDao> {
+
+    /**
+     * Creates a new AsyncCompanyDao which runs a new {@link CompanyDao} on the
+     * submitted {@link Executor}.
+     *
+     * @param executor the Executor to run the CompanyDao on
+     */
+    public AsyncCompanyDao(Executor executor) {
+        super(Company.class, new CompanyDao(), executor);
+    }
+
+    /**
+     * Asynchronous variant of {@link CompanyDao#remove(long, RemovalPolicy)}.
+     *
+     * @param id id of the wanted entity
+     * @param policy the {@link RemovalPolicy} for the
+     * {@link de.mcdb.contactmanagerapi.datamodel.Division}<code>s</code> of the Company
+     * @return CompletableFuture&lt;Void&gt; - future which is completed when
+     * the entity is removed
+     */
+    public CompletableFuture<Void> remove(long id, RemovalPolicy policy) {
+        return run("remove", id, () -> this.dao.remove(id, policy), 1);
+    }
+
+}
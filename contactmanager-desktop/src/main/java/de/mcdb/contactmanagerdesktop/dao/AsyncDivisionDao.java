@@ -0,0 +1,40 @@
+package de.mcdb.contactmanagerdesktop.dao;
+
+import de.mcdb.contactmanagerapi.AsyncDao;
+import de.mcdb.contactmanagerapi.RemovalPolicy;
+import de.mcdb.contactmanagerapi.datamodel.Division;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link AsyncDao} for {@link Division} entities which runs a {@link DivisionDao} on
+ * an {@link Executor}.
+ *
+ * @author Mirko Schulze
+ */
+public class AsyncDivisionDao extends RecordingAsyncDao<Division, DivisionDao> {
+
+    /**
+     * Creates a new AsyncDivisionDao which runs a new {@link DivisionDao} on the
+     * submitted {@link Executor}.
+     *
+     * @param executor the Executor to run the DivisionDao on
+     */
+    public AsyncDivisionDao(Executor executor) {
+        super(Division.class, new DivisionDao(), executor);
+    }
+
+    /**
+     * Asynchronous variant of {@link DivisionDao#remove(long, RemovalPolicy)}.
+     *
+     * @param id id of the wanted entity
+     * @param policy the {@link RemovalPolicy} for the
+     * {@link de.mcdb.contactmanagerapi.datamodel.Staffer}<code>s</code> of the Division
+     * @return CompletableFuture&lt;Void&gt; - future which is completed when
+     * the entity is removed
+     */
+    public CompletableFuture<Void> remove(long id, RemovalPolicy policy) {
+        return run("remove", id, () -> this.dao.remove(id, policy), 1);
+    }
+
+}
@@ -0,0 +1,63 @@
+package de.mcdb.contactmanagerdesktop.dao;
+
+import de.mcdb.contactmanagerapi.AsyncDao;
+import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import de.mcdb.contactmanagerapi.readmodel.StafferRow;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link AsyncDao} for {@link Staffer} entities which runs a {@link StafferDao}
+ * on an {@link Executor}.
+ *
+ * @author Mirko Schulze
+ */
+public class AsyncStafferDao extends RecordingAsyncDao<Staffer, StafferDao> {
+
+    /**
+     * Creates a new AsyncStafferDao which runs a new {@link StafferDao} on the
+     * submitted {@link Executor}.
+     *
+     * @param executor the Executor to run the StafferDao on
+     */
+    public AsyncStafferDao(Executor executor) {
+        super(Staffer.class, new StafferDao(), executor);
+    }
+
+    /**
+     * Asynchronous variant of {@link StafferDao#findAllRows()}.
+     *
+     * @return CompletableFuture&lt;List&lt;StafferRow&gt;&gt; - future of the
+     * found rows
+     */
+    public CompletableFuture<List<StafferRow>> findAllRows() {
+        return supply("findAllRows", () -> this.dao.findAllRows(), List::size);
+    }
+
+    /**
+     * Asynchronous variant of {@link StafferDao#findRows(Collection)}.
+     *
+     * @param ids ids of the wanted Staffers
+     * @return CompletableFuture&lt;List&lt;StafferRow&gt;&gt; - future of the
+     * found rows
+     */
+    public CompletableFuture<List<StafferRow>> findRows(Collection<Long> ids) {
+        return supply("findRows", () -> this.dao.findRows(ids), List::size);
+    }
+
+    /**
+     * Asynchronous variant of
+     * {@link StafferDao#reassignStaffers(Collection, long)}.
+     *
+     * @param stafferIds ids of the Staffers to move
+     * @param targetDivisionId id of the Division to move the Staffers to
+     * @return CompletableFuture&lt;Long&gt; - future of the number of updated
+     * Staffers
+     */
+    public CompletableFuture<Long> reassignStaffers(Collection<Long> stafferIds, long targetDivisionId) {
+        return supply("reassignStaffers", () -> this.dao.reassignStaffers(stafferIds, targetDivisionId), Long::longValue);
+    }
+
+}
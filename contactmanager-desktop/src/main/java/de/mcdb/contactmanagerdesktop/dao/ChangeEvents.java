@@ -0,0 +1,62 @@
+package de.mcdb.contactmanagerdesktop.dao;
+
+import ch.qos.logback.classic.Logger;
+import de.mcdb.contactmanagerapi.ChangeEvent;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Class with static methods to publish {@link ChangeEvent}<code>s</code> of
+ * the desktop DAOs and to subscribe to them.
+ * <p>
+ * DAOs publish through {@link UnitOfWork#publish(ChangeEvent)}, so listeners
+ * only see committed changes. Listeners are called on the thread which
+ * committed the change and have to hand the event to the JavaFX application
+ * thread themselves.
+ *
+ * @author Mirko Schulze
+ */
+public class ChangeEvents {
+
+    private static final Logger L = (Logger) LoggerFactory.getLogger(ChangeEvents.class);
+
+    private static final List<Consumer<ChangeEvent>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers the submitted listener for all following events.
+     *
+     * @param listener the listener to register
+     */
+    public static void subscribe(Consumer<ChangeEvent> listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * Removes the submitted listener.
+     *
+     * @param listener the listener to remove
+     */
+    public static void unsubscribe(Consumer<ChangeEvent> listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Hands the submitted event to every listener. An exception thrown by a
+     * listener is logged and does not keep the event from the other ones.
+     *
+     * @param event the event to publish
+     */
+    static void publish(ChangeEvent event) {
+        L.info("Publishing [{}]", event);
+        for (Consumer<ChangeEvent> listener : LISTENERS) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                L.info("Catching [{}] in [{}]", e.toString(), ChangeEvents.class.getSimpleName());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+package de.mcdb.contactmanagerdesktop.dao;
+
+import ch.qos.logback.classic.Logger;
+import de.mcdb.contactmanagerapi.ChangeEvent;
+import de.mcdb.contactmanagerapi.ChangeSet;
+import de.mcdb.contactmanagerapi.ChangeTracking;
+import de.mcdb.contactmanagerapi.Dao;
+import de.mcdb.contactmanagerapi.MeteredDao;
+import de.mcdb.contactmanagerapi.datamodel.Company;
+import de.mcdb.contactmanagerapi.datamodel.Division;
+import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import de.mcdb.contactmanagerdesktop.jfr.RecordedDao;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Polls the database for entities which were changed by other clients and
+ * publishes a {@link ChangeEvent} for each of them, so the tables only reload
+ * the affected rows.
+ * <p>
+ * Every poll asks each DAO for its {@link Dao#findModifiedSince(Instant)},
+ * which uses the index of the last-modified column, and evicts the changed
+ * entities from the second-level cache. Because queries look back
+ * {@link ChangeTracking#OVERLAP}, the same change is returned by several
+ * polls; changes which were already published are skipped.
+ * <p>
+ * The interval in seconds is read from the system property
+ * {@value #INTERVAL_PROPERTY}, a value of 0 disables polling.
+ *
+ * @author Mirko Schulze
+ */
+public class ChangePoller {
+
+    private static final Logger L = (Logger) LoggerFactory.getLogger(ChangePoller.class);
+
+    /**
+     * Name of the system property with the interval between two polls in
+     * seconds.
+     */
+    public static final String INTERVAL_PROPERTY = "contactmanager.sync.interval";
+
+    private static final int DEFAULT_INTERVAL = 5;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "contactmanager-sync");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final List<Source<?>> sources = new ArrayList<>();
+
+    /**
+     * Creates a new ChangePoller for {@link Company}, {@link Division} and
+     * {@link Staffer} entities.
+     */
+    public ChangePoller() {
+        this.sources.add(new Source<>(Company.class, new CompanyDao(), Company::getId, Company::getUpdatedAt));
+        this.sources.add(new Source<>(Division.class, new DivisionDao(), Division::getId, Division::getUpdatedAt));
+        this.sources.add(new Source<>(Staffer.class, new StafferDao(), Staffer::getId, Staffer::getUpdatedAt));
+    }
+
+    /**
+     * Starts polling with the interval of the system property
+     * {@value #INTERVAL_PROPERTY}. The first poll only reads the current time
+     * of the database, the following ones ask for the changes since then.
+     */
+    public void start() {
+        long interval = Long.getLong(INTERVAL_PROPERTY, DEFAULT_INTERVAL);
+        if (interval <= 0) {
+            L.info("Polling for changes is disabled");
+            return;
+        }
+        L.info("Polling for changes every {} s", interval);
+        this.scheduler.execute(this::poll);
+        this.scheduler.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops polling. A running poll is finished.
+     */
+    public void stop() {
+        this.scheduler.shutdown();
+    }
+
+    /**
+     * Polls every source. An exception is logged and the next poll tries
+     * again from the same point in time.
+     */
+    private void poll() {
+        for (Source<?> source : this.sources) {
+            try {
+                source.poll();
+            } catch (RuntimeException e) {
+                L.info("Catching [{}] in [{}]", e.toString(), ChangePoller.class.getSimpleName());
+            }
+        }
+    }
+
+    /**
+     * Entity class to poll for, together with its DAO and the changes which
+     * were published already. Only used by the polling thread.
+     *
+     * @param <T> type of the entities
+     */
+    private static class Source<T> {
+
+        private final Class<T> entityClass;
+
+        private final Dao<T> dao;
+
+        private final ToLongFunction<T> idOf;
+
+        private final Function<T, Instant> updatedAt;
+
+        /**
+         * The last-modified times of the published changes by id.
+         */
+        private final Map<Long, Instant> updated = new HashMap<>();
+
+        /**
+         * The points in time of the polls which published removals by id.
+         */
+        private final Map<Long, Instant> removed = new HashMap<>();
+
+        private Instant since;
+
+        private Source(Class<T> entityClass, Dao<T> dao, ToLongFunction<T> idOf, Function<T, Instant> updatedAt) {
+            this.entityClass = entityClass;
+            this.dao = new MeteredDao<>(entityClass, new RecordedDao<>(entityClass, dao));
+            this.idOf = idOf;
+            this.updatedAt = updatedAt;
+        }
+
+        private void poll() {
+            if (this.since == null) {
+                this.since = UnitOfWork.read(ChangeTracking::currentTime);
+                return;
+            }
+            ChangeSet<T> changes = this.dao.findModifiedSince(this.since);
+            this.since = changes.getNextSince();
+            List<ChangeEvent> events = new ArrayList<>();
+            for (T entity : changes.getModified()) {
+                long id = this.idOf.applyAsLong(entity);
+                Instant time = this.updatedAt.apply(entity);
+                if (!time.equals(this.updated.put(id, time))) {
+                    events.add(ChangeEvent.updated(this.entityClass, id));
+                }
+            }
+            for (Long id : changes.getRemovedIds()) {
+                if (this.removed.putIfAbsent(id, this.since) == null) {
+                    events.add(ChangeEvent.removed(this.entityClass, id));
+                }
+            }
+            Instant horizon = ChangeTracking.lowerBound(this.since);
+            this.updated.values().removeIf(time -> time.isBefore(horizon));
+            this.removed.values().removeIf(time -> time.isBefore(horizon));
+            if (events.isEmpty()) {
+                return;
+            }
+            List<Long> ids = new ArrayList<>();
+            events.forEach(event -> ids.add(event.getId()));
+            HibernateUtils.evict(this.entityClass, ids);
+            events.forEach(ChangeEvents::publish);
+        }
+    }
+
+}
@@ -1,20 +1,40 @@
 package de.mcdb.contactmanagerdesktop.dao;
 
 import ch.qos.logback.classic.Logger;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPADeleteClause;
 import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import de.mcdb.contactmanagerapi.ChangeEvent;
+import de.mcdb.contactmanagerapi.ChangeSet;
+import de.mcdb.contactmanagerapi.ChangeTracking;
+import de.mcdb.contactmanagerapi.CursorStreams;
 import de.mcdb.contactmanagerapi.Dao;
+import de.mcdb.contactmanagerapi.IdQueries;
+import de.mcdb.contactmanagerapi.RemovalPolicy;
 import de.mcdb.contactmanagerapi.datamodel.Company;
 import de.mcdb.contactmanagerapi.datamodel.Division;
 import static de.mcdb.contactmanagerapi.datamodel.QCompany.company;
+import static de.mcdb.contactmanagerapi.datamodel.QDivision.division;
+import static de.mcdb.contactmanagerapi.datamodel.QStaffer.staffer;
+import static de.mcdb.contactmanagerapi.datamodel.QTombstone.tombstone;
 import de.mcdb.contactmanagerapi.datamodel.Staffer;
-import java.util.ArrayList;
+import de.mcdb.contactmanagerapi.datamodel.Tombstone;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
+import org.hibernate.jpa.QueryHints;
 import org.slf4j.LoggerFactory;
 
 /**
  * Data access object to interact with {@link Company} entities.
+ * <p>
+ * Every committed change is published as {@link ChangeEvent} through
+ * {@link ChangeEvents}.
  *
  * @author Mirko
  */
@@ -23,81 +43,192 @@ public class CompanyDao implements Dao<Company> {
 
     private static final Logger L = (Logger) LoggerFactory.getLogger(CompanyDao.class);
 
-    private final EntityManager em = HibernateUtils.getEntityManager();
-
+    /**
+     * The result is held in the query cache region
+     * {@value Dao#FIND_ALL_CACHE_REGION} and the Company<code>s</code> in the
+     * second-level cache, both are invalidated by every write to the table.
+     */
     @Override
     public List<Company> findAll() {
         L.info("Quering for all [{}] entities", Company.class.getSimpleName());
-        return new JPAQuery<>(em).select(company).from(company).fetch();
+        return UnitOfWork.read(em -> new JPAQuery<>(em).select(company).from(company)
+                .setHint(QueryHints.HINT_CACHEABLE, true)
+                .setHint(QueryHints.HINT_CACHE_REGION, FIND_ALL_CACHE_REGION)
+                .fetch());
+    }
+
+    @Override
+    public List<Company> findAll(String graph) {
+        L.info("Quering for all [{}] entities with graph {}", Company.class.getSimpleName(), graph);
+        return UnitOfWork.read(em -> new JPAQuery<>(em).select(company).from(company).distinct()
+                .setHint(LOAD_GRAPH, em.getEntityGraph(graph))
+                .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                .fetch());
+    }
+
+    @Override
+    public List<Company> findPage(long afterId, int limit) {
+        L.info("Quering for [{}] entities after ID {}, limit {}", Company.class.getSimpleName(), afterId, limit);
+        return UnitOfWork.read(em -> new JPAQuery<>(em).select(company).from(company)
+                .where(company.id.gt(afterId))
+                .orderBy(company.id.asc())
+                .limit(limit)
+                .fetch());
+    }
+
+    @Override
+    public long count() {
+        L.info("Counting all [{}] entities", Company.class.getSimpleName());
+        return UnitOfWork.read(em -> new JPAQuery<>(em).select(company).from(company).fetchCount());
+    }
+
+    @Override
+    public ChangeSet<Company> findModifiedSince(Instant since) {
+        L.info("Quering for [{}] entities modified since {}", Company.class.getSimpleName(), since);
+        Instant from = ChangeTracking.lowerBound(since);
+        return UnitOfWork.read(em -> ChangeSet.of(since,
+                new JPAQuery<>(em).select(company).from(company)
+                        .where(company.updatedAt.gt(from))
+                        .orderBy(company.updatedAt.asc())
+                        .fetch(),
+                Company::getUpdatedAt,
+                new JPAQuery<>(em).select(tombstone).from(tombstone)
+                        .where(tombstone.entityType.eq(Tombstone.typeOf(Company.class)), tombstone.removedAt.gt(from))
+                        .fetch()));
+    }
+
+    /**
+     * Uses a new {@link EntityManager} which is closed together with the
+     * returned {@link Stream}.
+     */
+    @Override
+    public Stream<Company> stream(int fetchSize) {
+        L.info("Streaming all [{}] entities, fetch size {}", Company.class.getSimpleName(), fetchSize);
+        EntityManager streamEm = HibernateUtils.getEntityManager();
+        return CursorStreams.stream(streamEm, new JPAQuery<>(streamEm).select(company).from(company)
+                .orderBy(company.id.asc()), fetchSize);
     }
 
     @Override
     public Company findById(long id) {
         L.info("Quering for [{}] with ID {}", Company.class.getSimpleName(), id);
-        return em.find(Company.class, id);
+        return UnitOfWork.read(em -> em.find(Company.class, id));
+    }
+
+    @Override
+    public Company findById(long id, String graph) {
+        L.info("Quering for [{}] with ID {} and graph {}", Company.class.getSimpleName(), id, graph);
+        return UnitOfWork.read(em -> em.find(Company.class, id, Collections.singletonMap(LOAD_GRAPH, em.getEntityGraph(graph))));
+    }
+
+    @Override
+    public List<Company> findByIds(Collection<Long> ids, String graph) {
+        L.info("Quering for {} [{}] entities by ID with graph {}", ids.size(), Company.class.getSimpleName(), graph);
+        return UnitOfWork.read(em -> IdQueries.queryByIds(em, company, company.id, ids, graph));
     }
 
     @Override
     public void persist(Company entity) {
         L.info("Persisting [{}] {}", Company.class.getSimpleName(), entity.toSimpleLine());
-        em.getTransaction().begin();
-        em.persist(entity);
-        L.info("[{}] {} persisted", Company.class.getSimpleName(), entity.toSimpleLine());
-        em.getTransaction().commit();
+        UnitOfWork.run(em -> {
+            em.persist(entity);
+            UnitOfWork.publish(ChangeEvent.created(Company.class, entity.getId()));
+            L.info("[{}] {} persisted", Company.class.getSimpleName(), entity.toSimpleLine());
+        });
     }
 
     @Override
-    public void update(long id, Company entity) {
-        L.info("Updating [{}] with id {}", Division.class.getSimpleName(), id);
-        em.getTransaction().begin();
-
-        Company company = em.find(Company.class, id);
+    public void persistAll(Collection<Company> entities) {
+        L.info("Persisting {} [{}] entities", entities.size(), Company.class.getSimpleName());
+        int batchSize = HibernateUtils.getBatchSize();
+        int count = UnitOfWork.write(em -> {
+            int persisted = 0;
+            for (Company entity : entities) {
+                em.persist(entity);
+                if (++persisted % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            UnitOfWork.publish(ChangeEvent.invalidated(Company.class));
+            return persisted;
+        });
+        L.info("{} [{}] entities persisted", count, Company.class.getSimpleName());
+    }
 
-        company.setName(entity.getName());
+    @Override
+    public void update(long id, Company entity) {
+        L.info("Updating [{}] with id {}", Company.class.getSimpleName(), id);
+        UnitOfWork.run(em -> {
+            Company company = em.find(Company.class, id);
 
-        em.getTransaction().commit();
+            company.setName(entity.getName());
 
-        L.info("[{}] {} updated", Company.class.getSimpleName(), company.toSimpleLine());
+            UnitOfWork.publish(ChangeEvent.updated(Company.class, id));
+            L.info("[{}] {} updated", Company.class.getSimpleName(), company.toSimpleLine());
+        });
     }
 
+    /**
+     * Calls {@link #remove(long, RemovalPolicy)} with
+     * {@link RemovalPolicy#ORPHAN}.
+     *
+     * @param id id of the wanted entity
+     */
     @Override
     public void remove(long id) {
-        L.info("Removing [{}] with id {}", Company.class.getSimpleName(), id);
-        em.getTransaction().begin();
-
-        Company company = em.find(Company.class, id);
-
-        if (company.getDivisions() != null && !company.getDivisions().isEmpty()) {
-            List<Division> divisions = new ArrayList<>();
-            divisions.addAll(company.getDivisions());
-            for (Division division : divisions) {
-                division = em.find(Division.class, division.getId());
-                company.removeDivision(division);
-                L.info("[{}] {} removed from [{}] {}", Staffer.class.getSimpleName(), division.toSimpleLine(), Company.class.getSimpleName(), company.toSimpleLine());
-            }
-        }
+        remove(id, RemovalPolicy.ORPHAN);
+    }
 
-        em.remove(company);
-        em.getTransaction().commit();
-        L.info("[{}] {} removed", Company.class.getSimpleName(), company.toSimpleLine());
+    /**
+     * Removes the {@link Company} with the submitted id and handles its
+     * {@link Division}<code>s</code> according to the submitted
+     * {@link RemovalPolicy} with a few set-based statements:
+     * <ul><li>{@link RemovalPolicy#ORPHAN}: the Divisions are kept without a
+     * Company</li>
+     * <li>{@link RemovalPolicy#CASCADE}: the Divisions and their
+     * {@link Staffer}<code>s</code> are removed as well</li></ul>
+     * <p>
+     * The bulk statements bypass the persistence context, so it is cleared
+     * afterwards to drop the removed and changed entities.
+     *
+     * @param id id of the wanted entity
+     * @param policy the {@link RemovalPolicy} for the Divisions of the Company
+     */
+    public void remove(long id, RemovalPolicy policy) {
+        L.info("Removing [{}] with id {}, policy {}", Company.class.getSimpleName(), id, policy);
+        UnitOfWork.run(em -> {
+            if (policy == RemovalPolicy.CASCADE) {
+                ChangeTracking.recordTombstones(em, Staffer.class,
+                        "e.division.id in (select d.id from Division d where d.company.id = :id)", id);
+                ChangeTracking.recordTombstones(em, Division.class, "e.company.id = :id", id);
+                long staffers = new JPADeleteClause(em, staffer)
+                        .where(staffer.division.id.in(JPAExpressions.select(division.id).from(division)
+                                .where(division.company.id.eq(id))))
+                        .execute();
+                long divisions = new JPADeleteClause(em, division).where(division.company.id.eq(id)).execute();
+                L.info("{} [{}] and {} [{}] removed", divisions, Division.class.getSimpleName(), staffers, Staffer.class.getSimpleName());
+            } else {
+                long divisions = new JPAUpdateClause(em, division).setNull(division.company)
+                        .where(division.company.id.eq(id))
+                        .execute();
+                L.info("{} [{}] removed from [{}] with id {}", divisions, Division.class.getSimpleName(), Company.class.getSimpleName(), id);
+            }
+            ChangeTracking.recordTombstones(em, Company.class, "e.id = :id", id);
+            new JPADeleteClause(em, company).where(company.id.eq(id)).execute();
+            em.clear();
+            UnitOfWork.publish(ChangeEvent.removed(Company.class, id));
+        });
+        L.info("[{}] with id {} removed", Company.class.getSimpleName(), id);
     }
 
     /**
-     * Closes the {@link EntityManager} for this instance.
+     * Does nothing but logging, the {@link EntityManager}<code>s</code> are
+     * closed by their {@link UnitOfWork}.
      */
     @Override
     public void destroy() {
-        L.info("Destroying [{}]", CompanyDao.class.getSimpleName());
-        if (this.em != null && this.em.isOpen()) {
-            if (this.em.getTransaction().isActive()) {
-                L.info("Clearing [{}]", EntityManager.class.getSimpleName());
-                this.em.clear();
-            }
-            L.info("Closing [{}]", EntityManager.class.getSimpleName());
-            this.em.close();
-        }
         L.info("[{}] destroyed", CompanyDao.class.getSimpleName());
-
     }
 
 }
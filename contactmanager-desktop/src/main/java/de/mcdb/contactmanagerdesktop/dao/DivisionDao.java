@@ -1,20 +1,38 @@
 package de.mcdb.contactmanagerdesktop.dao;
 
 import ch.qos.logback.classic.Logger;
+import com.querydsl.jpa.impl.JPADeleteClause;
 import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import de.mcdb.contactmanagerapi.ChangeEvent;
+import de.mcdb.contactmanagerapi.ChangeSet;
+import de.mcdb.contactmanagerapi.ChangeTracking;
+import de.mcdb.contactmanagerapi.CursorStreams;
 import de.mcdb.contactmanagerapi.Dao;
+import de.mcdb.contactmanagerapi.IdQueries;
+import de.mcdb.contactmanagerapi.RemovalPolicy;
 import de.mcdb.contactmanagerapi.datamodel.Company;
 import de.mcdb.contactmanagerapi.datamodel.Division;
 import static de.mcdb.contactmanagerapi.datamodel.QDivision.division;
+import static de.mcdb.contactmanagerapi.datamodel.QStaffer.staffer;
+import static de.mcdb.contactmanagerapi.datamodel.QTombstone.tombstone;
 import de.mcdb.contactmanagerapi.datamodel.Staffer;
-import java.util.ArrayList;
+import de.mcdb.contactmanagerapi.datamodel.Tombstone;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
+import org.hibernate.jpa.QueryHints;
 import org.slf4j.LoggerFactory;
 
 /**
  * Data access object to interact with {@link Division} entities.
+ * <p>
+ * Every committed change is published as {@link ChangeEvent} through
+ * {@link ChangeEvents}.
  *
  * @author Mirko
  */
@@ -23,99 +41,202 @@ public class DivisionDao implements Dao<Division> {
 
     private static final Logger L = (Logger) LoggerFactory.getLogger(DivisionDao.class);
 
-    private final EntityManager em = HibernateUtils.getEntityManager();
-
+    /**
+     * The result is held in the query cache region
+     * {@value Dao#FIND_ALL_CACHE_REGION} and the Division<code>s</code> in the
+     * second-level cache, both are invalidated by every write to the table.
+     */
     @Override
     public List<Division> findAll() {
         L.info("Quering for all [{}] entities", Division.class.getSimpleName());
-        return new JPAQuery<>(em).select(division).from(division).fetch();
+        return UnitOfWork.read(em -> new JPAQuery<>(em).select(division).from(division)
+                .setHint(QueryHints.HINT_CACHEABLE, true)
+                .setHint(QueryHints.HINT_CACHE_REGION, FIND_ALL_CACHE_REGION)
+                .fetch());
+    }
+
+    @Override
+    public List<Division> findAll(String graph) {
+        L.info("Quering for all [{}] entities with graph {}", Division.class.getSimpleName(), graph);
+        return UnitOfWork.read(em -> new JPAQuery<>(em).select(division).from(division).distinct()
+                .setHint(LOAD_GRAPH, em.getEntityGraph(graph))
+                .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                .fetch());
+    }
+
+    @Override
+    public List<Division> findPage(long afterId, int limit) {
+        L.info("Quering for [{}] entities after ID {}, limit {}", Division.class.getSimpleName(), afterId, limit);
+        return UnitOfWork.read(em -> new JPAQuery<>(em).select(division).from(division)
+                .where(division.id.gt(afterId))
+                .orderBy(division.id.asc())
+                .limit(limit)
+                .fetch());
+    }
+
+    @Override
+    public long count() {
+        L.info("Counting all [{}] entities", Division.class.getSimpleName());
+        return UnitOfWork.read(em -> new JPAQuery<>(em).select(division).from(division).fetchCount());
+    }
+
+    /**
+     * The Divisions are loaded with the entity graph {@link Division#WITH_COMPANY}.
+     */
+    @Override
+    public ChangeSet<Division> findModifiedSince(Instant since) {
+        L.info("Quering for [{}] entities modified since {}", Division.class.getSimpleName(), since);
+        Instant from = ChangeTracking.lowerBound(since);
+        return UnitOfWork.read(em -> ChangeSet.of(since,
+                new JPAQuery<>(em).select(division).from(division)
+                        .where(division.updatedAt.gt(from))
+                        .setHint(LOAD_GRAPH, em.getEntityGraph(Division.WITH_COMPANY))
+                        .orderBy(division.updatedAt.asc())
+                        .fetch(),
+                Division::getUpdatedAt,
+                new JPAQuery<>(em).select(tombstone).from(tombstone)
+                        .where(tombstone.entityType.eq(Tombstone.typeOf(Division.class)), tombstone.removedAt.gt(from))
+                        .fetch()));
+    }
+
+    /**
+     * Uses a new {@link EntityManager} which is closed together with the
+     * returned {@link Stream}.
+     */
+    @Override
+    public Stream<Division> stream(int fetchSize) {
+        L.info("Streaming all [{}] entities, fetch size {}", Division.class.getSimpleName(), fetchSize);
+        EntityManager streamEm = HibernateUtils.getEntityManager();
+        return CursorStreams.stream(streamEm, new JPAQuery<>(streamEm).select(division).from(division)
+                .orderBy(division.id.asc()), fetchSize);
     }
 
     @Override
     public Division findById(long id) {
         L.info("Quering for [{}] with ID {}", Division.class.getSimpleName(), id);
-        return em.find(Division.class, id);
+        return UnitOfWork.read(em -> em.find(Division.class, id));
+    }
+
+    @Override
+    public Division findById(long id, String graph) {
+        L.info("Quering for [{}] with ID {} and graph {}", Division.class.getSimpleName(), id, graph);
+        return UnitOfWork.read(em -> em.find(Division.class, id, Collections.singletonMap(LOAD_GRAPH, em.getEntityGraph(graph))));
+    }
+
+    @Override
+    public List<Division> findByIds(Collection<Long> ids, String graph) {
+        L.info("Quering for {} [{}] entities by ID with graph {}", ids.size(), Division.class.getSimpleName(), graph);
+        return UnitOfWork.read(em -> IdQueries.queryByIds(em, division, division.id, ids, graph));
     }
 
     @Override
     public void persist(Division entity) {
         L.info("Persisting [{}] {}", Division.class.getSimpleName(), entity.toSimpleLine());
-        em.getTransaction().begin();
-        if (entity.getCompany() != null) {
-            Company company = em.find(Company.class, entity.getCompany().getId());
-            company.addDivision(entity);
-            L.info("[{}] {} added to [{}] {}", Division.class.getSimpleName(), entity.toSimpleLine(), Company.class.getSimpleName(), company.toSimpleLine());
-        }
-        em.persist(entity);
-        L.info("[{}] {} persisted", Division.class.getSimpleName(), entity.toSimpleLine());
-        em.getTransaction().commit();
+        UnitOfWork.run(em -> {
+            if (entity.getCompany() != null) {
+                Company company = em.find(Company.class, entity.getCompany().getId());
+                company.addDivision(entity);
+                L.info("[{}] {} added to [{}] {}", Division.class.getSimpleName(), entity.toSimpleLine(), Company.class.getSimpleName(), company.toSimpleLine());
+            }
+            em.persist(entity);
+            UnitOfWork.publish(ChangeEvent.created(Division.class, entity.getId()));
+            L.info("[{}] {} persisted", Division.class.getSimpleName(), entity.toSimpleLine());
+        });
+    }
+
+    @Override
+    public void persistAll(Collection<Division> entities) {
+        L.info("Persisting {} [{}] entities", entities.size(), Division.class.getSimpleName());
+        int batchSize = HibernateUtils.getBatchSize();
+        int count = UnitOfWork.write(em -> {
+            int persisted = 0;
+            for (Division entity : entities) {
+                em.persist(entity);
+                if (++persisted % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            UnitOfWork.publish(ChangeEvent.invalidated(Division.class));
+            return persisted;
+        });
+        L.info("{} [{}] entities persisted", count, Division.class.getSimpleName());
     }
 
     @Override
     public void update(long id, Division entity) {
         L.info("Updating [{}] with id {}", Division.class.getSimpleName(), id);
-        em.getTransaction().begin();
-
-        Division division = em.find(Division.class, id);
+        UnitOfWork.run(em -> {
+            Division division = em.find(Division.class, id);
 
-        if (entity.getCompany() != null) {
-            Company company = em.find(Company.class, entity.getCompany().getId());
+            if (entity.getCompany() != null) {
+                Company company = em.find(Company.class, entity.getCompany().getId());
 
-            division.setName(entity.getName());
-            division.setStaffers(entity.getStaffers());
-            company.addDivision(division);
-            L.info("[{}] {} added to [{}] {}", Division.class.getSimpleName(), division.toSimpleLine(), Company.class.getSimpleName(), company.toSimpleLine());
-        }
-
-        em.getTransaction().commit();
+                division.setName(entity.getName());
+                division.setStaffers(entity.getStaffers());
+                company.addDivision(division);
+                L.info("[{}] {} added to [{}] {}", Division.class.getSimpleName(), division.toSimpleLine(), Company.class.getSimpleName(), company.toSimpleLine());
+            }
 
-        L.info("[{}] {} updated", Division.class.getSimpleName(), division.toSimpleLine());
+            UnitOfWork.publish(ChangeEvent.updated(Division.class, id));
+            L.info("[{}] {} updated", Division.class.getSimpleName(), division.toSimpleLine());
+        });
     }
 
+    /**
+     * Calls {@link #remove(long, RemovalPolicy)} with
+     * {@link RemovalPolicy#ORPHAN}.
+     *
+     * @param id id of the wanted entity
+     */
     @Override
     public void remove(long id) {
-        L.info("Removing [{}] with id {}", Division.class.getSimpleName(), id);
-
-        em.getTransaction().begin();
-        Division division = em.find(Division.class, id);
-
-        if (division.getCompany() != null) {
-            Company company = em.find(Company.class, division.getCompany().getId());
-            company.removeDivision(division);
-            L.info("[{}] {} removed from [{}] {}", Staffer.class.getSimpleName(), division.toSimpleLine(), Company.class.getSimpleName(), company.toSimpleLine());
-        }
-
-        if (division.getStaffers() != null && !division.getStaffers().isEmpty()) {
-            List<Staffer> staffers = new ArrayList<>();
-            staffers.addAll(division.getStaffers());
-            for (Staffer staffer : staffers) {
-                staffer = em.find(Staffer.class, staffer.getId());
-                division.removeStaffer(staffer);
-                L.info("[{}] {} removed from [{}] {}", Staffer.class.getSimpleName(), staffer.toSimpleLine(), Division.class.getSimpleName(), division.toSimpleLine());
-            }
-        }
+        remove(id, RemovalPolicy.ORPHAN);
+    }
 
-        em.remove(division);
-        em.getTransaction().commit();
-        L.info("[{}] {} removed", Division.class.getSimpleName(), division.toSimpleLine());
+    /**
+     * Removes the {@link Division} with the submitted id and handles its
+     * {@link Staffer}<code>s</code> according to the submitted
+     * {@link RemovalPolicy} with a few set-based statements:
+     * <ul><li>{@link RemovalPolicy#ORPHAN}: the Staffers are kept without a
+     * Division</li>
+     * <li>{@link RemovalPolicy#CASCADE}: the Staffers are removed as
+     * well</li></ul>
+     * <p>
+     * The bulk statements bypass the persistence context, so it is cleared
+     * afterwards to drop the removed and changed entities.
+     *
+     * @param id id of the wanted entity
+     * @param policy the {@link RemovalPolicy} for the Staffers of the Division
+     */
+    public void remove(long id, RemovalPolicy policy) {
+        L.info("Removing [{}] with id {}, policy {}", Division.class.getSimpleName(), id, policy);
+        UnitOfWork.run(em -> {
+            if (policy == RemovalPolicy.CASCADE) {
+                ChangeTracking.recordTombstones(em, Staffer.class, "e.division.id = :id", id);
+                long staffers = new JPADeleteClause(em, staffer).where(staffer.division.id.eq(id)).execute();
+                L.info("{} [{}] removed", staffers, Staffer.class.getSimpleName());
+            } else {
+                long staffers = new JPAUpdateClause(em, staffer).setNull(staffer.division)
+                        .where(staffer.division.id.eq(id))
+                        .execute();
+                L.info("{} [{}] removed from [{}] with id {}", staffers, Staffer.class.getSimpleName(), Division.class.getSimpleName(), id);
+            }
+            ChangeTracking.recordTombstones(em, Division.class, "e.id = :id", id);
+            new JPADeleteClause(em, division).where(division.id.eq(id)).execute();
+            em.clear();
+            UnitOfWork.publish(ChangeEvent.removed(Division.class, id));
+        });
+        L.info("[{}] with id {} removed", Division.class.getSimpleName(), id);
     }
 
     /**
-     * Closes the {@link EntityManager} for this instance.
+     * Does nothing but logging, the {@link EntityManager}<code>s</code> are
+     * closed by their {@link UnitOfWork}.
      */
     @Override
     public void destroy() {
-        L.info("Destroying [{}]", DivisionDao.class.getSimpleName());
-        if (this.em != null && this.em.isOpen()) {
-            if (this.em.getTransaction().isActive()) {
-                L.info("Clearing [{}]", EntityManager.class.getSimpleName());
-                this.em.clear();
-            }
-            L.info("Closing [{}]", EntityManager.class.getSimpleName());
-            this.em.close();
-        }
         L.info("[{}] destroyed", DivisionDao.class.getSimpleName());
-
     }
 
 }
@@ -1,13 +1,33 @@
 package de.mcdb.contactmanagerdesktop.dao;
 
 import ch.qos.logback.classic.Logger;
+import de.mcdb.contactmanagerapi.ConnectionPoolSettings;
+import de.mcdb.contactmanagerdesktop.jfr.RecordingSessionListener;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
+import javax.sql.DataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
 import org.slf4j.LoggerFactory;
 
 /**
  * Class with static methods to interact with the Hibernate framework.
+ * <p>
+ * The {@link EntityManagerFactory} gets its connections from a HikariCP
+ * connection pool configured by {@link ConnectionPoolSettings}. JDBC calls
+ * and flushes of every session are recorded for the Java Flight Recorder by a
+ * {@link RecordingSessionListener}.
+ * <p>
+ * The EntityManagerFactory is bootstrapped with the first call of
+ * {@link #bootstrap()} or of any method which needs it, so the application
+ * may bootstrap it in the background while it loads its views.
  *
  * @author Mirko Schulze
  */
@@ -17,7 +37,67 @@ public class HibernateUtils {
 
     private static final String PERSISTENCE_UNIT = "ContactManagerDesktopPU";
 
-    private static final EntityManagerFactory EMF = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT);
+    private static final int DEFAULT_BATCH_SIZE = 50;
+
+    private static final int DEFAULT_MINIMUM_IDLE = 1;
+
+    private static final String MINIMUM_IDLE = "hibernate.hikari.minimumIdle";
+
+    private static final Map<String, String> OVERRIDES = new HashMap<>();
+
+    private static volatile EntityManagerFactory emf;
+
+    /**
+     * Returns the settings of the connection pool with the overrides of
+     * {@link #configure(String, String)}, and registers a
+     * {@link RecordingSessionListener} for every session unless another
+     * listener is configured.
+     */
+    private static Map<String, String> settings() {
+        Map<String, String> settings = ConnectionPoolSettings.load();
+        settings.putIfAbsent(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, RecordingSessionListener.class.getName());
+        settings.putAll(OVERRIDES);
+        return settings;
+    }
+
+    /**
+     * Sets the user name and password the {@link EntityManagerFactory}
+     * connects with, instead of the values of the persistence.xml. Has to be
+     * called before the EntityManagerFactory is bootstrapped.
+     *
+     * @param user value for javax.persistence.jdbc.user
+     * @param password value for javax.persistence.jdbc.password
+     * @throws IllegalStateException if the EntityManagerFactory was
+     * bootstrapped already
+     */
+    public static synchronized void configure(String user, String password) {
+        if (emf != null) {
+            throw new IllegalStateException("EntityManagerFactory is bootstrapped already");
+        }
+        OVERRIDES.put(AvailableSettings.JPA_JDBC_USER, user);
+        OVERRIDES.put(AvailableSettings.JPA_JDBC_PASSWORD, password);
+    }
+
+    /**
+     * Bootstraps the {@link EntityManagerFactory} unless it exists already.
+     * Threads which call this method meanwhile wait for the running
+     * bootstrap.
+     */
+    public static synchronized void bootstrap() {
+        if (emf == null) {
+            L.info("Bootstrapping [{}]", EntityManagerFactory.class.getSimpleName());
+            emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT, settings());
+        }
+    }
+
+    private static EntityManagerFactory emf() {
+        EntityManagerFactory factory = emf;
+        if (factory == null) {
+            bootstrap();
+            factory = emf;
+        }
+        return factory;
+    }
 
     /**
      * Creates and returns a new {@link EntityManager}.
@@ -25,16 +105,94 @@ public class HibernateUtils {
      * @return EntityManager - a new {@link EntityManager}
      */
     public static EntityManager getEntityManager() {
-        return EMF.createEntityManager();
+        return emf().createEntityManager();
+    }
+
+    /**
+     * Returns the pooled {@link DataSource} the {@link EntityManagerFactory}
+     * gets its connections from, to run plain JDBC statements on the same
+     * connection pool.
+     *
+     * @return DataSource - the pooled DataSource
+     */
+    public static DataSource getDataSource() {
+        return emf().unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+                .getService(ConnectionProvider.class).unwrap(DataSource.class);
+    }
+
+    /**
+     * Returns the JDBC batch size configured with the hibernate.jdbc.batch_size
+     * property of the persistence unit, or 50 if it is not set.
+     *
+     * @return int - the JDBC batch size
+     */
+    public static int getBatchSize() {
+        Object batchSize = emf().getProperties().get(AvailableSettings.STATEMENT_BATCH_SIZE);
+        return batchSize != null ? Integer.parseInt(batchSize.toString()) : DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Returns the number of idle connections the connection pool keeps,
+     * configured with the hibernate.hikari.minimumIdle property, or 1 if it
+     * is not set.
+     *
+     * @return int - the minimum number of idle connections
+     */
+    public static int getMinimumIdle() {
+        Object minimumIdle = emf().getProperties().get(MINIMUM_IDLE);
+        return minimumIdle != null ? Integer.parseInt(minimumIdle.toString()) : DEFAULT_MINIMUM_IDLE;
+    }
+
+    /**
+     * Returns the {@link Statistics} of the {@link EntityManagerFactory}, e.g.
+     * the hit and miss counts of the second-level and the query cache.
+     *
+     * @return Statistics - the statistics of the EntityManagerFactory
+     */
+    public static Statistics getStatistics() {
+        return emf().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Evicts all entities, collections and query results from the
+     * second-level cache. To be called after the database was changed without
+     * Hibernate, e.g. with plain JDBC.
+     */
+    public static void evictCaches() {
+        L.info("Evicting second-level cache");
+        EntityManagerFactory factory = emf();
+        factory.getCache().evictAll();
+        factory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    /**
+     * Evicts the entities of the submitted class with the submitted ids, all
+     * collections and all query results from the second-level cache. To be
+     * called for entities which were changed by another application.
+     *
+     * @param entityClass the class of the changed entities
+     * @param ids the ids of the changed entities
+     */
+    public static void evict(Class<?> entityClass, Collection<Long> ids) {
+        L.info("Evicting {} [{}] entities from second-level cache", ids.size(), entityClass.getSimpleName());
+        EntityManagerFactory factory = emf();
+        ids.forEach(id -> factory.getCache().evict(entityClass, id));
+        org.hibernate.Cache cache = factory.unwrap(SessionFactory.class).getCache();
+        cache.evictCollectionData();
+        cache.evictQueryRegions();
     }
 
     /**
-     * Shuts down the {@link EntityManagerFactory}.
+     * Shuts down the {@link EntityManagerFactory}, if it was bootstrapped.
      */
-    public static void shutdown() {
-        if (EMF != null && EMF.isOpen()) {
+    public static synchronized void shutdown() {
+        if (emf != null && emf.isOpen()) {
+            Statistics statistics = getStatistics();
+            L.info("Second-level cache: {} hits, {} misses, query cache: {} hits, {} misses",
+                    statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+                    statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount());
             L.info("Closing [{}]", EntityManagerFactory.class.getSimpleName());
-            EMF.close();
+            emf.close();
         }
     }
 
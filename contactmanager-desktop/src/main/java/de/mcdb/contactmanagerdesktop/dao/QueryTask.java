@@ -0,0 +1,203 @@
+package de.mcdb.contactmanagerdesktop.dao;
+
+import ch.qos.logback.classic.Logger;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plain JDBC statement which can be cancelled from another thread.
+ * <p>
+ * The statement runs on a {@link Connection} of the connection pool, with a
+ * query timeout and a fetch size which are read from the system properties
+ * {@value #FETCH_SIZE_PROPERTY} and {@value #TIMEOUT_PROPERTY}. Rows of a
+ * query are handed out in chunks while the {@link ResultSet} is read, so the
+ * first rows are available before the last ones are fetched.
+ *
+ * @author Mirko Schulze
+ */
+public class QueryTask {
+
+    private static final Logger L = (Logger) LoggerFactory.getLogger(QueryTask.class);
+
+    /**
+     * System property with the number of rows to fetch per JDBC round-trip,
+     * which is also the size of the chunks handed out.
+     */
+    public static final String FETCH_SIZE_PROPERTY = "contactmanager.query.fetch_size";
+
+    /**
+     * System property with the query timeout in seconds, 0 means no timeout.
+     */
+    public static final String TIMEOUT_PROPERTY = "contactmanager.query.timeout";
+
+    public static final int DEFAULT_FETCH_SIZE = 200;
+
+    public static final int DEFAULT_TIMEOUT = 30;
+
+    /**
+     * Maps the current row of a {@link ResultSet} to a String.
+     */
+    @FunctionalInterface
+    public interface RowMapper {
+
+        /**
+         * Maps the current row of the submitted {@link ResultSet}.
+         *
+         * @param rs the ResultSet positioned on the row to map
+         * @return String - the mapped row
+         * @throws SQLException if a column can not be read
+         */
+        String map(ResultSet rs) throws SQLException;
+    }
+
+    private final String sql;
+
+    private final int fetchSize;
+
+    private final int timeout;
+
+    private volatile Statement statement;
+
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a new QueryTask for the submitted SQL String with the fetch size
+     * and timeout from the system properties.
+     *
+     * @param sql the SQL String to execute
+     */
+    public QueryTask(String sql) {
+        this(sql, Integer.getInteger(FETCH_SIZE_PROPERTY, DEFAULT_FETCH_SIZE),
+                Integer.getInteger(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT));
+    }
+
+    /**
+     * Creates a new QueryTask for the submitted SQL String.
+     *
+     * @param sql the SQL String to execute
+     * @param fetchSize number of rows to fetch per JDBC round-trip and to hand
+     * out per chunk
+     * @param timeout query timeout in seconds, 0 means no timeout
+     */
+    public QueryTask(String sql, int fetchSize, int timeout) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("fetchSize must be >= 1, was " + fetchSize);
+        }
+        this.sql = sql;
+        this.fetchSize = fetchSize;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Executes the SQL String as query and hands the rows, mapped with the
+     * submitted {@link RowMapper}, in chunks of at most fetch size rows to the
+     * submitted {@link Consumer}.
+     * <p>
+     * Returns normally with the number of rows read so far if the task is
+     * cancelled.
+     *
+     * @param mapper the RowMapper to map each row
+     * @param chunks the Consumer for the chunks of mapped rows
+     * @return long - the number of rows read
+     * @throws SQLException if the query fails or times out
+     */
+    public long query(RowMapper mapper, Consumer<List<String>> chunks) throws SQLException {
+        L.info("Executing query [{}], fetch size {}, timeout {}s", this.sql, this.fetchSize, this.timeout);
+        long count = 0;
+        try (Connection connection = HibernateUtils.getDataSource().getConnection();
+                Statement st = this.open(connection);
+                ResultSet rs = st.executeQuery(this.sql)) {
+            List<String> chunk = new ArrayList<>(this.fetchSize);
+            while (!this.cancelled && rs.next()) {
+                chunk.add(mapper.map(rs));
+                count++;
+                if (chunk.size() == this.fetchSize) {
+                    chunks.accept(chunk);
+                    chunk = new ArrayList<>(this.fetchSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunks.accept(chunk);
+            }
+        } catch (SQLException e) {
+            if (!this.cancelled) {
+                throw e;
+            }
+            L.info("Catching [{}] in [{}], query was cancelled", e.toString(), QueryTask.class.getSimpleName());
+        } finally {
+            this.statement = null;
+        }
+        L.info("Query [{}] read {} rows{}", this.sql, count, this.cancelled ? ", cancelled" : "");
+        return count;
+    }
+
+    /**
+     * Executes the SQL String as update statement.
+     *
+     * @return int - the number of changed rows
+     * @throws SQLException if the statement fails or times out
+     */
+    public int update() throws SQLException {
+        L.info("Executing update [{}], timeout {}s", this.sql, this.timeout);
+        try (Connection connection = HibernateUtils.getDataSource().getConnection();
+                Statement st = this.open(connection)) {
+            return st.executeUpdate(this.sql);
+        } finally {
+            this.statement = null;
+        }
+    }
+
+    /**
+     * Cancels the running statement with {@link Statement#cancel()}, or the
+     * next one if none is running yet. Can be called from any thread.
+     */
+    public void cancel() {
+        this.cancelled = true;
+        Statement running = this.statement;
+        if (running != null) {
+            L.info("Cancelling [{}]", this.sql);
+            try {
+                running.cancel();
+            } catch (SQLException e) {
+                L.info("Catching [{}] in [{}]", e.toString(), QueryTask.class.getSimpleName());
+            }
+        }
+    }
+
+    /**
+     * Returns whether {@link #cancel()} was called.
+     *
+     * @return boolean - true if the task was cancelled
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Creates a {@link Statement} with the fetch size and the timeout of this
+     * task and publishes it for {@link #cancel()}.
+     *
+     * @param connection the {@link Connection} to create the Statement with
+     * @return Statement - the new Statement
+     * @throws SQLException if the Statement can not be created or the task was
+     * cancelled already
+     */
+    private Statement open(Connection connection) throws SQLException {
+        Statement st = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        st.setFetchSize(this.fetchSize);
+        st.setQueryTimeout(this.timeout);
+        this.statement = st;
+        if (this.cancelled) {
+            st.close();
+            throw new SQLException("Cancelled before execution");
+        }
+        return st;
+    }
+
+}
@@ -0,0 +1,71 @@
+package de.mcdb.contactmanagerdesktop.dao;
+
+import de.mcdb.contactmanagerapi.Dao;
+import de.mcdb.contactmanagerapi.ExecutorAsyncDao;
+import de.mcdb.contactmanagerdesktop.jfr.DaoEvent;
+import de.mcdb.contactmanagerdesktop.jfr.RecordedDao;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link ExecutorAsyncDao} which records every operation as {@link DaoEvent}
+ * for the Java Flight Recorder, in addition to its metrics.
+ * <p>
+ * The methods of {@link Dao} are recorded by a {@link RecordedDao}, the
+ * methods of the concrete Dao when they are run with
+ * {@link #supply(String, Supplier, ToLongFunction)},
+ * {@link #run(String, Runnable, long)} or
+ * {@link #run(String, long, Runnable, long)}.
+ *
+ * @param <T> generic placeolder for the concrete entity class
+ * @param <D> type of the wrapped Dao
+ * @author Mirko Schulze
+ */
+public abstract class RecordingAsyncDao<T, D extends Dao<T>> extends ExecutorAsyncDao<T, D> {
+
+    private final String entity;
+
+    /**
+     * Creates a new RecordingAsyncDao which runs the methods of the submitted
+     * {@link Dao} on the submitted {@link Executor}.
+     *
+     * @param entityClass the entity class of the Dao
+     * @param dao the Dao to run
+     * @param executor the Executor to run the Dao on
+     */
+    protected RecordingAsyncDao(Class<T> entityClass, D dao, Executor executor) {
+        super(entityClass, dao, new RecordedDao<>(entityClass, dao), executor);
+        this.entity = entityClass.getSimpleName();
+    }
+
+    @Override
+    protected <R> CompletableFuture<R> supply(String operation, Supplier<R> supplier, ToLongFunction<? super R> rowsOf) {
+        return super.supply(operation, () -> DaoEvent.record(this.entity, operation, 0, supplier, rowsOf), rowsOf);
+    }
+
+    @Override
+    protected CompletableFuture<Void> run(String operation, Runnable runnable, long rows) {
+        return this.run(operation, 0, runnable, rows);
+    }
+
+    /**
+     * Runs the submitted {@link Runnable} about the entity with the submitted
+     * id on the executor, see {@link #run(String, Runnable, long)}.
+     *
+     * @param operation name of the operation, usually the name of the method
+     * of the Dao
+     * @param id id of the entity the operation is about
+     * @param runnable the operation to run
+     * @param rows number of rows the operation reads or writes
+     * @return CompletableFuture&lt;Void&gt; - future which is completed when
+     * the operation is done, or fails with a
+     * {@link RejectedExecutionException} if the executor is saturated
+     */
+    protected CompletableFuture<Void> run(String operation, long id, Runnable runnable, long rows) {
+        return super.run(operation, () -> DaoEvent.record(this.entity, operation, id, runnable, rows), rows);
+    }
+
+}
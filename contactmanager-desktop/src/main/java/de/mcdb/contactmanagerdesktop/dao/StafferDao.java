@@ -1,18 +1,41 @@
 package de.mcdb.contactmanagerdesktop.dao;
 
 import ch.qos.logback.classic.Logger;
+import com.querydsl.core.types.Projections;
 import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import de.mcdb.contactmanagerapi.ChangeEvent;
+import de.mcdb.contactmanagerapi.ChangeSet;
+import de.mcdb.contactmanagerapi.ChangeTracking;
+import de.mcdb.contactmanagerapi.CursorStreams;
 import de.mcdb.contactmanagerapi.Dao;
+import de.mcdb.contactmanagerapi.IdQueries;
+import de.mcdb.contactmanagerapi.ManagedEntities;
 import de.mcdb.contactmanagerapi.datamodel.Division;
+import static de.mcdb.contactmanagerapi.datamodel.QCompany.company;
+import static de.mcdb.contactmanagerapi.datamodel.QDivision.division;
 import static de.mcdb.contactmanagerapi.datamodel.QStaffer.staffer;
+import static de.mcdb.contactmanagerapi.datamodel.QTombstone.tombstone;
 import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import de.mcdb.contactmanagerapi.datamodel.Tombstone;
+import de.mcdb.contactmanagerapi.readmodel.StafferRow;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import org.hibernate.jpa.QueryHints;
 import org.slf4j.LoggerFactory;
 
 /**
  * Data access object to interact with {@link Staffer} entities.
+ * <p>
+ * Every committed change is published as {@link ChangeEvent} through
+ * {@link ChangeEvents}.
  *
  * @author Mirko
  */
@@ -21,89 +44,271 @@ public class StafferDao implements Dao<Staffer> {
 
     private static final Logger L = (Logger) LoggerFactory.getLogger(StafferDao.class);
 
-    private final EntityManager em = HibernateUtils.getEntityManager();
-
     @Override
     public List<Staffer> findAll() {
         L.info("Quering for all [{}] entities", Staffer.class.getSimpleName());
-        return new JPAQuery<>(em).select(staffer).from(staffer).fetch();
+        return UnitOfWork.read(em -> new JPAQuery<>(em).select(staffer).from(staffer).fetch());
+    }
+
+    @Override
+    public List<Staffer> findAll(String graph) {
+        L.info("Quering for all [{}] entities with graph {}", Staffer.class.getSimpleName(), graph);
+        return UnitOfWork.read(em -> new JPAQuery<>(em).select(staffer).from(staffer).distinct()
+                .setHint(LOAD_GRAPH, em.getEntityGraph(graph))
+                .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                .fetch());
+    }
+
+    /**
+     * Looks for all {@link Staffer}<code>s</code> and returns them as flat
+     * {@link StafferRow}<code>s</code>, ordered by id.
+     * <p>
+     * Division and Company names are fetched with outer joins in the same
+     * query, no entity is loaded and no further query is sent, however many
+     * rows there are.
+     *
+     * @return List&lt;StafferRow&gt; - List with the found rows
+     */
+    public List<StafferRow> findAllRows() {
+        L.info("Quering for all [{}] rows", StafferRow.class.getSimpleName());
+        return UnitOfWork.read(em -> rows(em).orderBy(staffer.id.asc()).fetch());
+    }
+
+    /**
+     * Looks for the {@link Staffer}<code>s</code> with the submitted ids and
+     * returns them as flat {@link StafferRow}<code>s</code>, ordered by id.
+     * Ids without a Staffer are skipped.
+     * <p>
+     * The ids are queried in chunks of at most {@value IdQueries#CHUNK_SIZE}.
+     *
+     * @param ids ids of the wanted Staffers
+     * @return List&lt;StafferRow&gt; - List with the found rows
+     */
+    public List<StafferRow> findRows(Collection<Long> ids) {
+        L.info("Quering for {} [{}] rows", ids.size(), StafferRow.class.getSimpleName());
+        return UnitOfWork.read(em -> IdQueries.inChunks(ids, chunk -> rows(em)
+                .where(staffer.id.in(chunk))
+                .orderBy(staffer.id.asc())
+                .fetch()));
+    }
+
+    /**
+     * Creates the projection query for {@link StafferRow}<code>s</code>, with
+     * outer joins to the Division and Company of each Staffer.
+     *
+     * @param em the {@link EntityManager} to create the query with
+     * @return JPAQuery&lt;StafferRow&gt; - the query without conditions
+     */
+    private static JPAQuery<StafferRow> rows(EntityManager em) {
+        return new JPAQuery<>(em)
+                .select(Projections.constructor(StafferRow.class,
+                        staffer.id, staffer.foreName, staffer.surName, division.id, division.name, company.id, company.name))
+                .from(staffer)
+                .leftJoin(staffer.division, division)
+                .leftJoin(division.company, company);
+    }
+
+    @Override
+    public List<Staffer> findPage(long afterId, int limit) {
+        L.info("Quering for [{}] entities after ID {}, limit {}", Staffer.class.getSimpleName(), afterId, limit);
+        return UnitOfWork.read(em -> new JPAQuery<>(em).select(staffer).from(staffer)
+                .where(staffer.id.gt(afterId))
+                .orderBy(staffer.id.asc())
+                .limit(limit)
+                .fetch());
+    }
+
+    @Override
+    public long count() {
+        L.info("Counting all [{}] entities", Staffer.class.getSimpleName());
+        return UnitOfWork.read(em -> new JPAQuery<>(em).select(staffer).from(staffer).fetchCount());
+    }
+
+    /**
+     * The Staffers are loaded with the entity graph {@link Staffer#WITH_DIVISION_AND_COMPANY}.
+     */
+    @Override
+    public ChangeSet<Staffer> findModifiedSince(Instant since) {
+        L.info("Quering for [{}] entities modified since {}", Staffer.class.getSimpleName(), since);
+        Instant from = ChangeTracking.lowerBound(since);
+        return UnitOfWork.read(em -> ChangeSet.of(since,
+                new JPAQuery<>(em).select(staffer).from(staffer)
+                        .where(staffer.updatedAt.gt(from))
+                        .setHint(LOAD_GRAPH, em.getEntityGraph(Staffer.WITH_DIVISION_AND_COMPANY))
+                        .orderBy(staffer.updatedAt.asc())
+                        .fetch(),
+                Staffer::getUpdatedAt,
+                new JPAQuery<>(em).select(tombstone).from(tombstone)
+                        .where(tombstone.entityType.eq(Tombstone.typeOf(Staffer.class)), tombstone.removedAt.gt(from))
+                        .fetch()));
+    }
+
+    /**
+     * Uses a new {@link EntityManager} which is closed together with the
+     * returned {@link Stream}.
+     */
+    @Override
+    public Stream<Staffer> stream(int fetchSize) {
+        L.info("Streaming all [{}] entities, fetch size {}", Staffer.class.getSimpleName(), fetchSize);
+        EntityManager streamEm = HibernateUtils.getEntityManager();
+        return CursorStreams.stream(streamEm, new JPAQuery<>(streamEm).select(staffer).from(staffer)
+                .orderBy(staffer.id.asc()), fetchSize);
     }
 
     @Override
     public Staffer findById(long id) {
         L.info("Quering for [{}] with ID {}", Staffer.class.getSimpleName(), id);
-        return em.find(Staffer.class, id);
+        return UnitOfWork.read(em -> em.find(Staffer.class, id));
+    }
+
+    @Override
+    public Staffer findById(long id, String graph) {
+        L.info("Quering for [{}] with ID {} and graph {}", Staffer.class.getSimpleName(), id, graph);
+        return UnitOfWork.read(em -> em.find(Staffer.class, id, Collections.singletonMap(LOAD_GRAPH, em.getEntityGraph(graph))));
+    }
+
+    @Override
+    public List<Staffer> findByIds(Collection<Long> ids, String graph) {
+        L.info("Quering for {} [{}] entities by ID with graph {}", ids.size(), Staffer.class.getSimpleName(), graph);
+        return UnitOfWork.read(em -> IdQueries.queryByIds(em, staffer, staffer.id, ids, graph));
     }
 
     @Override
     public void persist(Staffer entity) {
         L.info("Persisting [{}] {}", Staffer.class.getSimpleName(), entity.toEnhancedLine());
-        em.getTransaction().begin();
-        if (entity.getDivision() != null) {
-            Division division = em.find(Division.class, entity.getDivision().getId());
-            division.addStaffer(entity);
-            L.info("[{}] {} added to [{}] {}", Staffer.class.getSimpleName(), entity.toSimpleLine(), Division.class.getSimpleName(), division.toSimpleLine());
-        }
-        em.persist(entity);
-        L.info("[{}] {} persisted", Staffer.class.getSimpleName(), entity.toSimpleLine());
-        em.getTransaction().commit();
+        UnitOfWork.run(em -> {
+            if (entity.getDivision() != null) {
+                Division division = em.find(Division.class, entity.getDivision().getId());
+                division.addStaffer(entity);
+                L.info("[{}] {} added to [{}] {}", Staffer.class.getSimpleName(), entity.toSimpleLine(), Division.class.getSimpleName(), division.toSimpleLine());
+            }
+            em.persist(entity);
+            UnitOfWork.publish(ChangeEvent.created(Staffer.class, entity.getId()));
+            L.info("[{}] {} persisted", Staffer.class.getSimpleName(), entity.toSimpleLine());
+        });
+    }
+
+    @Override
+    public void persistAll(Collection<Staffer> entities) {
+        L.info("Persisting {} [{}] entities", entities.size(), Staffer.class.getSimpleName());
+        int batchSize = HibernateUtils.getBatchSize();
+        int count = UnitOfWork.write(em -> {
+            int persisted = 0;
+            for (Staffer entity : entities) {
+                em.persist(entity);
+                if (++persisted % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            UnitOfWork.publish(ChangeEvent.invalidated(Staffer.class));
+            return persisted;
+        });
+        L.info("{} [{}] entities persisted", count, Staffer.class.getSimpleName());
     }
 
     @Override
     public void update(long id, Staffer entity) {
         L.info("Updating [{}] with id {}", Staffer.class.getSimpleName(), id);
-        em.getTransaction().begin();
+        UnitOfWork.run(em -> {
+            Staffer staffer = em.find(Staffer.class, id);
 
-        Staffer staffer = em.find(Staffer.class, id);
+            if (entity.getDivision() != null) {
+                Division division = em.find(Division.class, entity.getDivision().getId());
 
-        if (entity.getDivision() != null) {
-            Division division = em.find(Division.class, entity.getDivision().getId());
+                staffer.setForeName(entity.getForeName());
+                staffer.setSurName(entity.getSurName());
+                division.addStaffer(staffer);
+                L.info("[{}] {} added to [{}] {}", Staffer.class.getSimpleName(), staffer.toSimpleLine(), Division.class.getSimpleName(), division.toSimpleLine());
+            }
 
-            staffer.setForeName(entity.getForeName());
-            staffer.setSurName(entity.getSurName());
-            division.addStaffer(staffer);
-            L.info("[{}] {} added to [{}] {}", Staffer.class.getSimpleName(), staffer.toSimpleLine(), Division.class.getSimpleName(), division.toSimpleLine());
-        }
-        em.getTransaction().commit();
+            UnitOfWork.publish(ChangeEvent.updated(Staffer.class, id));
+            L.info("[{}] {} updated", Staffer.class.getSimpleName(), staffer.toSimpleLine());
+        });
+    }
 
-        L.info("[{}] {} updated", Staffer.class.getSimpleName(), staffer.toSimpleLine());
+    /**
+     * Moves the {@link Staffer}<code>s</code> with the submitted ids to the
+     * {@link Division} with the submitted id.
+     * <p>
+     * The foreign keys are changed with a bulk update, split into statements
+     * of at most {@value IdQueries#CHUNK_SIZE} ids, in one transaction.
+     * Staffers which are already loaded in the current {@link UnitOfWork} are
+     * moved in memory with {@link Division#addStaffers(Collection)} and then
+     * detached, so the bulk update is not repeated on flush and the next
+     * lookup reads them fresh.
+     * <p>
+     * The ids of each chunk are first selected with a write lock, so only
+     * Staffers which exist are updated and get a {@link ChangeEvent}; ids
+     * without a Staffer are skipped.
+     * <p>
+     * The transaction must commit within {@link ChangeTracking#OVERLAP},
+     * otherwise clients polling {@link #findModifiedSince(Instant)} miss the
+     * moved Staffers.
+     *
+     * @param stafferIds ids of the Staffers to move
+     * @param targetDivisionId id of the Division to move the Staffers to
+     * @return long - number of updated Staffers
+     * @throws IllegalArgumentException if no Division with the submitted id
+     * exists
+     */
+    public long reassignStaffers(Collection<Long> stafferIds, long targetDivisionId) {
+        L.info("Reassigning {} [{}] entities to [{}] with id {}", stafferIds.size(), Staffer.class.getSimpleName(), Division.class.getSimpleName(), targetDivisionId);
+        long updated = UnitOfWork.write(em -> {
+            Division target = em.find(Division.class, targetDivisionId);
+            if (target == null) {
+                throw new IllegalArgumentException("No " + Division.class.getSimpleName() + " with id " + targetDivisionId);
+            }
+            List<Long> matched = new ArrayList<>();
+            long count = 0;
+            for (List<Long> chunk : IdQueries.chunked(stafferIds)) {
+                List<Long> existing = new JPAQuery<>(em).select(staffer.id).from(staffer)
+                        .where(staffer.id.in(chunk))
+                        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                        .fetch();
+                if (!existing.isEmpty()) {
+                    count += new JPAUpdateClause(em, staffer).set(staffer.division, target)
+                            .where(staffer.id.in(existing))
+                            .execute();
+                    matched.addAll(existing);
+                }
+            }
+            List<Staffer> managed = ManagedEntities.findManaged(em, Staffer.class, matched);
+            target.addStaffers(managed);
+            managed.forEach(em::detach);
+            matched.forEach(stafferId -> UnitOfWork.publish(ChangeEvent.updated(Staffer.class, stafferId)));
+            return count;
+        });
+        L.info("{} [{}] entities reassigned to [{}] with id {}", updated, Staffer.class.getSimpleName(), Division.class.getSimpleName(), targetDivisionId);
+        return updated;
     }
 
     @Override
     public void remove(long id) {
         L.info("Removing [{}] with id {}", Staffer.class.getSimpleName(), id);
+        UnitOfWork.run(em -> {
+            Staffer staffer = em.find(Staffer.class, id);
 
-        em.getTransaction().begin();
-        Staffer staffer = em.find(Staffer.class, id);
-
-        if (staffer.getDivision() != null) {
-            Division division = em.find(Division.class, staffer.getDivision().getId());
-            division.removeStaffer(staffer);
-            L.info("[{}] {} removed from [{}] {}", Staffer.class.getSimpleName(), staffer.toSimpleLine(), Division.class.getSimpleName(), staffer.getDivision().toSimpleLine());
-        }
-
-        em.remove(staffer);
+            if (staffer.getDivision() != null) {
+                Division division = em.find(Division.class, staffer.getDivision().getId());
+                division.removeStaffer(staffer);
+                L.info("[{}] {} removed from [{}] {}", Staffer.class.getSimpleName(), staffer.toSimpleLine(), Division.class.getSimpleName(), division.toSimpleLine());
+            }
 
-        em.getTransaction().commit();
-        L.info("[{}] {} removed", Staffer.class.getSimpleName(), staffer.toSimpleLine());
+            ChangeTracking.recordTombstones(em, Staffer.class, "e.id = :id", id);
+            em.remove(staffer);
+            UnitOfWork.publish(ChangeEvent.removed(Staffer.class, id));
+            L.info("[{}] {} removed", Staffer.class.getSimpleName(), staffer.toSimpleLine());
+        });
     }
 
     /**
-     * Closes the {@link EntityManager} for this instance.
+     * Does nothing but logging, the {@link EntityManager}<code>s</code> are
+     * closed by their {@link UnitOfWork}.
      */
     @Override
     public void destroy() {
-        L.info("Destroying [{}]", StafferDao.class.getSimpleName());
-        if (this.em != null && this.em.isOpen()) {
-            if (this.em.getTransaction().isActive()) {
-                L.info("Clearing [{}]", EntityManager.class.getSimpleName());
-                this.em.clear();
-            }
-            L.info("Closing [{}]", EntityManager.class.getSimpleName());
-            this.em.close();
-        }
         L.info("[{}] destroyed", StafferDao.class.getSimpleName());
-
     }
 
 }
@@ -0,0 +1,129 @@
+package de.mcdb.contactmanagerdesktop.dao;
+
+import de.mcdb.contactmanagerapi.ChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+
+/**
+ * Class with static methods to run database operations in a unit of work.
+ * <p>
+ * A unit of work owns a short-lived {@link EntityManager} which is bound to
+ * the calling thread and closed when the outermost unit of work returns.
+ * Units of work started inside another one on the same thread join it and
+ * share its EntityManager and transaction, so DAO methods can be combined
+ * into one operation.
+ * <p>
+ * Since every operation gets its own EntityManager, DAOs can be shared by the
+ * FX thread and background threads, and the first-level cache only lives as
+ * long as one operation. Entities returned from a unit of work are detached:
+ * associations which were not fetched, e.g. with an entity graph, can not be
+ * loaded afterwards.
+ * <p>
+ * {@link ChangeEvent}<code>s</code> published during a transaction are held
+ * back until it is committed and dropped if it is rolled back.
+ *
+ * @author Mirko Schulze
+ */
+public class UnitOfWork {
+
+    private static final ThreadLocal<EntityManager> CURRENT = new ThreadLocal<>();
+
+    private static final ThreadLocal<List<ChangeEvent>> PENDING = new ThreadLocal<>();
+
+    /**
+     * Runs the submitted function without a transaction and returns its
+     * result.
+     *
+     * @param <R> type of the result
+     * @param work the function to run with the {@link EntityManager} of the
+     * unit of work
+     * @return R - the result of the function
+     */
+    public static <R> R read(Function<EntityManager, R> work) {
+        EntityManager current = CURRENT.get();
+        if (current != null) {
+            return work.apply(current);
+        }
+        EntityManager em = HibernateUtils.getEntityManager();
+        CURRENT.set(em);
+        try {
+            return work.apply(em);
+        } finally {
+            CURRENT.remove();
+            em.close();
+        }
+    }
+
+    /**
+     * Runs the submitted function in a transaction and returns its result.
+     * <p>
+     * The transaction is committed when the function returns and rolled back
+     * when it throws a {@link RuntimeException}. If the calling thread already
+     * runs a transaction, the function joins it.
+     *
+     * @param <R> type of the result
+     * @param work the function to run with the {@link EntityManager} of the
+     * unit of work
+     * @return R - the result of the function
+     */
+    public static <R> R write(Function<EntityManager, R> work) {
+        return read(em -> {
+            EntityTransaction transaction = em.getTransaction();
+            if (transaction.isActive()) {
+                return work.apply(em);
+            }
+            List<ChangeEvent> events = new ArrayList<>();
+            PENDING.set(events);
+            transaction.begin();
+            try {
+                R result = work.apply(em);
+                transaction.commit();
+                PENDING.remove();
+                events.forEach(ChangeEvents::publish);
+                return result;
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            } finally {
+                PENDING.remove();
+            }
+        });
+    }
+
+    /**
+     * Publishes the submitted {@link ChangeEvent} with
+     * {@link ChangeEvents}: after the commit if the calling thread runs a
+     * transaction, else at once.
+     *
+     * @param event the event to publish
+     */
+    public static void publish(ChangeEvent event) {
+        List<ChangeEvent> events = PENDING.get();
+        if (events != null) {
+            events.add(event);
+        } else {
+            ChangeEvents.publish(event);
+        }
+    }
+
+    /**
+     * Runs the submitted consumer in a transaction, see
+     * {@link #write(Function)}.
+     *
+     * @param work the consumer to run with the {@link EntityManager} of the
+     * unit of work
+     */
+    public static void run(Consumer<EntityManager> work) {
+        write(em -> {
+            work.accept(em);
+            return null;
+        });
+    }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Contains implementations of {@link de.mcdb.contactmanagerapi.Dao} to interact
- * wih the database.
+ * Contains implementations of {@link de.mcdb.contactmanagerapi.Dao} and
+ * {@link de.mcdb.contactmanagerapi.AsyncDao} to interact wih the database.
  */
 package de.mcdb.contactmanagerdesktop.dao;
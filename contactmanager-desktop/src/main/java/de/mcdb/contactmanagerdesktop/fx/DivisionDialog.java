@@ -3,7 +3,7 @@ package de.mcdb.contactmanagerdesktop.fx;
 import ch.qos.logback.classic.Logger;
 import de.mcdb.contactmanagerapi.datamodel.Company;
 import de.mcdb.contactmanagerapi.datamodel.Division;
-import de.mcdb.contactmanagerdesktop.dao.CompanyDao;
+import java.util.List;
 import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.scene.control.Alert;
@@ -27,7 +27,8 @@ import org.slf4j.LoggerFactory;
  * is entered and the finish button is clicked, else the return value is null.
  * <p>
  * If a {@link Company} is selected via the ComboBox, the created Division will
- * be created as a part of the selected Company.
+ * be created as a part of the selected Company. The selectable Companies are
+ * loaded by the caller, so opening the dialog does not wait for the database.
  *
  * @author Mirko Schulze
  */
@@ -37,7 +38,12 @@ public class DivisionDialog extends Dialog<Division> {
 
     private String name;
 
-    public DivisionDialog() {
+    /**
+     * Creates a new DivisionDialog.
+     *
+     * @param companies the selectable {@link Company}<code>s</code>
+     */
+    public DivisionDialog(List<Company> companies) {
         L.info("Opening new [{}]", this.getClass().getSimpleName());
 
         this.setTitle("Contact Manager");
@@ -54,7 +60,7 @@ public class DivisionDialog extends Dialog<Division> {
 
         Label companyLabel = new Label("Firma: ");
         ComboBox<Company> companySelection = new ComboBox<>(FXCollections
-                .observableArrayList(new CompanyDao().findAll()));
+                .observableArrayList(companies));
         companySelection.setTooltip(new Tooltip("Optional: Wähle ein Firma aus!"));
 
         HBox companyHbox = new HBox(5, companyLabel, companySelection);
@@ -0,0 +1,175 @@
+package de.mcdb.contactmanagerdesktop.fx;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableView;
+
+/**
+ * Items of a {@link TableView}, kept sorted by id so single rows can be found
+ * with a binary search.
+ * <p>
+ * {@link #put(Object)} and {@link #remove(long)} change one row and fire one
+ * small list change, so the TableView only updates the affected cells instead
+ * of rebuilding all rows. All methods except {@link #inOrder(Supplier)} must
+ * be called on the JavaFX application thread.
+ * <p>
+ * Reads for the rows are run one after another with
+ * {@link #inOrder(Supplier)}, so a full load which was started before a change
+ * can not overwrite the rows which were looked up after it.
+ *
+ * @param <T> type of the rows
+ * @author Mirko Schulze
+ */
+public class EntityTableModel<T> {
+
+    private final ObservableList<T> items = FXCollections.observableArrayList();
+
+    private final ToLongFunction<T> idOf;
+
+    /**
+     * Future of the last read submitted with {@link #inOrder(Supplier)}.
+     */
+    private CompletableFuture<?> lastRead = CompletableFuture.completedFuture(null);
+
+    /**
+     * Creates a new, empty EntityTableModel.
+     *
+     * @param idOf function to read the id of a row
+     */
+    public EntityTableModel(ToLongFunction<T> idOf) {
+        this.idOf = idOf;
+    }
+
+    /**
+     * Returns the items to set to a {@link TableView}.
+     *
+     * @return ObservableList&lt;T&gt; - the items of this model
+     */
+    public ObservableList<T> getItems() {
+        return this.items;
+    }
+
+    /**
+     * Starts the submitted read once all reads submitted before have
+     * completed, whether they failed or not. The submitted future has to
+     * complete only after its rows were applied to this model, so the rows of
+     * each read are applied in the order the reads were started and a read
+     * always sees the changes applied by the reads before it.
+     *
+     * @param <R> type of the result
+     * @param read starts the read and returns the future completed after its
+     * rows were applied
+     * @return CompletableFuture&lt;R&gt; - future of the read
+     */
+    public synchronized <R> CompletableFuture<R> inOrder(Supplier<CompletableFuture<R>> read) {
+        CompletableFuture<R> next = this.lastRead.handle((result, e) -> null).thenCompose(ignored -> read.get());
+        this.lastRead = next;
+        return next;
+    }
+
+    /**
+     * Replaces all rows with the submitted rows.
+     *
+     * @param rows the new rows
+     */
+    public void setAll(Collection<T> rows) {
+        List<T> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparingLong(this.idOf));
+        this.items.setAll(sorted);
+    }
+
+    /**
+     * Replaces the row with the id of the submitted row, or inserts it at its
+     * position if there is none.
+     *
+     * @param row the new or changed row
+     */
+    public void put(T row) {
+        int index = this.indexOf(this.idOf.applyAsLong(row));
+        if (index >= 0) {
+            this.items.set(index, row);
+        } else {
+            this.items.add(-index - 1, row);
+        }
+    }
+
+    /**
+     * Removes the row with the submitted id, if there is one.
+     *
+     * @param id id of the row to remove
+     */
+    public void remove(long id) {
+        int index = this.indexOf(id);
+        if (index >= 0) {
+            this.items.remove(index);
+        }
+    }
+
+    /**
+     * Puts the found rows and removes the rows of the requested ids which
+     * were not found, e.g. because they were removed in the meantime.
+     *
+     * @param requested the ids which were looked up
+     * @param found the rows which were found
+     */
+    public void apply(Collection<Long> requested, Collection<T> found) {
+        Set<Long> missing = new HashSet<>(requested);
+        for (T row : found) {
+            missing.remove(this.idOf.applyAsLong(row));
+            this.put(row);
+        }
+        missing.forEach(this::remove);
+    }
+
+    /**
+     * Collects the ids of all rows which match the submitted
+     * {@link Predicate}.
+     *
+     * @param predicate the condition for the rows
+     * @return List&lt;Long&gt; - the ids of the matching rows
+     */
+    public List<Long> idsWhere(Predicate<T> predicate) {
+        List<Long> ids = new ArrayList<>();
+        for (T row : this.items) {
+            if (predicate.test(row)) {
+                ids.add(this.idOf.applyAsLong(row));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Looks for the row with the submitted id with a binary search.
+     *
+     * @param id id of the wanted row
+     * @return int - index of the row, or <code>-(insertion point) - 1</code>
+     * if there is none
+     */
+    private int indexOf(long id) {
+        int low = 0;
+        int high = this.items.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = this.idOf.applyAsLong(this.items.get(mid));
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+}
@@ -3,6 +3,9 @@ package de.mcdb.contactmanagerdesktop.fx;
 import java.util.Collection;
 import java.util.List;
 import javafx.collections.FXCollections;
+import javafx.event.ActionEvent;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonBar;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Dialog;
 import javafx.scene.control.ListView;
@@ -12,12 +15,17 @@ import javafx.scene.control.ListView;
  * results from a CRUD-operation.
  * <p>
  * Fills the ListView with the content of the submitted
- * {@link List}&lt;String&gt; or the submitted vararg of Strings.
+ * {@link List}&lt;String&gt; or the submitted vararg of Strings, or with
+ * results which are added while a query is still running.
  *
  * @author Mirko Schulze
  */
 public class ResultDialog extends Dialog {
 
+    private static final ButtonType CANCEL_QUERY = new ButtonType("Abbrechen", ButtonBar.ButtonData.OTHER);
+
+    private final ListView<String> list = new ListView<>();
+
     /**
      * Invokes a specified {@link Dialog} pane with a {@link ListView} to
      * present results from a CRUD-operation.
@@ -30,8 +38,7 @@ public class ResultDialog extends Dialog {
     public ResultDialog(Collection<String> results) {
         this();
 
-        ListView<String> list = new ListView<>(FXCollections.observableArrayList(results));
-        this.getDialogPane().setContent(list);
+        this.list.setItems(FXCollections.observableArrayList(results));
     }
 
     /**
@@ -45,8 +52,57 @@ public class ResultDialog extends Dialog {
     public ResultDialog(String... results) {
         this();
 
-        ListView<String> list = new ListView<>(FXCollections.observableArrayList(results));
-        this.getDialogPane().setContent(list);
+        this.list.setItems(FXCollections.observableArrayList(results));
+    }
+
+    /**
+     * Invokes a specified {@link Dialog} pane with a {@link ListView} to
+     * present the results of a running query, which are added with
+     * {@link #addResults(Collection)}.
+     * <p>
+     * The dialog gets a cancel button which runs the submitted
+     * {@link Runnable} and keeps the results read so far. Closing the dialog
+     * runs it as well.
+     *
+     * @param query the query, shown as first line
+     * @param onCancel the action to cancel the query
+     */
+    public ResultDialog(String query, Runnable onCancel) {
+        this(query);
+
+        this.getDialogPane().getButtonTypes().add(CANCEL_QUERY);
+        Button cancelButton = (Button) this.getDialogPane().lookupButton(CANCEL_QUERY);
+        cancelButton.addEventFilter(ActionEvent.ACTION, eh -> {
+            eh.consume();
+            cancelButton.setDisable(true);
+            onCancel.run();
+        });
+        this.setOnHidden(eh -> onCancel.run());
+    }
+
+    /**
+     * Adds the submitted results to the {@link ListView}, must be called on
+     * the JavaFX application thread.
+     *
+     * @param results the results to add
+     */
+    public void addResults(Collection<String> results) {
+        this.list.getItems().addAll(results);
+    }
+
+    /**
+     * Shows the submitted status as header text and disables the cancel
+     * button, must be called on the JavaFX application thread when the query
+     * is done.
+     *
+     * @param status the status to show
+     */
+    public void finish(String status) {
+        this.setHeaderText(status);
+        Button cancelButton = (Button) this.getDialogPane().lookupButton(CANCEL_QUERY);
+        if (cancelButton != null) {
+            cancelButton.setDisable(true);
+        }
     }
 
     /**
@@ -58,6 +114,7 @@ public class ResultDialog extends Dialog {
         this.getDialogPane().setMinWidth(600);
         this.getDialogPane().setMinHeight(400);
         this.getDialogPane().getButtonTypes().addAll(ButtonType.CLOSE);
+        this.getDialogPane().setContent(this.list);
     }
 
 }
@@ -3,7 +3,7 @@ package de.mcdb.contactmanagerdesktop.fx;
 import ch.qos.logback.classic.Logger;
 import de.mcdb.contactmanagerapi.datamodel.Division;
 import de.mcdb.contactmanagerapi.datamodel.Staffer;
-import de.mcdb.contactmanagerdesktop.dao.DivisionDao;
+import java.util.List;
 import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.scene.control.Alert;
@@ -27,7 +27,8 @@ import org.slf4j.LoggerFactory;
  * is entered and the finish button is clicked, else the return value is null.
  * <p>
  * If a {@link Division} is selected via the ComboBox, the created Staffer will
- * be created as a part of the selected Division.
+ * be created as a part of the selected Division. The selectable Divisions are
+ * loaded by the caller, so opening the dialog does not wait for the database.
  *
  * @author Mirko Schulze
  */
@@ -37,7 +38,13 @@ public class StafferDialog extends Dialog<Staffer> {
 
     private String foreName, surName;
 
-    public StafferDialog() {
+    /**
+     * Creates a new StafferDialog.
+     *
+     * @param divisions the selectable {@link Division}<code>s</code>, loaded
+     * with their {@link de.mcdb.contactmanagerapi.datamodel.Company}
+     */
+    public StafferDialog(List<Division> divisions) {
         L.info("Opening new [{}]", this.getClass().getSimpleName());
         this.setTitle("Contact Manager");
         this.setHeaderText("Trage Werte ein um einen neuen Angestellten einzutragen"
@@ -61,7 +68,7 @@ public class StafferDialog extends Dialog<Staffer> {
 
         Label divisionLabel = new Label("Abteilung: ");
         ComboBox<Division> divisionSelection = new ComboBox<>(FXCollections
-                .observableArrayList(new DivisionDao().findAll()));
+                .observableArrayList(divisions));
         divisionSelection.setTooltip(new Tooltip("Optional: Wähle eine Abteilung aus!"));
 
         HBox divisionHbox = new HBox(5, divisionLabel, divisionSelection);
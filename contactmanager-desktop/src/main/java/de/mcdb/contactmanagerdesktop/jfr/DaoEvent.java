@@ -0,0 +1,95 @@
+package de.mcdb.contactmanagerdesktop.jfr;
+
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for one call of a DAO method, from the start of the
+ * unit of work to its commit, on the thread of the database executor.
+ *
+ * @author Mirko Schulze
+ */
+@Name("de.mcdb.contactmanager.Dao")
+@Label("DAO Operation")
+@Category({"Contact Manager", "Persistence"})
+@Description("Call of a DAO method")
+public class DaoEvent extends Event {
+
+    @Label("Entity Type")
+    String entityType;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Entity Id")
+    @Description("Id of the entity, 0 if the operation is not about one stored entity")
+    long entityId;
+
+    @Label("Rows")
+    @Description("Number of rows read or written")
+    long rows;
+
+    @Label("Failed")
+    boolean failed;
+
+    /**
+     * Runs the submitted operation and records it as DaoEvent.
+     *
+     * @param <R> type of the result
+     * @param entityType simple name of the entity class
+     * @param operation name of the operation, usually the name of the method
+     * @param entityId id of the entity, 0 if the operation is not about one
+     * entity
+     * @param supplier the operation to run
+     * @param rowsOf function to count the rows read or written from the
+     * result
+     * @return R - the result of the operation
+     */
+    public static <R> R record(String entityType, String operation, long entityId, Supplier<R> supplier,
+            ToLongFunction<? super R> rowsOf) {
+        DaoEvent event = new DaoEvent();
+        event.begin();
+        boolean failed = true;
+        try {
+            R result = supplier.get();
+            if (event.isEnabled()) {
+                event.rows = rowsOf.applyAsLong(result);
+            }
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.entityType = entityType;
+                event.operation = operation;
+                event.entityId = entityId;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Runs the submitted operation and records it as DaoEvent with the
+     * submitted number of rows.
+     *
+     * @param entityType simple name of the entity class
+     * @param operation name of the operation, usually the name of the method
+     * @param entityId id of the entity, 0 if the operation is not about one
+     * entity
+     * @param runnable the operation to run
+     * @param rows number of rows the operation reads or writes
+     */
+    public static void record(String entityType, String operation, long entityId, Runnable runnable, long rows) {
+        record(entityType, operation, entityId, () -> {
+            runnable.run();
+            return null;
+        }, result -> rows);
+    }
+
+}
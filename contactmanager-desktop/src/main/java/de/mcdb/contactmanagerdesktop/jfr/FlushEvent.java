@@ -0,0 +1,54 @@
+package de.mcdb.contactmanagerdesktop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for one flush of a Hibernate session, including the
+ * dirty checking and the JDBC statements it executes. Emitted by
+ * {@link RecordingSessionListener}.
+ *
+ * @author Mirko Schulze
+ */
+@Name("de.mcdb.contactmanager.Flush")
+@Label("Hibernate Flush")
+@Category({"Contact Manager", "Persistence"})
+@Description("Flush of a Hibernate session")
+public class FlushEvent extends Event {
+
+    @Label("Partial")
+    @Description("Whether only the entities affected by a query were flushed")
+    boolean partial;
+
+    @Label("Entities")
+    @Description("Number of entities in the persistence context")
+    int entities;
+
+    @Label("Collections")
+    @Description("Number of collections in the persistence context")
+    int collections;
+
+    /**
+     * Creates a new FlushEvent.
+     *
+     * @param partial whether the flush is a partial flush before a query
+     */
+    public FlushEvent(boolean partial) {
+        this.partial = partial;
+    }
+
+    /**
+     * Sets the size of the persistence context after the flush.
+     *
+     * @param entities number of entities
+     * @param collections number of collections
+     */
+    public void setSize(int entities, int collections) {
+        this.entities = entities;
+        this.collections = collections;
+    }
+
+}
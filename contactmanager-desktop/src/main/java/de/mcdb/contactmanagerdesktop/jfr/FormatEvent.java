@@ -0,0 +1,55 @@
+package de.mcdb.contactmanagerdesktop.jfr;
+
+import java.util.function.Supplier;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for building the text of one entity to show it, e.g.
+ * with <code>toEnhancedLine()</code>.
+ *
+ * @author Mirko Schulze
+ */
+@Name("de.mcdb.contactmanager.Format")
+@Label("Entity Formatting")
+@Category({"Contact Manager", "JavaFX"})
+@Description("Text built to show an entity")
+public class FormatEvent extends Event {
+
+    @Label("Entity Type")
+    String entityType;
+
+    @Label("Entity Id")
+    long entityId;
+
+    @Label("Length")
+    @Description("Number of characters of the text")
+    int length;
+
+    /**
+     * Builds the text with the submitted function and records it as
+     * FormatEvent.
+     *
+     * @param entityType simple name of the entity class
+     * @param entityId id of the entity
+     * @param format function which builds the text
+     * @return String - the text
+     */
+    public static String format(String entityType, long entityId, Supplier<String> format) {
+        FormatEvent event = new FormatEvent();
+        event.begin();
+        String text = format.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.entityType = entityType;
+            event.entityId = entityId;
+            event.length = text == null ? 0 : text.length();
+            event.commit();
+        }
+        return text;
+    }
+
+}
@@ -0,0 +1,42 @@
+package de.mcdb.contactmanagerdesktop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for one JDBC call of Hibernate: taking a connection
+ * from the pool, executing a statement or executing a batch. Emitted by
+ * {@link RecordingSessionListener}.
+ *
+ * @author Mirko Schulze
+ */
+@Name("de.mcdb.contactmanager.Jdbc")
+@Label("JDBC Call")
+@Category({"Contact Manager", "Persistence"})
+@Description("JDBC call of Hibernate")
+public class JdbcEvent extends Event {
+
+    /**
+     * Kind of a JDBC call.
+     */
+    public static final String ACQUIRE_CONNECTION = "acquire connection",
+            EXECUTE_STATEMENT = "execute statement",
+            EXECUTE_BATCH = "execute batch";
+
+    @Label("Kind")
+    String kind;
+
+    /**
+     * Creates a new JdbcEvent.
+     *
+     * @param kind kind of the call, one of {@link #ACQUIRE_CONNECTION},
+     * {@link #EXECUTE_STATEMENT} and {@link #EXECUTE_BATCH}
+     */
+    public JdbcEvent(String kind) {
+        this.kind = kind;
+    }
+
+}
@@ -0,0 +1,64 @@
+package de.mcdb.contactmanagerdesktop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for one phase of the start of the application in the
+ * preloader, e.g. preparing the database scheme.
+ *
+ * @author Mirko Schulze
+ */
+@Name("de.mcdb.contactmanager.PreloaderPhase")
+@Label("Preloader Phase")
+@Category({"Contact Manager", "Startup"})
+@Description("Phase of the start of the application")
+public class PreloaderPhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Failed")
+    boolean failed;
+
+    /**
+     * Runs the submitted phase and records it as PreloaderPhaseEvent.
+     *
+     * @param <X> type of the checked exception the phase may throw
+     * @param phase name of the phase
+     * @param action the phase to run
+     * @throws X if the phase throws it
+     */
+    public static <X extends Exception> void record(String phase, Phase<X> action) throws X {
+        PreloaderPhaseEvent event = new PreloaderPhaseEvent();
+        event.phase = phase;
+        event.failed = true;
+        event.begin();
+        try {
+            action.run();
+            event.failed = false;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Phase of the start which may throw a checked exception.
+     *
+     * @param <X> type of the checked exception
+     */
+    @FunctionalInterface
+    public interface Phase<X extends Exception> {
+
+        /**
+         * Runs the phase.
+         *
+         * @throws X if the phase fails
+         */
+        public void run() throws X;
+    }
+
+}
@@ -0,0 +1,64 @@
+package de.mcdb.contactmanagerdesktop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for one SQL statement entered by the user, from the
+ * start of the statement until its last row was read or the update was done.
+ *
+ * @author Mirko Schulze
+ */
+@Name("de.mcdb.contactmanager.Query")
+@Label("User Query")
+@Category({"Contact Manager", "Persistence"})
+@Description("SQL statement entered by the user")
+public class QueryEvent extends Event {
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Rows")
+    @Description("Number of rows read or changed")
+    long rows;
+
+    @Label("Cancelled")
+    boolean cancelled;
+
+    @Label("Failed")
+    boolean failed;
+
+    /**
+     * Creates and begins a new QueryEvent.
+     *
+     * @param sql the statement
+     */
+    public QueryEvent(String sql) {
+        this.sql = sql;
+        this.begin();
+    }
+
+    /**
+     * Commits this event for a statement which was done.
+     *
+     * @param rows number of rows read or changed
+     * @param cancelled whether the statement was cancelled
+     */
+    public void done(long rows, boolean cancelled) {
+        this.rows = rows;
+        this.cancelled = cancelled;
+        this.commit();
+    }
+
+    /**
+     * Commits this event for a statement which failed.
+     */
+    public void failed() {
+        this.failed = true;
+        this.commit();
+    }
+
+}
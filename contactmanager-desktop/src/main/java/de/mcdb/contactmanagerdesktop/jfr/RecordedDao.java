@@ -0,0 +1,109 @@
+package de.mcdb.contactmanagerdesktop.jfr;
+
+import de.mcdb.contactmanagerapi.ChangeSet;
+import de.mcdb.contactmanagerapi.Dao;
+import de.mcdb.contactmanagerapi.metrics.DaoMetrics;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * {@link Dao} which records every call of another Dao as {@link DaoEvent},
+ * with the simple name of the entity class and the name of the method.
+ * <p>
+ * {@link #stream(int)} is recorded until the Stream is opened, reading it is
+ * not. Entities which are persisted get no id in their event, since they have
+ * none before the call.
+ *
+ * @param <T> generic placeolder for the concrete entity class
+ * @author Mirko Schulze
+ */
+public class RecordedDao<T> implements Dao<T> {
+
+    private final Dao<T> dao;
+
+    private final String entity;
+
+    /**
+     * Creates a new RecordedDao.
+     *
+     * @param entityClass the entity class of the Dao
+     * @param dao the Dao to record
+     */
+    public RecordedDao(Class<T> entityClass, Dao<T> dao) {
+        this.dao = dao;
+        this.entity = entityClass.getSimpleName();
+    }
+
+    @Override
+    public List<T> findAll() {
+        return DaoEvent.record(this.entity, "findAll", 0, () -> this.dao.findAll(), List::size);
+    }
+
+    @Override
+    public List<T> findAll(String graph) {
+        return DaoEvent.record(this.entity, "findAll", 0, () -> this.dao.findAll(graph), List::size);
+    }
+
+    @Override
+    public List<T> findPage(long afterId, int limit) {
+        return DaoEvent.record(this.entity, "findPage", 0, () -> this.dao.findPage(afterId, limit), List::size);
+    }
+
+    @Override
+    public long count() {
+        return DaoEvent.record(this.entity, "count", 0, () -> this.dao.count(), count -> 0);
+    }
+
+    @Override
+    public Stream<T> stream(int fetchSize) {
+        return DaoEvent.record(this.entity, "stream", 0, () -> this.dao.stream(fetchSize), stream -> 0);
+    }
+
+    @Override
+    public T findById(long id) {
+        return DaoEvent.record(this.entity, "findById", id, () -> this.dao.findById(id), DaoMetrics::rowsOf);
+    }
+
+    @Override
+    public T findById(long id, String graph) {
+        return DaoEvent.record(this.entity, "findById", id, () -> this.dao.findById(id, graph), DaoMetrics::rowsOf);
+    }
+
+    @Override
+    public List<T> findByIds(Collection<Long> ids, String graph) {
+        return DaoEvent.record(this.entity, "findByIds", 0, () -> this.dao.findByIds(ids, graph), List::size);
+    }
+
+    @Override
+    public ChangeSet<T> findModifiedSince(Instant since) {
+        return DaoEvent.record(this.entity, "findModifiedSince", 0, () -> this.dao.findModifiedSince(since), DaoMetrics::rowsOf);
+    }
+
+    @Override
+    public void persist(T entity) {
+        DaoEvent.record(this.entity, "persist", 0, () -> this.dao.persist(entity), 1);
+    }
+
+    @Override
+    public void persistAll(Collection<T> entities) {
+        DaoEvent.record(this.entity, "persistAll", 0, () -> this.dao.persistAll(entities), entities.size());
+    }
+
+    @Override
+    public void update(long id, T entity) {
+        DaoEvent.record(this.entity, "update", id, () -> this.dao.update(id, entity), 1);
+    }
+
+    @Override
+    public void remove(long id) {
+        DaoEvent.record(this.entity, "remove", id, () -> this.dao.remove(id), 1);
+    }
+
+    @Override
+    public void destroy() {
+        this.dao.destroy();
+    }
+
+}
@@ -0,0 +1,106 @@
+package de.mcdb.contactmanagerdesktop.jfr;
+
+import jdk.jfr.Event;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.cfg.AvailableSettings;
+
+/**
+ * {@link org.hibernate.SessionEventListener} which records the JDBC calls and
+ * the flushes of one Hibernate session as {@link JdbcEvent} and
+ * {@link FlushEvent}.
+ * <p>
+ * Registered for every session with the
+ * {@link AvailableSettings#AUTO_SESSION_EVENTS_LISTENER} property, which
+ * creates a new instance per session. A session is used by one thread at a
+ * time, so the started events are held in plain fields.
+ *
+ * @author Mirko Schulze
+ */
+public class RecordingSessionListener extends BaseSessionEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient JdbcEvent connection, statement, batch;
+
+    private transient FlushEvent flush;
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        this.connection = start(new JdbcEvent(JdbcEvent.ACQUIRE_CONNECTION));
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        this.connection = commit(this.connection);
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        this.statement = start(new JdbcEvent(JdbcEvent.EXECUTE_STATEMENT));
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        this.statement = commit(this.statement);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        this.batch = start(new JdbcEvent(JdbcEvent.EXECUTE_BATCH));
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        this.batch = commit(this.batch);
+    }
+
+    @Override
+    public void flushStart() {
+        this.flush = start(new FlushEvent(false));
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        this.endFlush(numberOfEntities, numberOfCollections);
+    }
+
+    @Override
+    public void partialFlushStart() {
+        this.flush = start(new FlushEvent(true));
+    }
+
+    @Override
+    public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+        this.endFlush(numberOfEntities, numberOfCollections);
+    }
+
+    private void endFlush(int numberOfEntities, int numberOfCollections) {
+        if (this.flush != null) {
+            this.flush.setSize(numberOfEntities, numberOfCollections);
+            this.flush = commit(this.flush);
+        }
+    }
+
+    /**
+     * Begins the submitted event, or drops it if it is not recorded.
+     */
+    private static <E extends Event> E start(E event) {
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits the submitted event, if it was started, and returns null to
+     * clear the field which held it.
+     */
+    private static <E extends Event> E commit(E event) {
+        if (event != null) {
+            event.commit();
+        }
+        return null;
+    }
+
+}
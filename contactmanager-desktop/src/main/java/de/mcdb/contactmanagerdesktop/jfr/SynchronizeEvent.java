@@ -0,0 +1,67 @@
+package de.mcdb.contactmanagerdesktop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for one synchronization of a table with the
+ * database, from the request on the JavaFX application thread until the
+ * table shows the loaded rows.
+ * <p>
+ * The event is committed on the JavaFX application thread. Its duration
+ * includes the time the query waits for and runs on the database executor,
+ * which is recorded as {@link DaoEvent} as well, and the time the table needs
+ * to take the rows, which is recorded as refresh time.
+ *
+ * @author Mirko Schulze
+ */
+@Name("de.mcdb.contactmanager.Synchronize")
+@Label("Table Synchronization")
+@Category({"Contact Manager", "JavaFX"})
+@Description("Synchronization of a table with the database")
+public class SynchronizeEvent extends Event {
+
+    @Label("Entity Type")
+    String entityType;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Refresh Time")
+    @Description("Time to put the loaded rows into the table")
+    @Timespan(Timespan.NANOSECONDS)
+    long refreshTime;
+
+    /**
+     * Creates and begins a new SynchronizeEvent.
+     *
+     * @param entityType simple name of the entity class of the table
+     */
+    public SynchronizeEvent(String entityType) {
+        this.entityType = entityType;
+        this.begin();
+    }
+
+    /**
+     * Puts the loaded rows into the table with the submitted operation and
+     * commits this event.
+     *
+     * @param rows number of loaded rows
+     * @param refresh the operation which puts the rows into the table
+     */
+    public void refresh(long rows, Runnable refresh) {
+        long start = System.nanoTime();
+        try {
+            refresh.run();
+        } finally {
+            this.refreshTime = System.nanoTime() - start;
+            this.rows = rows;
+            this.commit();
+        }
+    }
+
+}
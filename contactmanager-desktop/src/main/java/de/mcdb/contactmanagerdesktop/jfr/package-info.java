@@ -0,0 +1,12 @@
+/**
+ * Contains custom Java Flight Recorder events of the desktop client, to find
+ * out offline from a recording whether time goes to the database, to
+ * Hibernate or to the JavaFX application thread.
+ * <p>
+ * All events belong to the category "Contact Manager" and are named
+ * <code>de.mcdb.contactmanager.*</code>. They cost next to nothing while no
+ * recording runs, so they are always emitted. A recording is started with
+ * <code>-XX:StartFlightRecording=filename=contactmanager.jfr</code> or with
+ * <code>jcmd &lt;pid&gt; JFR.start</code> and opened in JDK Mission Control.
+ */
+package de.mcdb.contactmanagerdesktop.jfr;
@@ -3,19 +3,30 @@ package de.mcdb.contactmanagerweb;
 import de.mcdb.contactmanagerapi.datamodel.Company;
 import de.mcdb.contactmanagerapi.datamodel.Division;
 import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import de.mcdb.contactmanagerapi.readmodel.DivisionRow;
+import de.mcdb.contactmanagerapi.readmodel.StafferRow;
 import de.mcdb.contactmanagerweb.dao.CompanyDao;
 import de.mcdb.contactmanagerweb.dao.DivisionDao;
 import de.mcdb.contactmanagerweb.dao.StafferDao;
+import de.mcdb.contactmanagerweb.model.QueryDataModel;
+import de.mcdb.contactmanagerweb.readmodel.ReadModel;
+import de.mcdb.contactmanagerweb.readmodel.Snapshot;
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import javax.annotation.ManagedBean;
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.SessionScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
+import org.primefaces.model.LazyDataModel;
 
 /**
+ * Session controller of the web application.
+ * <p>
+ * Holds only the selected entities and the table models, the rows are loaded
+ * page by page or taken from the shared {@link ReadModel}.
  *
  * @author Mirko Schulze
  */
@@ -29,9 +40,9 @@ public class Controller implements Serializable {
     private Division division;
     private Staffer staffer;
 
-    private List<Company> companies = new ArrayList<>();
-    private List<Division> divisions = new ArrayList<>();
-    private List<Staffer> staffers = new ArrayList<>();
+    private LazyDataModel<Company> companies;
+    private LazyDataModel<Division> divisions;
+    private LazyDataModel<StafferRow> staffers;
 
     @Inject
     private StafferDao stafferDao;
@@ -42,11 +53,68 @@ public class Controller implements Serializable {
     @Inject
     private CompanyDao companyDao;
 
+    @Inject
+    private ReadModel readModel;
+
+    /**
+     * Creates the {@link QueryDataModel}<code>s</code> of the tables, which
+     * load only the shown page from the database.
+     */
     @PostConstruct
     public void init() {
-        this.companies = this.companyDao.findAll();
-        this.divisions = this.divisionDao.findAll();
-        this.staffers = this.stafferDao.findAll();
+        this.companies = new QueryDataModel<>(this.companyDao::findTablePage, this::countCompanies, Company::getId);
+        this.divisions = new QueryDataModel<>(this.divisionDao::findTablePage, this::countDivisions, Division::getId);
+        this.staffers = new QueryDataModel<>(this.stafferDao::findTablePage, this::countStaffers, StafferRow::getId);
+    }
+
+    /**
+     * Returns the {@link Division}<code>s</code> of the submitted
+     * {@link Company} from the shared {@link ReadModel}, called when its row
+     * is expanded.
+     *
+     * @param company the Company of the expanded row
+     * @return List&lt;DivisionRow&gt; - the Divisions of the Company
+     */
+    public List<DivisionRow> divisionsOf(Company company) {
+        return this.readModel.getSnapshot().divisionsOf(company.getId());
+    }
+
+    /**
+     * Returns the {@link Staffer}<code>s</code> of the submitted
+     * {@link Division} from the shared {@link ReadModel}, called when its row
+     * is expanded.
+     *
+     * @param division the Division of the expanded row
+     * @return List&lt;StafferRow&gt; - the Staffers of the Division
+     */
+    public List<StafferRow> staffersOf(Division division) {
+        return this.readModel.getSnapshot().staffersOf(division.getId());
+    }
+
+    /**
+     * Counts the rows of a table. Unfiltered tables are counted with the
+     * shared {@link ReadModel} instead of a COUNT query per page, so the count
+     * may lag behind the database by one refresh of the ReadModel.
+     */
+    private long count(Map<String, Object> filters, QueryDataModel.CountQuery query,
+            Function<Snapshot, Map<Long, ?>> rows) {
+        Snapshot snapshot = this.readModel.getSnapshot();
+        if (QueryDataModel.hasFilters(filters) || !snapshot.isLoaded()) {
+            return query.count(filters);
+        }
+        return rows.apply(snapshot).size();
+    }
+
+    private long countCompanies(Map<String, Object> filters) {
+        return this.count(filters, this.companyDao::countTable, Snapshot::getCompanies);
+    }
+
+    private long countDivisions(Map<String, Object> filters) {
+        return this.count(filters, this.divisionDao::countTable, Snapshot::getDivisions);
+    }
+
+    private long countStaffers(Map<String, Object> filters) {
+        return this.count(filters, this.stafferDao::countTable, Snapshot::getStaffers);
     }
 
     //<editor-fold defaultstate="collapsed" desc="Getter / Setter">
@@ -74,28 +142,16 @@ public class Controller implements Serializable {
         this.staffer = staffer;
     }
 
-    public List<Company> getCompanies() {
+    public LazyDataModel<Company> getCompanies() {
         return companies;
     }
 
-    public void setCompanies(List<Company> companies) {
-        this.companies = companies;
-    }
-
-    public List<Division> getDivisions() {
+    public LazyDataModel<Division> getDivisions() {
         return divisions;
     }
 
-    public void setDivisions(List<Division> divisions) {
-        this.divisions = divisions;
-    }
-
-    public List<Staffer> getStaffers() {
+    public LazyDataModel<StafferRow> getStaffers() {
         return staffers;
     }
-
-    public void setStaffers(List<Staffer> staffers) {
-        this.staffers = staffers;
-    }
     //</editor-fold>
 }
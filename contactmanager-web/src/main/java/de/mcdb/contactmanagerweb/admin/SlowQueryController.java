@@ -0,0 +1,66 @@
+package de.mcdb.contactmanagerweb.admin;
+
+import de.mcdb.contactmanagerapi.slowquery.SlowQuery;
+import de.mcdb.contactmanagerapi.slowquery.SlowQueryLog;
+import java.util.List;
+import javax.enterprise.context.RequestScoped;
+import javax.faces.context.FacesContext;
+import javax.inject.Named;
+
+/**
+ * Controller of <code>admin/slowqueries.xhtml</code>, which shows the
+ * statements slower than the threshold of {@link SlowQueryLog#getDefault()}.
+ * <p>
+ * The statements are shown with their bind values, so the page is restricted
+ * to {@value StatisticsController#ADMIN_ROLE} in <code>web.xml</code>, and
+ * {@link #clear()} checks the role again.
+ *
+ * @author Mirko Schulze
+ */
+@Named
+@RequestScoped
+public class SlowQueryController {
+
+    private final SlowQueryLog log = SlowQueryLog.getDefault();
+
+    private List<SlowQuery> queries;
+
+    /**
+     * Returns the logged statements, the latest first. Read once per request.
+     *
+     * @return List&lt;SlowQuery&gt; - the logged statements
+     */
+    public List<SlowQuery> getQueries() {
+        if (this.queries == null) {
+            this.queries = this.log.getQueries();
+        }
+        return this.queries;
+    }
+
+    /**
+     * Removes all logged statements.
+     *
+     * @throws SecurityException if the user does not have the role
+     * {@value StatisticsController#ADMIN_ROLE}
+     */
+    public void clear() {
+        if (!FacesContext.getCurrentInstance().getExternalContext().isUserInRole(StatisticsController.ADMIN_ROLE)) {
+            throw new SecurityException("Clearing the slow query log requires the role " + StatisticsController.ADMIN_ROLE);
+        }
+        this.log.clear();
+        this.queries = null;
+    }
+
+    public long getCount() {
+        return this.log.getCount();
+    }
+
+    public long getThresholdMillis() {
+        return this.log.getThresholdMillis();
+    }
+
+    public int getCapacity() {
+        return this.log.getCapacity();
+    }
+
+}
@@ -0,0 +1,368 @@
+package de.mcdb.contactmanagerweb.admin;
+
+import de.mcdb.contactmanagerapi.datamodel.Company;
+import de.mcdb.contactmanagerweb.dao.HibernateUtils;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.RequestScoped;
+import javax.faces.context.FacesContext;
+import javax.inject.Named;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.CollectionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Controller of <code>admin/statistics.xhtml</code>, which shows the
+ * {@link Statistics} of the EntityManagerFactory of the web application.
+ * <p>
+ * Counters are shown as totals and as rates per second since the statistics
+ * were started or reset; entities, collections, cache regions and queries are
+ * broken down one by one. Resetting the statistics before loading a page
+ * shows exactly the queries and fetches of that page, so an N+1 problem shows
+ * up as a fetch count which grows with the rows of the page.
+ * <p>
+ * The page is restricted to {@value #ADMIN_ROLE} in <code>web.xml</code>,
+ * and {@link #reset()} checks the role again, so the statistics can not be
+ * reset if the constraint is missing or the page is mapped differently.
+ *
+ * @author Mirko Schulze
+ */
+@Named
+@RequestScoped
+public class StatisticsController {
+
+    /**
+     * Role which may see and reset the statistics.
+     */
+    public static final String ADMIN_ROLE = "contactmanager-admin";
+
+    /**
+     * A counter with its rate per second.
+     */
+    public static class Counter {
+
+        private final String name;
+
+        private final long count;
+
+        private final double perSecond;
+
+        Counter(String name, long count, double seconds) {
+            this.name = name;
+            this.count = count;
+            this.perSecond = count / seconds;
+        }
+
+        //<editor-fold defaultstate="collapsed" desc="Getter">
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getPerSecond() {
+            return perSecond;
+        }
+        //</editor-fold>
+    }
+
+    /**
+     * Loads and fetches of one entity or collection role.
+     */
+    public static class Loads {
+
+        private final String name;
+
+        private final long loads, fetches, inserts, updates, deletes;
+
+        Loads(String name, long loads, long fetches, long inserts, long updates, long deletes) {
+            this.name = name;
+            this.loads = loads;
+            this.fetches = fetches;
+            this.inserts = inserts;
+            this.updates = updates;
+            this.deletes = deletes;
+        }
+
+        //<editor-fold defaultstate="collapsed" desc="Getter">
+        public String getName() {
+            return name;
+        }
+
+        public long getLoads() {
+            return loads;
+        }
+
+        public long getFetches() {
+            return fetches;
+        }
+
+        public long getInserts() {
+            return inserts;
+        }
+
+        public long getUpdates() {
+            return updates;
+        }
+
+        public long getDeletes() {
+            return deletes;
+        }
+        //</editor-fold>
+    }
+
+    /**
+     * Hits and misses of one cache region.
+     */
+    public static class CacheRegion {
+
+        private final String name;
+
+        private final long hits, misses, puts, elements;
+
+        CacheRegion(String name, long hits, long misses, long puts, long elements) {
+            this.name = name;
+            this.hits = hits;
+            this.misses = misses;
+            this.puts = puts;
+            this.elements = elements;
+        }
+
+        /**
+         * Returns the share of hits among all lookups.
+         *
+         * @return double - hits / (hits + misses), 0 if there were no lookups
+         */
+        public double getHitRatio() {
+            return ratio(this.hits, this.misses);
+        }
+
+        //<editor-fold defaultstate="collapsed" desc="Getter">
+        public String getName() {
+            return name;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getPuts() {
+            return puts;
+        }
+
+        public long getElements() {
+            return elements;
+        }
+        //</editor-fold>
+    }
+
+    /**
+     * Executions of one JPQL query.
+     */
+    public static class Query {
+
+        private final String query;
+
+        private final QueryStatistics statistics;
+
+        Query(String query, QueryStatistics statistics) {
+            this.query = query;
+            this.statistics = statistics;
+        }
+
+        public String getQuery() {
+            return this.query;
+        }
+
+        public long getExecutions() {
+            return this.statistics.getExecutionCount();
+        }
+
+        public long getRows() {
+            return this.statistics.getExecutionRowCount();
+        }
+
+        public double getAvgMillis() {
+            return this.statistics.getExecutionAvgTimeAsDouble();
+        }
+
+        public long getMaxMillis() {
+            return this.statistics.getExecutionMaxTime();
+        }
+
+        public long getTotalMillis() {
+            return this.statistics.getExecutionTotalTime();
+        }
+
+        public double getCacheHitRatio() {
+            return ratio(this.statistics.getCacheHitCount(), this.statistics.getCacheMissCount());
+        }
+    }
+
+    private static final String DATAMODEL = Company.class.getPackage().getName() + ".";
+
+    private Statistics statistics;
+
+    private double seconds;
+
+    private List<Counter> counters;
+
+    private List<Loads> loads;
+
+    private List<CacheRegion> cacheRegions;
+
+    private List<Query> queries;
+
+    /**
+     * Reads the statistics.
+     */
+    @PostConstruct
+    public void init() {
+        this.statistics = HibernateUtils.getStatistics();
+        this.read();
+    }
+
+    /**
+     * Resets all statistics to 0, so the next requests show only their own
+     * queries and loads.
+     *
+     * @throws SecurityException if the user does not have the role
+     * {@value #ADMIN_ROLE}
+     */
+    public void reset() {
+        if (!FacesContext.getCurrentInstance().getExternalContext().isUserInRole(ADMIN_ROLE)) {
+            throw new SecurityException("Resetting the statistics requires the role " + ADMIN_ROLE);
+        }
+        this.statistics.clear();
+        this.read();
+    }
+
+    private void read() {
+        Statistics s = this.statistics;
+        long millis = System.currentTimeMillis() - s.getStartTime();
+        this.seconds = Math.max(millis, 1) / (double) TimeUnit.SECONDS.toMillis(1);
+
+        this.counters = new ArrayList<>();
+        this.counter("Sessions", s.getSessionOpenCount());
+        this.counter("Transaktionen", s.getTransactionCount());
+        this.counter("Verbindungen", s.getConnectCount());
+        this.counter("Statements", s.getPrepareStatementCount());
+        this.counter("Flushes", s.getFlushCount());
+        this.counter("Queries", s.getQueryExecutionCount());
+        this.counter("Entities geladen", s.getEntityLoadCount());
+        this.counter("Entities nachgeladen", s.getEntityFetchCount());
+        this.counter("Entities eingefügt", s.getEntityInsertCount());
+        this.counter("Entities geändert", s.getEntityUpdateCount());
+        this.counter("Entities gelöscht", s.getEntityDeleteCount());
+        this.counter("Collections geladen", s.getCollectionLoadCount());
+        this.counter("Collections nachgeladen", s.getCollectionFetchCount());
+        this.counter("Second-Level-Cache Treffer", s.getSecondLevelCacheHitCount());
+        this.counter("Second-Level-Cache Fehlschläge", s.getSecondLevelCacheMissCount());
+        this.counter("Query-Cache Treffer", s.getQueryCacheHitCount());
+        this.counter("Query-Cache Fehlschläge", s.getQueryCacheMissCount());
+        this.counter("Optimistic-Lock-Fehler", s.getOptimisticFailureCount());
+
+        this.loads = new ArrayList<>();
+        for (String name : s.getEntityNames()) {
+            EntityStatistics e = s.getEntityStatistics(name);
+            this.loads.add(new Loads(simpleName(name), e.getLoadCount(), e.getFetchCount(),
+                    e.getInsertCount(), e.getUpdateCount(), e.getDeleteCount()));
+        }
+        for (String role : s.getCollectionRoleNames()) {
+            CollectionStatistics c = s.getCollectionStatistics(role);
+            this.loads.add(new Loads(simpleName(role), c.getLoadCount(), c.getFetchCount(),
+                    c.getRecreateCount(), c.getUpdateCount(), c.getRemoveCount()));
+        }
+        this.loads.sort(Comparator.comparing(Loads::getFetches).thenComparing(Loads::getLoads).reversed());
+
+        this.cacheRegions = new ArrayList<>();
+        for (String region : s.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics r = s.getCacheRegionStatistics(region);
+            if (r != null) {
+                this.cacheRegions.add(new CacheRegion(region, r.getHitCount(), r.getMissCount(),
+                        r.getPutCount(), r.getElementCountInMemory()));
+            }
+        }
+        this.cacheRegions.sort(Comparator.comparing(CacheRegion::getName));
+
+        this.queries = new ArrayList<>();
+        for (String query : s.getQueries()) {
+            this.queries.add(new Query(query, s.getQueryStatistics(query)));
+        }
+        this.queries.sort(Comparator.comparing(Query::getTotalMillis).reversed());
+    }
+
+    private void counter(String name, long count) {
+        this.counters.add(new Counter(name, count, this.seconds));
+    }
+
+    private static String simpleName(String name) {
+        return name.startsWith(DATAMODEL) ? name.substring(DATAMODEL.length()) : name;
+    }
+
+    private static double ratio(long hits, long misses) {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : hits / (double) lookups;
+    }
+
+    /**
+     * Returns the hit ratio of the second-level cache over all regions.
+     *
+     * @return double - hits / (hits + misses)
+     */
+    public double getSecondLevelCacheHitRatio() {
+        return ratio(this.statistics.getSecondLevelCacheHitCount(), this.statistics.getSecondLevelCacheMissCount());
+    }
+
+    /**
+     * Returns the hit ratio of the query cache.
+     *
+     * @return double - hits / (hits + misses)
+     */
+    public double getQueryCacheHitRatio() {
+        return ratio(this.statistics.getQueryCacheHitCount(), this.statistics.getQueryCacheMissCount());
+    }
+
+    /**
+     * Returns the time the statistics were started or reset.
+     *
+     * @return Date - the start time
+     */
+    public Date getStartTime() {
+        return new Date(this.statistics.getStartTime());
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Getter">
+    public double getSeconds() {
+        return seconds;
+    }
+
+    public List<Counter> getCounters() {
+        return counters;
+    }
+
+    public List<Loads> getLoads() {
+        return loads;
+    }
+
+    public List<CacheRegion> getCacheRegions() {
+        return cacheRegions;
+    }
+
+    public List<Query> getQueries() {
+        return queries;
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,4 @@
+/**
+ * Contains the controllers of the admin pages of the web application.
+ */
+package de.mcdb.contactmanagerweb.admin;
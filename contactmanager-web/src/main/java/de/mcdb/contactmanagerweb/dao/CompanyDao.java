@@ -1,26 +1,176 @@
 package de.mcdb.contactmanagerweb.dao;
 
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPADeleteClause;
 import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import de.mcdb.contactmanagerapi.ChangeSet;
+import de.mcdb.contactmanagerapi.ChangeTracking;
+import de.mcdb.contactmanagerapi.CursorStreams;
+import de.mcdb.contactmanagerapi.IdQueries;
+import de.mcdb.contactmanagerapi.RemovalPolicy;
 import de.mcdb.contactmanagerapi.datamodel.Company;
 import de.mcdb.contactmanagerapi.datamodel.Division;
 import static de.mcdb.contactmanagerapi.datamodel.QCompany.company;
-import java.util.ArrayList;
+import static de.mcdb.contactmanagerapi.datamodel.QDivision.division;
+import static de.mcdb.contactmanagerapi.datamodel.QStaffer.staffer;
+import static de.mcdb.contactmanagerapi.datamodel.QTombstone.tombstone;
+import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import de.mcdb.contactmanagerapi.datamodel.Tombstone;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 import javax.ejb.Stateless;
+import javax.interceptor.Interceptors;
 import javax.persistence.EntityManager;
+import org.hibernate.jpa.QueryHints;
 
 /**
  *
  * @author Mirko
  */
 @Stateless
+@Interceptors(MeteredInterceptor.class)
 public class CompanyDao implements de.mcdb.contactmanagerapi.Dao<Company> {
 
+    private static final TableColumns TABLE_COLUMNS = new TableColumns(company.id)
+            .add("name", company.name);
+
     private final EntityManager EM = HibernateUtils.getEntityManager();
 
+    /**
+     * The result is held in the query cache region
+     * {@value de.mcdb.contactmanagerapi.Dao#FIND_ALL_CACHE_REGION} and the Company<code>s</code> in the
+     * second-level cache, both are invalidated by every write to the table.
+     */
     @Override
     public List<Company> findAll() {
-        return new JPAQuery<>(EM).select(company).from(company).fetch();
+        return new JPAQuery<>(EM).select(company).from(company)
+                .setHint(QueryHints.HINT_CACHEABLE, true)
+                .setHint(QueryHints.HINT_CACHE_REGION, FIND_ALL_CACHE_REGION)
+                .fetch();
+    }
+
+    @Override
+    public List<Company> findAll(String graph) {
+        return new JPAQuery<>(EM).select(company).from(company).distinct()
+                .setHint(LOAD_GRAPH, EM.getEntityGraph(graph))
+                .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                .fetch();
+    }
+
+    @Override
+    public List<Company> findPage(long afterId, int limit) {
+        return new JPAQuery<>(EM).select(company).from(company)
+                .where(company.id.gt(afterId))
+                .orderBy(company.id.asc())
+                .limit(limit)
+                .fetch();
+    }
+
+    /**
+     * Looks for the next page of {@link Company}<code>s</code> after the
+     * submitted id, loaded with the submitted entity graph.
+     * <p>
+     * Clears the persistence context of this instance first, so the Companies
+     * are read from the database and not taken from earlier lookups.
+     *
+     * @param afterId id of the last Company of the previous page, 0 for the
+     * first page
+     * @param limit maximum number of Companies to return
+     * @param graph name of the entity graph to load, may be null
+     * @return List&lt;Company&gt; - List with the found Companies, ordered by id
+     */
+    public List<Company> findPage(long afterId, int limit, String graph) {
+        EM.clear();
+        JPAQuery<Company> query = new JPAQuery<>(EM).select(company).from(company)
+                .where(company.id.gt(afterId))
+                .orderBy(company.id.asc())
+                .limit(limit);
+        if (graph != null) {
+            query.setHint(LOAD_GRAPH, EM.getEntityGraph(graph));
+        }
+        return query.fetch();
+    }
+
+    @Override
+    public long count() {
+        return new JPAQuery<>(EM).select(company).from(company).fetchCount();
+    }
+
+    /**
+     * Looks for one page of a table of {@link Company}<code>s</code>. Sorting,
+     * filtering and paging are done by the database, see
+     * {@link TableColumns}.
+     * <p>
+     * Field names are <code>id</code> and <code>name</code>.
+     * <p>
+     * Clears the persistence context of this instance first, so the Companies
+     * are read from the database and not taken from earlier lookups, and the
+     * context does not grow with every page.
+     *
+     * @param first index of the first Company of the page
+     * @param pageSize maximum number of Companies to return
+     * @param sortField field name to sort by, null to sort by id
+     * @param ascending whether to sort ascending
+     * @param filters filter values by field name, may be null
+     * @return List&lt;Company&gt; - List with the found Companies
+     */
+    public List<Company> findTablePage(int first, int pageSize, String sortField, boolean ascending,
+            Map<String, Object> filters) {
+        EM.clear();
+        return new JPAQuery<>(EM).select(company).from(company)
+                .where(TABLE_COLUMNS.where(filters))
+                .orderBy(TABLE_COLUMNS.orderBy(sortField, ascending))
+                .offset(first)
+                .limit(pageSize)
+                .fetch();
+    }
+
+    /**
+     * Counts the {@link Company}<code>s</code> which match the submitted
+     * filters of {@link #findTablePage(int, int, String, boolean, Map)}.
+     *
+     * @param filters filter values by field name, may be null
+     * @return long - number of matching Companies
+     */
+    public long countTable(Map<String, Object> filters) {
+        return new JPAQuery<>(EM).select(company).from(company)
+                .where(TABLE_COLUMNS.where(filters))
+                .fetchCount();
+    }
+
+    /**
+     * Clears the persistence context of this instance first, so changed
+     * entities are read from the database and not taken from earlier lookups.
+     */
+    @Override
+    public ChangeSet<Company> findModifiedSince(Instant since) {
+        EM.clear();
+        Instant from = ChangeTracking.lowerBound(since);
+        return ChangeSet.of(since,
+                new JPAQuery<>(EM).select(company).from(company)
+                        .where(company.updatedAt.gt(from))
+                        .orderBy(company.updatedAt.asc())
+                        .fetch(),
+                Company::getUpdatedAt,
+                new JPAQuery<>(EM).select(tombstone).from(tombstone)
+                        .where(tombstone.entityType.eq(Tombstone.typeOf(Company.class)), tombstone.removedAt.gt(from))
+                        .fetch());
+    }
+
+    /**
+     * Uses a new {@link EntityManager} which is closed together with the
+     * returned {@link Stream}.
+     */
+    @Override
+    public Stream<Company> stream(int fetchSize) {
+        EntityManager streamEm = HibernateUtils.getEntityManager();
+        return CursorStreams.stream(streamEm, new JPAQuery<>(streamEm).select(company).from(company)
+                .orderBy(company.id.asc()), fetchSize);
     }
 
     @Override
@@ -28,6 +178,21 @@ public class CompanyDao implements de.mcdb.contactmanagerapi.Dao<Company> {
         return EM.find(Company.class, id);
     }
 
+    @Override
+    public Company findById(long id, String graph) {
+        return EM.find(Company.class, id, Collections.singletonMap(LOAD_GRAPH, EM.getEntityGraph(graph)));
+    }
+
+    /**
+     * Clears the persistence context of this instance first, so changed
+     * entities are read from the database and not taken from earlier lookups.
+     */
+    @Override
+    public List<Company> findByIds(Collection<Long> ids, String graph) {
+        EM.clear();
+        return IdQueries.queryByIds(EM, company, company.id, ids, graph);
+    }
+
     @Override
     public void persist(Company entity) {
         EM.getTransaction().begin();
@@ -35,6 +200,26 @@ public class CompanyDao implements de.mcdb.contactmanagerapi.Dao<Company> {
         EM.getTransaction().commit();
     }
 
+    @Override
+    public void persistAll(Collection<Company> entities) {
+        int batchSize = HibernateUtils.getBatchSize();
+        int count = 0;
+        EM.getTransaction().begin();
+        try {
+            for (Company entity : entities) {
+                EM.persist(entity);
+                if (++count % batchSize == 0) {
+                    EM.flush();
+                    EM.clear();
+                }
+            }
+            EM.getTransaction().commit();
+        } catch (RuntimeException e) {
+            EM.getTransaction().rollback();
+            throw e;
+        }
+    }
+
     @Override
     public void update(long id, Company entity) {
         EM.getTransaction().begin();
@@ -46,23 +231,58 @@ public class CompanyDao implements de.mcdb.contactmanagerapi.Dao<Company> {
         EM.getTransaction().commit();
     }
 
+    /**
+     * Calls {@link #remove(long, RemovalPolicy)} with
+     * {@link RemovalPolicy#ORPHAN}.
+     *
+     * @param id id of the wanted entity
+     */
     @Override
     public void remove(long id) {
-        EM.getTransaction().begin();
-
-        Company company = EM.find(Company.class, id);
+        remove(id, RemovalPolicy.ORPHAN);
+    }
 
-        if (company.getDivisions() != null && !company.getDivisions().isEmpty()) {
-            List<Division> divisions = new ArrayList<>();
-            divisions.addAll(company.getDivisions());
-            for (Division division : divisions) {
-                division = EM.find(Division.class, division.getId());
-                company.removeDivision(division);
+    /**
+     * Removes the {@link Company} with the submitted id and handles its
+     * {@link Division}<code>s</code> according to the submitted
+     * {@link RemovalPolicy} with a few set-based statements:
+     * <ul><li>{@link RemovalPolicy#ORPHAN}: the Divisions are kept without a
+     * Company</li>
+     * <li>{@link RemovalPolicy#CASCADE}: the Divisions and their
+     * {@link Staffer}<code>s</code> are removed as well</li></ul>
+     * <p>
+     * The bulk statements bypass the persistence context, so it is cleared
+     * afterwards to drop the removed and changed entities.
+     *
+     * @param id id of the wanted entity
+     * @param policy the {@link RemovalPolicy} for the Divisions of the Company
+     */
+    public void remove(long id, RemovalPolicy policy) {
+        EM.getTransaction().begin();
+        try {
+            if (policy == RemovalPolicy.CASCADE) {
+                ChangeTracking.recordTombstones(EM, Staffer.class,
+                        "e.division.id in (select d.id from Division d where d.company.id = :id)", id);
+                ChangeTracking.recordTombstones(EM, Division.class, "e.company.id = :id", id);
+                new JPADeleteClause(EM, staffer)
+                        .where(staffer.division.id.in(JPAExpressions.select(division.id).from(division)
+                                .where(division.company.id.eq(id))))
+                        .execute();
+                new JPADeleteClause(EM, division).where(division.company.id.eq(id)).execute();
+            } else {
+                new JPAUpdateClause(EM, division).setNull(division.company)
+                        .where(division.company.id.eq(id))
+                        .execute();
             }
+            ChangeTracking.recordTombstones(EM, Company.class, "e.id = :id", id);
+            new JPADeleteClause(EM, company).where(company.id.eq(id)).execute();
+            EM.getTransaction().commit();
+        } catch (RuntimeException e) {
+            EM.getTransaction().rollback();
+            throw e;
+        } finally {
+            EM.clear();
         }
-
-        EM.remove(company);
-        EM.getTransaction().commit();
     }
 
     /**
@@ -1,27 +1,199 @@
 package de.mcdb.contactmanagerweb.dao;
 
+import com.querydsl.jpa.impl.JPADeleteClause;
 import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import de.mcdb.contactmanagerapi.ChangeSet;
+import de.mcdb.contactmanagerapi.ChangeTracking;
+import de.mcdb.contactmanagerapi.CursorStreams;
+import de.mcdb.contactmanagerapi.IdQueries;
+import de.mcdb.contactmanagerapi.RemovalPolicy;
 import de.mcdb.contactmanagerapi.datamodel.Company;
 import de.mcdb.contactmanagerapi.datamodel.Division;
+import static de.mcdb.contactmanagerapi.datamodel.QCompany.company;
 import static de.mcdb.contactmanagerapi.datamodel.QDivision.division;
+import static de.mcdb.contactmanagerapi.datamodel.QStaffer.staffer;
+import static de.mcdb.contactmanagerapi.datamodel.QTombstone.tombstone;
 import de.mcdb.contactmanagerapi.datamodel.Staffer;
-import java.util.ArrayList;
+import de.mcdb.contactmanagerapi.datamodel.Tombstone;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 import javax.ejb.Stateless;
+import javax.interceptor.Interceptors;
 import javax.persistence.EntityManager;
+import org.hibernate.jpa.QueryHints;
 
 /**
  *
  * @author Mirko
  */
 @Stateless
+@Interceptors(MeteredInterceptor.class)
 public class DivisionDao implements de.mcdb.contactmanagerapi.Dao<Division> {
 
+    private static final TableColumns TABLE_COLUMNS = new TableColumns(division.id)
+            .add("name", division.name)
+            .add("company.name", company.name);
+
     private final EntityManager EM = HibernateUtils.getEntityManager();
 
+    /**
+     * The result is held in the query cache region
+     * {@value de.mcdb.contactmanagerapi.Dao#FIND_ALL_CACHE_REGION} and the Division<code>s</code> in the
+     * second-level cache, both are invalidated by every write to the table.
+     */
     @Override
     public List<Division> findAll() {
-        return new JPAQuery<>(EM).select(division).from(division).fetch();
+        return new JPAQuery<>(EM).select(division).from(division)
+                .setHint(QueryHints.HINT_CACHEABLE, true)
+                .setHint(QueryHints.HINT_CACHE_REGION, FIND_ALL_CACHE_REGION)
+                .fetch();
+    }
+
+    @Override
+    public List<Division> findAll(String graph) {
+        return new JPAQuery<>(EM).select(division).from(division).distinct()
+                .setHint(LOAD_GRAPH, EM.getEntityGraph(graph))
+                .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                .fetch();
+    }
+
+    @Override
+    public List<Division> findPage(long afterId, int limit) {
+        return new JPAQuery<>(EM).select(division).from(division)
+                .where(division.id.gt(afterId))
+                .orderBy(division.id.asc())
+                .limit(limit)
+                .fetch();
+    }
+
+    /**
+     * Looks for the next page of {@link Division}<code>s</code> after the
+     * submitted id, loaded with the submitted entity graph.
+     * <p>
+     * Clears the persistence context of this instance first, so the Divisions
+     * are read from the database and not taken from earlier lookups.
+     *
+     * @param afterId id of the last Division of the previous page, 0 for the
+     * first page
+     * @param limit maximum number of Divisions to return
+     * @param graph name of the entity graph to load, may be null
+     * @return List&lt;Division&gt; - List with the found Divisions, ordered by id
+     */
+    public List<Division> findPage(long afterId, int limit, String graph) {
+        EM.clear();
+        JPAQuery<Division> query = new JPAQuery<>(EM).select(division).from(division)
+                .where(division.id.gt(afterId))
+                .orderBy(division.id.asc())
+                .limit(limit);
+        if (graph != null) {
+            query.setHint(LOAD_GRAPH, EM.getEntityGraph(graph));
+        }
+        return query.fetch();
+    }
+
+    @Override
+    public long count() {
+        return new JPAQuery<>(EM).select(division).from(division).fetchCount();
+    }
+
+    /**
+     * Looks for one page of a table of {@link Division}<code>s</code> with
+     * their {@link Company}. Sorting, filtering and paging are done by the
+     * database, see {@link TableColumns}.
+     * <p>
+     * Field names are <code>id</code>, <code>name</code> and
+     * <code>company.name</code>.
+     * <p>
+     * Clears the persistence context of this instance first, so the Divisions
+     * are read from the database and not taken from earlier lookups, and the
+     * context does not grow with every page.
+     *
+     * @param first index of the first Division of the page
+     * @param pageSize maximum number of Divisions to return
+     * @param sortField field name to sort by, null to sort by id
+     * @param ascending whether to sort ascending
+     * @param filters filter values by field name, may be null
+     * @return List&lt;Division&gt; - List with the found Divisions
+     */
+    public List<Division> findTablePage(int first, int pageSize, String sortField, boolean ascending,
+            Map<String, Object> filters) {
+        EM.clear();
+        return new JPAQuery<>(EM).select(division).from(division)
+                .leftJoin(division.company, company).fetchJoin()
+                .where(TABLE_COLUMNS.where(filters))
+                .orderBy(TABLE_COLUMNS.orderBy(sortField, ascending))
+                .offset(first)
+                .limit(pageSize)
+                .fetch();
+    }
+
+    /**
+     * Counts the {@link Division}<code>s</code> which match the submitted
+     * filters of {@link #findTablePage(int, int, String, boolean, Map)}.
+     *
+     * @param filters filter values by field name, may be null
+     * @return long - number of matching Divisions
+     */
+    public long countTable(Map<String, Object> filters) {
+        return new JPAQuery<>(EM).select(division).from(division)
+                .leftJoin(division.company, company)
+                .where(TABLE_COLUMNS.where(filters))
+                .fetchCount();
+    }
+
+    /**
+     * The Divisions are loaded with the entity graph {@link Division#WITH_COMPANY}.
+     * <p>
+     * Clears the persistence context of this instance first, so changed
+     * entities are read from the database and not taken from earlier lookups.
+     */
+    @Override
+    public ChangeSet<Division> findModifiedSince(Instant since) {
+        EM.clear();
+        Instant from = ChangeTracking.lowerBound(since);
+        return ChangeSet.of(since,
+                new JPAQuery<>(EM).select(division).from(division)
+                        .where(division.updatedAt.gt(from))
+                        .setHint(LOAD_GRAPH, EM.getEntityGraph(Division.WITH_COMPANY))
+                        .orderBy(division.updatedAt.asc())
+                        .fetch(),
+                Division::getUpdatedAt,
+                new JPAQuery<>(EM).select(tombstone).from(tombstone)
+                        .where(tombstone.entityType.eq(Tombstone.typeOf(Division.class)), tombstone.removedAt.gt(from))
+                        .fetch());
+    }
+
+    /**
+     * Uses a new {@link EntityManager} which is closed together with the
+     * returned {@link Stream}.
+     */
+    @Override
+    public Stream<Division> stream(int fetchSize) {
+        EntityManager streamEm = HibernateUtils.getEntityManager();
+        return CursorStreams.stream(streamEm, new JPAQuery<>(streamEm).select(division).from(division)
+                .orderBy(division.id.asc()), fetchSize);
+    }
+
+    /**
+     * Like {@link #stream(int)}, with the Divisions loaded with the submitted
+     * entity graph.
+     *
+     * @param fetchSize number of rows to fetch per JDBC round-trip
+     * @param graph name of the entity graph to load
+     * @return Stream&lt;Division&gt; - Stream with all Divisions ordered by id, to be
+     * closed after use
+     */
+    public Stream<Division> stream(int fetchSize, String graph) {
+        EntityManager streamEm = HibernateUtils.getEntityManager();
+        JPAQuery<Division> query = new JPAQuery<>(streamEm).select(division).from(division)
+                .orderBy(division.id.asc());
+        query.setHint(LOAD_GRAPH, streamEm.getEntityGraph(graph));
+        return CursorStreams.stream(streamEm, query, fetchSize);
     }
 
     @Override
@@ -29,6 +201,21 @@ public class DivisionDao implements de.mcdb.contactmanagerapi.Dao<Division> {
         return EM.find(Division.class, id);
     }
 
+    @Override
+    public Division findById(long id, String graph) {
+        return EM.find(Division.class, id, Collections.singletonMap(LOAD_GRAPH, EM.getEntityGraph(graph)));
+    }
+
+    /**
+     * Clears the persistence context of this instance first, so changed
+     * entities are read from the database and not taken from earlier lookups.
+     */
+    @Override
+    public List<Division> findByIds(Collection<Long> ids, String graph) {
+        EM.clear();
+        return IdQueries.queryByIds(EM, division, division.id, ids, graph);
+    }
+
     @Override
     public void persist(Division entity) {
         EM.getTransaction().begin();
@@ -40,6 +227,26 @@ public class DivisionDao implements de.mcdb.contactmanagerapi.Dao<Division> {
         EM.getTransaction().commit();
     }
 
+    @Override
+    public void persistAll(Collection<Division> entities) {
+        int batchSize = HibernateUtils.getBatchSize();
+        int count = 0;
+        EM.getTransaction().begin();
+        try {
+            for (Division entity : entities) {
+                EM.persist(entity);
+                if (++count % batchSize == 0) {
+                    EM.flush();
+                    EM.clear();
+                }
+            }
+            EM.getTransaction().commit();
+        } catch (RuntimeException e) {
+            EM.getTransaction().rollback();
+            throw e;
+        }
+    }
+
     @Override
     public void update(long id, Division entity) {
         EM.getTransaction().begin();
@@ -57,27 +264,52 @@ public class DivisionDao implements de.mcdb.contactmanagerapi.Dao<Division> {
         EM.getTransaction().commit();
     }
 
+    /**
+     * Calls {@link #remove(long, RemovalPolicy)} with
+     * {@link RemovalPolicy#ORPHAN}.
+     *
+     * @param id id of the wanted entity
+     */
     @Override
     public void remove(long id) {
-        EM.getTransaction().begin();
-        Division division = EM.find(Division.class, id);
-
-        if (division.getCompany() != null) {
-            Company company = EM.find(Company.class, division.getCompany().getId());
-            company.removeDivision(division);
-        }
+        remove(id, RemovalPolicy.ORPHAN);
+    }
 
-        if (division.getStaffers() != null && !division.getStaffers().isEmpty()) {
-            List<Staffer> staffers = new ArrayList<>();
-            staffers.addAll(division.getStaffers());
-            for (Staffer staffer : staffers) {
-                staffer = EM.find(Staffer.class, staffer.getId());
-                division.removeStaffer(staffer);
+    /**
+     * Removes the {@link Division} with the submitted id and handles its
+     * {@link Staffer}<code>s</code> according to the submitted
+     * {@link RemovalPolicy} with a few set-based statements:
+     * <ul><li>{@link RemovalPolicy#ORPHAN}: the Staffers are kept without a
+     * Division</li>
+     * <li>{@link RemovalPolicy#CASCADE}: the Staffers are removed as
+     * well</li></ul>
+     * <p>
+     * The bulk statements bypass the persistence context, so it is cleared
+     * afterwards to drop the removed and changed entities.
+     *
+     * @param id id of the wanted entity
+     * @param policy the {@link RemovalPolicy} for the Staffers of the Division
+     */
+    public void remove(long id, RemovalPolicy policy) {
+        EM.getTransaction().begin();
+        try {
+            if (policy == RemovalPolicy.CASCADE) {
+                ChangeTracking.recordTombstones(EM, Staffer.class, "e.division.id = :id", id);
+                new JPADeleteClause(EM, staffer).where(staffer.division.id.eq(id)).execute();
+            } else {
+                new JPAUpdateClause(EM, staffer).setNull(staffer.division)
+                        .where(staffer.division.id.eq(id))
+                        .execute();
             }
+            ChangeTracking.recordTombstones(EM, Division.class, "e.id = :id", id);
+            new JPADeleteClause(EM, division).where(division.id.eq(id)).execute();
+            EM.getTransaction().commit();
+        } catch (RuntimeException e) {
+            EM.getTransaction().rollback();
+            throw e;
+        } finally {
+            EM.clear();
         }
-
-        EM.remove(division);
-        EM.getTransaction().commit();
     }
 
     /**
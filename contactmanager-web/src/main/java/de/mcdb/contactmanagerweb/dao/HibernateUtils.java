@@ -1,11 +1,23 @@
 package de.mcdb.contactmanagerweb.dao;
 
+import de.mcdb.contactmanagerapi.ConnectionPoolSettings;
+import java.util.Map;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
+import javax.sql.DataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
 
 /**
  * Class with static methods to interact with the Hibernate framework.
+ * <p>
+ * The {@link EntityManagerFactory} gets its connections from a HikariCP
+ * connection pool configured by {@link ConnectionPoolSettings}, which also
+ * supplies the JDBC URL, user and password from the environment.
  *
  * @author Mirko Schulze
  */
@@ -13,7 +25,30 @@ public class HibernateUtils {
 
     private static final String PERSISTENCE_UNIT = "ContactManagerWebPU";
 
-    private static final EntityManagerFactory EMF = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT);
+    private static final int DEFAULT_BATCH_SIZE = 50;
+
+    private static final EntityManagerFactory EMF = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT, settings());
+
+    /**
+     * Returns the settings of the connection pool, and turns on the
+     * {@link Statistics} for the admin pages unless they are configured with
+     * a system property.
+     * <p>
+     * The persistence unit holds no connection data, so the JDBC URL, user and
+     * password have to be set with the environment variables or system
+     * properties read by {@link ConnectionPoolSettings}.
+     *
+     * @throws IllegalStateException if the JDBC URL or user is not set
+     */
+    private static Map<String, String> settings() {
+        Map<String, String> settings = ConnectionPoolSettings.load();
+        if (!settings.containsKey(AvailableSettings.JPA_JDBC_URL) || !settings.containsKey(AvailableSettings.JPA_JDBC_USER)) {
+            throw new IllegalStateException("No database connection configured, set " + ConnectionPoolSettings.URL_ENV
+                    + ", " + ConnectionPoolSettings.USER_ENV + " and " + ConnectionPoolSettings.PASSWORD_ENV);
+        }
+        settings.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, "true");
+        return settings;
+    }
 
     /**
      * Creates and returns a new {@link EntityManager}.
@@ -24,6 +59,49 @@ public class HibernateUtils {
         return EMF.createEntityManager();
     }
 
+    /**
+     * Returns the pooled {@link DataSource} the {@link EntityManagerFactory}
+     * gets its connections from, to run plain JDBC statements on the same
+     * connection pool.
+     *
+     * @return DataSource - the pooled DataSource
+     */
+    public static DataSource getDataSource() {
+        return EMF.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+                .getService(ConnectionProvider.class).unwrap(DataSource.class);
+    }
+
+    /**
+     * Returns the JDBC batch size configured with the hibernate.jdbc.batch_size
+     * property of the persistence unit, or 50 if it is not set.
+     *
+     * @return int - the JDBC batch size
+     */
+    public static int getBatchSize() {
+        Object batchSize = EMF.getProperties().get(AvailableSettings.STATEMENT_BATCH_SIZE);
+        return batchSize != null ? Integer.parseInt(batchSize.toString()) : DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Returns the {@link Statistics} of the {@link EntityManagerFactory}, e.g.
+     * the hit and miss counts of the second-level and the query cache.
+     *
+     * @return Statistics - the statistics of the EntityManagerFactory
+     */
+    public static Statistics getStatistics() {
+        return EMF.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Evicts all entities, collections and query results from the
+     * second-level cache. To be called after the database was changed without
+     * Hibernate, e.g. with plain JDBC.
+     */
+    public static void evictCaches() {
+        EMF.getCache().evictAll();
+        EMF.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
     /**
      * Static method to shut down the {@link EntityManagerFactory}.
      */
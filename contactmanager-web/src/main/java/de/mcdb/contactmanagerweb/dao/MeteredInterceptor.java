@@ -0,0 +1,81 @@
+package de.mcdb.contactmanagerweb.dao;
+
+import de.mcdb.contactmanagerapi.Dao;
+import de.mcdb.contactmanagerapi.metrics.DaoMetrics;
+import de.mcdb.contactmanagerapi.metrics.OperationMetrics;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.InvocationContext;
+
+/**
+ * Interceptor which records the latency, the errors and the rows of every
+ * business method of a {@link Dao} in {@link DaoMetrics#getDefault()}, under
+ * the simple name of the entity class and the name of the method.
+ * <p>
+ * Rows are counted from the result with {@link DaoMetrics#rowsOf(Object)}.
+ * Methods without result count the size of a {@link Collection} parameter, or
+ * 1. A number returned by a method whose name does not start with
+ * <code>count</code> is taken as number of changed rows.
+ *
+ * @author Mirko Schulze
+ */
+public class MeteredInterceptor {
+
+    private static final ConcurrentMap<Class<?>, String> ENTITIES = new ConcurrentHashMap<>();
+
+    @AroundInvoke
+    public Object measure(InvocationContext context) throws Exception {
+        Method method = context.getMethod();
+        OperationMetrics metrics = DaoMetrics.getDefault()
+                .get(ENTITIES.computeIfAbsent(context.getTarget().getClass(), MeteredInterceptor::entityOf), method.getName());
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = context.proceed();
+        } catch (Exception | Error e) {
+            metrics.recordError(System.nanoTime() - start);
+            throw e;
+        }
+        metrics.record(System.nanoTime() - start, rowsOf(method, context.getParameters(), result));
+        return result;
+    }
+
+    private static long rowsOf(Method method, Object[] parameters, Object result) {
+        if (method.getReturnType() == void.class) {
+            for (Object parameter : parameters) {
+                if (parameter instanceof Collection) {
+                    return ((Collection<?>) parameter).size();
+                }
+            }
+            return 1;
+        }
+        if (result instanceof Number && !method.getName().startsWith("count")) {
+            return ((Number) result).longValue();
+        }
+        return DaoMetrics.rowsOf(result);
+    }
+
+    /**
+     * Returns the simple name of the entity class of the submitted
+     * {@link Dao} class, or of the class itself if it is no Dao.
+     */
+    private static String entityOf(Class<?> daoClass) {
+        for (Class<?> c = daoClass; c != null; c = c.getSuperclass()) {
+            for (Type type : c.getGenericInterfaces()) {
+                if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == Dao.class) {
+                    Type entity = ((ParameterizedType) type).getActualTypeArguments()[0];
+                    if (entity instanceof Class) {
+                        return ((Class<?>) entity).getSimpleName();
+                    }
+                }
+            }
+        }
+        return daoClass.getSimpleName();
+    }
+
+}
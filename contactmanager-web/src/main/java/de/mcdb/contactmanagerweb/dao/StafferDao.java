@@ -1,20 +1,48 @@
 package de.mcdb.contactmanagerweb.dao;
 
+import com.querydsl.core.types.Projections;
 import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import de.mcdb.contactmanagerapi.ChangeSet;
+import de.mcdb.contactmanagerapi.ChangeTracking;
+import de.mcdb.contactmanagerapi.CursorStreams;
+import de.mcdb.contactmanagerapi.IdQueries;
+import de.mcdb.contactmanagerapi.ManagedEntities;
 import de.mcdb.contactmanagerapi.datamodel.Division;
+import static de.mcdb.contactmanagerapi.datamodel.QCompany.company;
+import static de.mcdb.contactmanagerapi.datamodel.QDivision.division;
 import static de.mcdb.contactmanagerapi.datamodel.QStaffer.staffer;
+import static de.mcdb.contactmanagerapi.datamodel.QTombstone.tombstone;
 import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import de.mcdb.contactmanagerapi.datamodel.Tombstone;
+import de.mcdb.contactmanagerapi.readmodel.StafferRow;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.Map;
+import java.util.stream.Stream;
 import javax.ejb.Stateless;
+import javax.interceptor.Interceptors;
 import javax.persistence.EntityManager;
+import org.hibernate.jpa.QueryHints;
 
 /**
  *
  * @author Mirko
  */
 @Stateless
+@Interceptors(MeteredInterceptor.class)
 public class StafferDao implements de.mcdb.contactmanagerapi.Dao<Staffer> {
 
+    private static final TableColumns TABLE_COLUMNS = new TableColumns(staffer.id)
+            .add("foreName", staffer.foreName)
+            .add("surName", staffer.surName)
+            .add("divisionName", division.name)
+            .add("companyName", company.name);
+
     private final EntityManager EM = HibernateUtils.getEntityManager();
 
     @Override
@@ -22,11 +50,211 @@ public class StafferDao implements de.mcdb.contactmanagerapi.Dao<Staffer> {
         return new JPAQuery<>(EM).select(staffer).from(staffer).fetch();
     }
 
+    @Override
+    public List<Staffer> findAll(String graph) {
+        return new JPAQuery<>(EM).select(staffer).from(staffer).distinct()
+                .setHint(LOAD_GRAPH, EM.getEntityGraph(graph))
+                .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                .fetch();
+    }
+
+    /**
+     * Looks for all {@link Staffer}<code>s</code> and returns them as flat
+     * {@link StafferRow}<code>s</code>, ordered by id.
+     * <p>
+     * Division and Company names are fetched with outer joins in the same
+     * query, no entity is loaded and no further query is sent, however many
+     * rows there are.
+     *
+     * @return List&lt;StafferRow&gt; - List with the found rows
+     */
+    public List<StafferRow> findAllRows() {
+        return rows().orderBy(staffer.id.asc()).fetch();
+    }
+
+    /**
+     * Looks for the {@link Staffer}<code>s</code> with the submitted ids and
+     * returns them as flat {@link StafferRow}<code>s</code>, ordered by id.
+     * Ids without a Staffer are skipped.
+     * <p>
+     * The ids are queried in chunks of at most
+     * {@value IdQueries#CHUNK_SIZE}.
+     *
+     * @param ids ids of the wanted Staffers
+     * @return List&lt;StafferRow&gt; - List with the found rows
+     */
+    public List<StafferRow> findRows(Collection<Long> ids) {
+        return IdQueries.inChunks(ids, chunk -> rows()
+                .where(staffer.id.in(chunk))
+                .orderBy(staffer.id.asc())
+                .fetch());
+    }
+
+    /**
+     * Looks for one page of a table of {@link Staffer}<code>s</code> as flat
+     * {@link StafferRow}<code>s</code>. Sorting, filtering and paging are done
+     * by the database, see {@link TableColumns}.
+     * <p>
+     * Field names are <code>id</code>, <code>foreName</code>,
+     * <code>surName</code>, <code>divisionName</code> and
+     * <code>companyName</code>.
+     *
+     * @param first index of the first row of the page
+     * @param pageSize maximum number of rows to return
+     * @param sortField field name to sort by, null to sort by id
+     * @param ascending whether to sort ascending
+     * @param filters filter values by field name, may be null
+     * @return List&lt;StafferRow&gt; - List with the found rows
+     */
+    public List<StafferRow> findTablePage(int first, int pageSize, String sortField, boolean ascending,
+            Map<String, Object> filters) {
+        return rows()
+                .where(TABLE_COLUMNS.where(filters))
+                .orderBy(TABLE_COLUMNS.orderBy(sortField, ascending))
+                .offset(first)
+                .limit(pageSize)
+                .fetch();
+    }
+
+    /**
+     * Counts the {@link Staffer}<code>s</code> which match the submitted
+     * filters of {@link #findTablePage(int, int, String, boolean, Map)}.
+     *
+     * @param filters filter values by field name, may be null
+     * @return long - number of matching Staffers
+     */
+    public long countTable(Map<String, Object> filters) {
+        return new JPAQuery<>(EM).select(staffer).from(staffer)
+                .leftJoin(staffer.division, division)
+                .leftJoin(division.company, company)
+                .where(TABLE_COLUMNS.where(filters))
+                .fetchCount();
+    }
+
+    /**
+     * Creates the projection query for {@link StafferRow}<code>s</code>, with
+     * outer joins to the Division and Company of each Staffer.
+     *
+     * @return JPAQuery&lt;StafferRow&gt; - the query without conditions
+     */
+    private JPAQuery<StafferRow> rows() {
+        return new JPAQuery<>(EM)
+                .select(Projections.constructor(StafferRow.class,
+                        staffer.id, staffer.foreName, staffer.surName, division.id, division.name, company.id, company.name))
+                .from(staffer)
+                .leftJoin(staffer.division, division)
+                .leftJoin(division.company, company);
+    }
+
+    @Override
+    public List<Staffer> findPage(long afterId, int limit) {
+        return new JPAQuery<>(EM).select(staffer).from(staffer)
+                .where(staffer.id.gt(afterId))
+                .orderBy(staffer.id.asc())
+                .limit(limit)
+                .fetch();
+    }
+
+    /**
+     * Looks for the next page of {@link Staffer}<code>s</code> after the
+     * submitted id, loaded with the submitted entity graph.
+     * <p>
+     * Clears the persistence context of this instance first, so the Staffers
+     * are read from the database and not taken from earlier lookups.
+     *
+     * @param afterId id of the last Staffer of the previous page, 0 for the
+     * first page
+     * @param limit maximum number of Staffers to return
+     * @param graph name of the entity graph to load, may be null
+     * @return List&lt;Staffer&gt; - List with the found Staffers, ordered by id
+     */
+    public List<Staffer> findPage(long afterId, int limit, String graph) {
+        EM.clear();
+        JPAQuery<Staffer> query = new JPAQuery<>(EM).select(staffer).from(staffer)
+                .where(staffer.id.gt(afterId))
+                .orderBy(staffer.id.asc())
+                .limit(limit);
+        if (graph != null) {
+            query.setHint(LOAD_GRAPH, EM.getEntityGraph(graph));
+        }
+        return query.fetch();
+    }
+
+    @Override
+    public long count() {
+        return new JPAQuery<>(EM).select(staffer).from(staffer).fetchCount();
+    }
+
+    /**
+     * The Staffers are loaded with the entity graph {@link Staffer#WITH_DIVISION_AND_COMPANY}.
+     * <p>
+     * Clears the persistence context of this instance first, so changed
+     * entities are read from the database and not taken from earlier lookups.
+     */
+    @Override
+    public ChangeSet<Staffer> findModifiedSince(Instant since) {
+        EM.clear();
+        Instant from = ChangeTracking.lowerBound(since);
+        return ChangeSet.of(since,
+                new JPAQuery<>(EM).select(staffer).from(staffer)
+                        .where(staffer.updatedAt.gt(from))
+                        .setHint(LOAD_GRAPH, EM.getEntityGraph(Staffer.WITH_DIVISION_AND_COMPANY))
+                        .orderBy(staffer.updatedAt.asc())
+                        .fetch(),
+                Staffer::getUpdatedAt,
+                new JPAQuery<>(EM).select(tombstone).from(tombstone)
+                        .where(tombstone.entityType.eq(Tombstone.typeOf(Staffer.class)), tombstone.removedAt.gt(from))
+                        .fetch());
+    }
+
+    /**
+     * Uses a new {@link EntityManager} which is closed together with the
+     * returned {@link Stream}.
+     */
+    @Override
+    public Stream<Staffer> stream(int fetchSize) {
+        EntityManager streamEm = HibernateUtils.getEntityManager();
+        return CursorStreams.stream(streamEm, new JPAQuery<>(streamEm).select(staffer).from(staffer)
+                .orderBy(staffer.id.asc()), fetchSize);
+    }
+
+    /**
+     * Like {@link #stream(int)}, with the Staffers loaded with the submitted
+     * entity graph.
+     *
+     * @param fetchSize number of rows to fetch per JDBC round-trip
+     * @param graph name of the entity graph to load
+     * @return Stream&lt;Staffer&gt; - Stream with all Staffers ordered by id, to be
+     * closed after use
+     */
+    public Stream<Staffer> stream(int fetchSize, String graph) {
+        EntityManager streamEm = HibernateUtils.getEntityManager();
+        JPAQuery<Staffer> query = new JPAQuery<>(streamEm).select(staffer).from(staffer)
+                .orderBy(staffer.id.asc());
+        query.setHint(LOAD_GRAPH, streamEm.getEntityGraph(graph));
+        return CursorStreams.stream(streamEm, query, fetchSize);
+    }
+
     @Override
     public Staffer findById(long id) {
         return EM.find(Staffer.class, id);
     }
 
+    @Override
+    public Staffer findById(long id, String graph) {
+        return EM.find(Staffer.class, id, Collections.singletonMap(LOAD_GRAPH, EM.getEntityGraph(graph)));
+    }
+
+    /**
+     * Clears the persistence context of this instance first, so changed
+     * entities are read from the database and not taken from earlier lookups.
+     */
+    @Override
+    public List<Staffer> findByIds(Collection<Long> ids, String graph) {
+        EM.clear();
+        return IdQueries.queryByIds(EM, staffer, staffer.id, ids, graph);
+    }
+
     @Override
     public void persist(Staffer entity) {
         EM.getTransaction().begin();
@@ -38,6 +266,26 @@ public class StafferDao implements de.mcdb.contactmanagerapi.Dao<Staffer> {
         EM.getTransaction().commit();
     }
 
+    @Override
+    public void persistAll(Collection<Staffer> entities) {
+        int batchSize = HibernateUtils.getBatchSize();
+        int count = 0;
+        EM.getTransaction().begin();
+        try {
+            for (Staffer entity : entities) {
+                EM.persist(entity);
+                if (++count % batchSize == 0) {
+                    EM.flush();
+                    EM.clear();
+                }
+            }
+            EM.getTransaction().commit();
+        } catch (RuntimeException e) {
+            EM.getTransaction().rollback();
+            throw e;
+        }
+    }
+
     @Override
     public void update(long id, Staffer entity) {
         EM.getTransaction().begin();
@@ -54,6 +302,54 @@ public class StafferDao implements de.mcdb.contactmanagerapi.Dao<Staffer> {
         EM.getTransaction().commit();
     }
 
+    /**
+     * Moves the {@link Staffer}<code>s</code> with the submitted ids to the
+     * {@link Division} with the submitted id.
+     * <p>
+     * The foreign keys are changed with a bulk update, split into statements
+     * of at most {@value IdQueries#CHUNK_SIZE} ids, in one
+     * transaction. Staffers which are already loaded by this DAO are moved in
+     * memory with {@link Division#addStaffers(Collection)} and then detached,
+     * so the bulk update is not repeated on flush and the next lookup reads
+     * them fresh.
+     * <p>
+     * The transaction must commit within {@link ChangeTracking#OVERLAP},
+     * otherwise clients polling {@link #findModifiedSince(Instant)} miss the
+     * moved Staffers.
+     *
+     * @param stafferIds ids of the Staffers to move
+     * @param targetDivisionId id of the Division to move the Staffers to
+     * @return long - number of updated Staffers
+     * @throws IllegalArgumentException if no Division with the submitted id
+     * exists
+     */
+    public long reassignStaffers(Collection<Long> stafferIds, long targetDivisionId) {
+        Set<Long> ids = new LinkedHashSet<>(stafferIds);
+        long updated = 0;
+        EM.getTransaction().begin();
+        try {
+            Division target = EM.find(Division.class, targetDivisionId);
+            if (target == null) {
+                throw new IllegalArgumentException("No " + Division.class.getSimpleName() + " with id " + targetDivisionId);
+            }
+            for (List<Long> chunk : IdQueries.chunked(ids)) {
+                updated += new JPAUpdateClause(EM, staffer).set(staffer.division, target)
+                        .where(staffer.id.in(chunk))
+                        .execute();
+            }
+            List<Staffer> managed = ManagedEntities.findManaged(EM, Staffer.class, ids);
+            target.addStaffers(managed);
+            managed.forEach(EM::detach);
+            EM.getTransaction().commit();
+        } catch (RuntimeException e) {
+            if (EM.getTransaction().isActive()) {
+                EM.getTransaction().rollback();
+            }
+            throw e;
+        }
+        return updated;
+    }
+
     @Override
     public void remove(long id) {
         EM.getTransaction().begin();
@@ -64,6 +360,7 @@ public class StafferDao implements de.mcdb.contactmanagerapi.Dao<Staffer> {
             division.removeStaffer(staffer);
         }
 
+        ChangeTracking.recordTombstones(EM, Staffer.class, "e.id = :id", id);
         EM.remove(staffer);
 
         EM.getTransaction().commit();
@@ -0,0 +1,114 @@
+package de.mcdb.contactmanagerweb.dao;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.core.types.dsl.StringExpression;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps the field names of a paged table to QueryDSL expressions, so sorting
+ * and column filtering of the table are done by the database.
+ * <p>
+ * Text columns are filtered with <code>LIKE 'value%'</code>, which can use an
+ * index and ignores case with the default collation of MySQL. Number columns
+ * have to be Long columns and are filtered by equality. Every order ends with
+ * the id, so pages are stable when sort values are equal.
+ *
+ * @author Mirko Schulze
+ */
+class TableColumns {
+
+    private final Map<String, ComparableExpressionBase<?>> columns = new HashMap<>();
+
+    private final NumberExpression<Long> id;
+
+    /**
+     * Creates new TableColumns with the submitted id column under the field
+     * name <code>id</code>.
+     *
+     * @param id the id column of the table
+     */
+    TableColumns(NumberExpression<Long> id) {
+        this.id = id;
+        this.columns.put("id", id);
+    }
+
+    /**
+     * Adds a column which can be sorted and filtered.
+     *
+     * @param field the field name used by the table
+     * @param column the expression of the column
+     * @return TableColumns - this instance
+     */
+    TableColumns add(String field, ComparableExpressionBase<?> column) {
+        this.columns.put(field, column);
+        return this;
+    }
+
+    /**
+     * Creates the condition for the submitted column filters. Empty filter
+     * values are ignored.
+     *
+     * @param filters the filter values by field name, may be null
+     * @return Predicate - the condition for all filters
+     * @throws IllegalArgumentException if a field is unknown or can not be
+     * filtered
+     */
+    @SuppressWarnings("unchecked")
+    Predicate where(Map<String, Object> filters) {
+        BooleanBuilder where = new BooleanBuilder();
+        if (filters == null) {
+            return where;
+        }
+        for (Map.Entry<String, Object> filter : filters.entrySet()) {
+            String value = filter.getValue() == null ? "" : filter.getValue().toString().trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            ComparableExpressionBase<?> column = this.column(filter.getKey());
+            if (column instanceof StringExpression) {
+                where.and(((StringExpression) column).startsWith(value));
+            } else if (column instanceof NumberExpression) {
+                try {
+                    where.and(((NumberExpression<Long>) column).eq(Long.valueOf(value)));
+                } catch (NumberFormatException e) {
+                    where.and(Expressions.FALSE.isTrue());
+                }
+            } else {
+                throw new IllegalArgumentException("Column " + filter.getKey() + " can not be filtered");
+            }
+        }
+        return where;
+    }
+
+    /**
+     * Creates the order for the submitted sort field, followed by the id.
+     *
+     * @param sortField the field name to sort by, null to sort by id only
+     * @param ascending whether to sort ascending
+     * @return OrderSpecifier&lt;?&gt;[] - the order for the query
+     * @throws IllegalArgumentException if the field is unknown
+     */
+    OrderSpecifier<?>[] orderBy(String sortField, boolean ascending) {
+        OrderSpecifier<Long> byId = ascending ? this.id.asc() : this.id.desc();
+        if (sortField == null || sortField.isEmpty() || this.column(sortField) == this.id) {
+            return new OrderSpecifier<?>[]{byId};
+        }
+        ComparableExpressionBase<?> column = this.column(sortField);
+        return new OrderSpecifier<?>[]{ascending ? column.asc() : column.desc(), byId};
+    }
+
+    private ComparableExpressionBase<?> column(String field) {
+        ComparableExpressionBase<?> column = this.columns.get(field);
+        if (column == null) {
+            throw new IllegalArgumentException("Unknown column " + field);
+        }
+        return column;
+    }
+
+}
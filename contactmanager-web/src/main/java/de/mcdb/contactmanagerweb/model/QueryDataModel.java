@@ -0,0 +1,152 @@
+package de.mcdb.contactmanagerweb.model;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SortOrder;
+
+/**
+ * {@link LazyDataModel} which loads only the shown page of a
+ * <code>p:dataTable</code>. Paging, sorting and column filtering are passed to
+ * a query of a DAO, so the time to render a page does not grow with the
+ * number of rows in the database.
+ * <p>
+ * The queries are passed as {@link Serializable} functions, usually method
+ * references of an injected DAO, so the model can be held in a session.
+ *
+ * @param <T> type of the rows
+ * @author Mirko Schulze
+ */
+public class QueryDataModel<T> extends LazyDataModel<T> {
+
+    /**
+     * Query for one page of rows.
+     *
+     * @param <T> type of the rows
+     */
+    @FunctionalInterface
+    public interface PageQuery<T> extends Serializable {
+
+        /**
+         * Looks for one page of rows.
+         *
+         * @param first index of the first row of the page
+         * @param pageSize maximum number of rows to return
+         * @param sortField field name to sort by, null to sort by id
+         * @param ascending whether to sort ascending
+         * @param filters filter values by field name
+         * @return List&lt;T&gt; - the rows of the page
+         */
+        public List<T> find(int first, int pageSize, String sortField, boolean ascending, Map<String, Object> filters);
+    }
+
+    /**
+     * Query for the number of rows which match the filters.
+     */
+    @FunctionalInterface
+    public interface CountQuery extends Serializable {
+
+        /**
+         * Counts the rows which match the submitted filters.
+         *
+         * @param filters filter values by field name
+         * @return long - number of matching rows
+         */
+        public long count(Map<String, Object> filters);
+    }
+
+    /**
+     * Function to read the id of a row.
+     *
+     * @param <T> type of the rows
+     */
+    @FunctionalInterface
+    public interface IdFunction<T> extends Serializable {
+
+        /**
+         * Returns the id of the submitted row.
+         *
+         * @param row the row
+         * @return long - the id of the row
+         */
+        public long idOf(T row);
+    }
+
+    private final PageQuery<T> pageQuery;
+
+    private final CountQuery countQuery;
+
+    private final IdFunction<T> idFunction;
+
+    /**
+     * Creates a new QueryDataModel.
+     *
+     * @param pageQuery query for one page of rows
+     * @param countQuery query for the number of matching rows
+     * @param idFunction function to read the id of a row, used as row key
+     */
+    public QueryDataModel(PageQuery<T> pageQuery, CountQuery countQuery, IdFunction<T> idFunction) {
+        this.pageQuery = pageQuery;
+        this.countQuery = countQuery;
+        this.idFunction = idFunction;
+    }
+
+    /**
+     * Counts the matching rows and loads the requested page, unless there
+     * are none.
+     */
+    @Override
+    public List<T> load(int first, int pageSize, String sortField, SortOrder sortOrder, Map<String, Object> filters) {
+        long count = this.countQuery.count(filters);
+        this.setRowCount((int) Math.min(count, Integer.MAX_VALUE));
+        if (count <= first) {
+            return Collections.emptyList();
+        }
+        boolean sorted = sortOrder != null && sortOrder != SortOrder.UNSORTED;
+        return this.pageQuery.find(first, pageSize, sorted ? sortField : null, sortOrder != SortOrder.DESCENDING, filters);
+    }
+
+    /**
+     * Returns whether the submitted filters contain any value which is not
+     * empty.
+     *
+     * @param filters filter values by field name, may be null
+     * @return boolean - true if at least one filter is set
+     */
+    public static boolean hasFilters(Map<String, Object> filters) {
+        if (filters == null) {
+            return false;
+        }
+        for (Object value : filters.values()) {
+            if (value != null && !value.toString().trim().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Object getRowKey(T row) {
+        return this.idFunction.idOf(row);
+    }
+
+    /**
+     * Looks for the row with the submitted key in the loaded page.
+     */
+    @Override
+    public T getRowData(String rowKey) {
+        List<T> rows = this.getWrappedData();
+        if (rows == null) {
+            return null;
+        }
+        for (T row : rows) {
+            if (String.valueOf(this.idFunction.idOf(row)).equals(rowKey)) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,5 @@
+/**
+ * Contains the data models of the PrimeFaces tables, which load their rows
+ * page by page from the DAOs.
+ */
+package de.mcdb.contactmanagerweb.model;
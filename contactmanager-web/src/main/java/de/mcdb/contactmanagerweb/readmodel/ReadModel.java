@@ -0,0 +1,96 @@
+package de.mcdb.contactmanagerweb.readmodel;
+
+import de.mcdb.contactmanagerapi.ChangeSet;
+import de.mcdb.contactmanagerapi.datamodel.Company;
+import de.mcdb.contactmanagerapi.datamodel.Division;
+import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import de.mcdb.contactmanagerweb.dao.CompanyDao;
+import de.mcdb.contactmanagerweb.dao.DivisionDao;
+import de.mcdb.contactmanagerweb.dao.StafferDao;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read model shared by all sessions of the web application.
+ * <p>
+ * Holds the current {@link Snapshot} of all entities in an
+ * {@link AtomicReference}. A background timer asks the DAOs for their changes
+ * with {@link de.mcdb.contactmanagerapi.Dao#findModifiedSince(java.time.Instant)}
+ * and replaces the Snapshot with a new one, copy-on-write, so readers never
+ * see a half applied refresh and never wait for it. The whole tables are
+ * read once at startup; later refreshes only read the changed rows.
+ * <p>
+ * Sessions hold a reference to this bean only and ask for
+ * {@link #getSnapshot()} when they need rows, so a session costs no memory
+ * for the data, however many sessions there are.
+ *
+ * @author Mirko Schulze
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class ReadModel {
+
+    private static final Logger L = LoggerFactory.getLogger(ReadModel.class);
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    @Inject
+    private StafferDao stafferDao;
+
+    @Inject
+    private DivisionDao divisionDao;
+
+    @Inject
+    private CompanyDao companyDao;
+
+    /**
+     * Loads the first Snapshot. If the database is not reachable, the
+     * Snapshot stays empty until the next scheduled refresh.
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            this.refresh();
+        } catch (RuntimeException e) {
+            L.warn("Loading the first snapshot of [{}] failed", ReadModel.class.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Reads the changes since the current {@link Snapshot} and replaces it
+     * with a new one. Called every 10 seconds.
+     * <p>
+     * Children are read before their parents, so a Company or Division which
+     * was created meanwhile is found by the same refresh as its children.
+     */
+    @Schedule(second = "*/10", minute = "*", hour = "*", persistent = false)
+    public synchronized void refresh() {
+        Snapshot current = this.snapshot.get();
+        ChangeSet<Staffer> staffers = this.stafferDao.findModifiedSince(current.getStaffersSince());
+        ChangeSet<Division> divisions = this.divisionDao.findModifiedSince(current.getDivisionsSince());
+        ChangeSet<Company> companies = this.companyDao.findModifiedSince(current.getCompaniesSince());
+        this.snapshot.set(current.apply(companies, divisions, staffers));
+    }
+
+    /**
+     * Returns the current {@link Snapshot}. Never blocks.
+     *
+     * @return Snapshot - the current Snapshot
+     */
+    public Snapshot getSnapshot() {
+        return this.snapshot.get();
+    }
+
+}
@@ -0,0 +1,250 @@
+package de.mcdb.contactmanagerweb.readmodel;
+
+import de.mcdb.contactmanagerapi.ChangeSet;
+import de.mcdb.contactmanagerapi.datamodel.Company;
+import de.mcdb.contactmanagerapi.datamodel.Division;
+import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import de.mcdb.contactmanagerapi.readmodel.CompanyRow;
+import de.mcdb.contactmanagerapi.readmodel.DivisionRow;
+import de.mcdb.contactmanagerapi.readmodel.StafferRow;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Immutable state of all {@link Company}, {@link Division} and
+ * {@link Staffer} entities as flat rows, indexed by id and by parent.
+ * <p>
+ * A Snapshot is never changed: {@link #apply(ChangeSet, ChangeSet, ChangeSet)}
+ * returns a new Snapshot and leaves this one intact, so readers may hold it as
+ * long as they like without locking. Names of Companies and Divisions are
+ * copied into the rows of their children when a Snapshot is built, so a
+ * renamed Company shows up in all its rows. A parent which is not known yet
+ * keeps its id in the rows, its name follows with the refresh which finds it.
+ *
+ * @author Mirko Schulze
+ */
+public final class Snapshot {
+
+    /**
+     * Snapshot without any rows, which asks for all entities on the next
+     * refresh.
+     */
+    public static final Snapshot EMPTY = of(Collections.emptyMap(), Collections.emptyMap(),
+            Collections.emptyMap(), null, null, null);
+
+    private static final Comparator<DivisionRow> DIVISION_ORDER = Comparator
+            .comparing(DivisionRow::getName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparingLong(DivisionRow::getId);
+
+    private static final Comparator<StafferRow> STAFFER_ORDER = Comparator
+            .comparing(StafferRow::getSurName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(StafferRow::getForeName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparingLong(StafferRow::getId);
+
+    private final Map<Long, CompanyRow> companies;
+
+    private final Map<Long, DivisionRow> divisions;
+
+    private final Map<Long, StafferRow> staffers;
+
+    private final Map<Long, List<DivisionRow>> divisionsByCompany;
+
+    private final Map<Long, List<StafferRow>> staffersByDivision;
+
+    private final Instant companiesSince, divisionsSince, staffersSince;
+
+    private Snapshot(Map<Long, CompanyRow> companies, Map<Long, DivisionRow> divisions,
+            Map<Long, StafferRow> staffers, Map<Long, List<DivisionRow>> divisionsByCompany,
+            Map<Long, List<StafferRow>> staffersByDivision, Instant companiesSince, Instant divisionsSince,
+            Instant staffersSince) {
+        this.companies = companies;
+        this.divisions = divisions;
+        this.staffers = staffers;
+        this.divisionsByCompany = divisionsByCompany;
+        this.staffersByDivision = staffersByDivision;
+        this.companiesSince = companiesSince;
+        this.divisionsSince = divisionsSince;
+        this.staffersSince = staffersSince;
+    }
+
+    private static Snapshot of(Map<Long, CompanyRow> companies, Map<Long, DivisionRow> divisions,
+            Map<Long, StafferRow> staffers, Instant companiesSince, Instant divisionsSince, Instant staffersSince) {
+        return new Snapshot(Collections.unmodifiableMap(companies), Collections.unmodifiableMap(divisions),
+                Collections.unmodifiableMap(staffers),
+                index(divisions.values(), DivisionRow::getCompanyId, DIVISION_ORDER),
+                index(staffers.values(), StafferRow::getDivisionId, STAFFER_ORDER),
+                companiesSince, divisionsSince, staffersSince);
+    }
+
+    /**
+     * Returns a new Snapshot with the submitted changes. If there are none,
+     * the new Snapshot shares all rows and indexes with this one.
+     * <p>
+     * The rows of Divisions and Staffers are rebuilt if a Company or
+     * Division changed, to copy the new names. Rows which stay equal are
+     * shared with this Snapshot.
+     *
+     * @param companyChanges changes of Companies since
+     * {@link #getCompaniesSince()}
+     * @param divisionChanges changes of Divisions since
+     * {@link #getDivisionsSince()}, loaded with their Company
+     * @param stafferChanges changes of Staffers since
+     * {@link #getStaffersSince()}, loaded with their Division and Company
+     * @return Snapshot - the new Snapshot
+     */
+    public Snapshot apply(ChangeSet<Company> companyChanges, ChangeSet<Division> divisionChanges,
+            ChangeSet<Staffer> stafferChanges) {
+        if (companyChanges.isEmpty() && divisionChanges.isEmpty() && stafferChanges.isEmpty()) {
+            return new Snapshot(this.companies, this.divisions, this.staffers, this.divisionsByCompany,
+                    this.staffersByDivision, companyChanges.getNextSince(), divisionChanges.getNextSince(),
+                    stafferChanges.getNextSince());
+        }
+        Map<Long, CompanyRow> newCompanies = new HashMap<>(this.companies);
+        for (Company company : companyChanges.getModified()) {
+            newCompanies.put(company.getId(), new CompanyRow(company.getId(), company.getName()));
+        }
+        newCompanies.keySet().removeAll(companyChanges.getRemovedIds());
+
+        Map<Long, DivisionRow> newDivisions = new HashMap<>(this.divisions);
+        for (Division division : divisionChanges.getModified()) {
+            Long companyId = division.getCompany() == null ? null : division.getCompany().getId();
+            newDivisions.put(division.getId(), new DivisionRow(division.getId(), division.getName(), companyId, null));
+        }
+        newDivisions.keySet().removeAll(divisionChanges.getRemovedIds());
+        boolean parentsChanged = !companyChanges.isEmpty() || !divisionChanges.isEmpty();
+        if (parentsChanged) {
+            newDivisions.replaceAll((id, row) -> withCompany(row, newCompanies));
+        }
+
+        Map<Long, StafferRow> newStaffers = new HashMap<>(this.staffers);
+        for (Staffer staffer : stafferChanges.getModified()) {
+            Long divisionId = staffer.getDivision() == null ? null : staffer.getDivision().getId();
+            newStaffers.put(staffer.getId(), withDivision(new StafferRow(staffer.getId(), staffer.getForeName(),
+                    staffer.getSurName(), divisionId, null, null, null), newDivisions));
+        }
+        newStaffers.keySet().removeAll(stafferChanges.getRemovedIds());
+        if (parentsChanged) {
+            newStaffers.replaceAll((id, row) -> withDivision(row, newDivisions));
+        }
+        return of(newCompanies, newDivisions, newStaffers,
+                companyChanges.getNextSince(), divisionChanges.getNextSince(), stafferChanges.getNextSince());
+    }
+
+    private static DivisionRow withCompany(DivisionRow row, Map<Long, CompanyRow> companies) {
+        CompanyRow company = row.getCompanyId() == null ? null : companies.get(row.getCompanyId());
+        String companyName = company == null ? null : company.getName();
+        if (Objects.equals(companyName, row.getCompanyName())) {
+            return row;
+        }
+        return new DivisionRow(row.getId(), row.getName(), row.getCompanyId(), companyName);
+    }
+
+    private static StafferRow withDivision(StafferRow row, Map<Long, DivisionRow> divisions) {
+        DivisionRow division = row.getDivisionId() == null ? null : divisions.get(row.getDivisionId());
+        String divisionName = division == null ? null : division.getName();
+        Long companyId = division == null ? row.getCompanyId() : division.getCompanyId();
+        String companyName = division == null ? null : division.getCompanyName();
+        if (Objects.equals(divisionName, row.getDivisionName()) && Objects.equals(companyId, row.getCompanyId())
+                && Objects.equals(companyName, row.getCompanyName())) {
+            return row;
+        }
+        return new StafferRow(row.getId(), row.getForeName(), row.getSurName(), row.getDivisionId(), divisionName,
+                companyId, companyName);
+    }
+
+    private static <R> Map<Long, List<R>> index(Iterable<R> rows, Function<R, Long> parentOf,
+            Comparator<R> order) {
+        Map<Long, List<R>> index = new HashMap<>();
+        for (R row : rows) {
+            Long parentId = parentOf.apply(row);
+            if (parentId != null) {
+                index.computeIfAbsent(parentId, id -> new ArrayList<>()).add(row);
+            }
+        }
+        index.replaceAll((id, children) -> {
+            children.sort(order);
+            return Collections.unmodifiableList(children);
+        });
+        return Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Returns whether this Snapshot was read from the database, which is
+     * false only for {@link #EMPTY}.
+     *
+     * @return boolean - true if this Snapshot was read from the database
+     */
+    public boolean isLoaded() {
+        return this != EMPTY;
+    }
+
+    /**
+     * Returns the rows of the Divisions of the Company with the submitted id,
+     * ordered by name.
+     *
+     * @param companyId id of the Company
+     * @return List&lt;DivisionRow&gt; - unmodifiable List of the rows
+     */
+    public List<DivisionRow> divisionsOf(long companyId) {
+        return this.divisionsByCompany.getOrDefault(companyId, Collections.emptyList());
+    }
+
+    /**
+     * Returns the rows of the Staffers of the Division with the submitted id,
+     * ordered by surname and forename.
+     *
+     * @param divisionId id of the Division
+     * @return List&lt;StafferRow&gt; - unmodifiable List of the rows
+     */
+    public List<StafferRow> staffersOf(long divisionId) {
+        return this.staffersByDivision.getOrDefault(divisionId, Collections.emptyList());
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Getter">
+    /**
+     * Returns the rows of all Companies by id.
+     *
+     * @return Map&lt;Long, CompanyRow&gt; - unmodifiable Map of the rows
+     */
+    public Map<Long, CompanyRow> getCompanies() {
+        return companies;
+    }
+
+    /**
+     * Returns the rows of all Divisions by id.
+     *
+     * @return Map&lt;Long, DivisionRow&gt; - unmodifiable Map of the rows
+     */
+    public Map<Long, DivisionRow> getDivisions() {
+        return divisions;
+    }
+
+    /**
+     * Returns the rows of all Staffers by id.
+     *
+     * @return Map&lt;Long, StafferRow&gt; - unmodifiable Map of the rows
+     */
+    public Map<Long, StafferRow> getStaffers() {
+        return staffers;
+    }
+
+    public Instant getCompaniesSince() {
+        return companiesSince;
+    }
+
+    public Instant getDivisionsSince() {
+        return divisionsSince;
+    }
+
+    public Instant getStaffersSince() {
+        return staffersSince;
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,5 @@
+/**
+ * Contains the read model which is shared by all sessions of the web
+ * application.
+ */
+package de.mcdb.contactmanagerweb.readmodel;
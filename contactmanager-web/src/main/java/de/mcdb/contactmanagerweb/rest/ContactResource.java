@@ -0,0 +1,213 @@
+package de.mcdb.contactmanagerweb.rest;
+
+import de.mcdb.contactmanagerapi.CursorStreams;
+import de.mcdb.contactmanagerapi.datamodel.Company;
+import de.mcdb.contactmanagerapi.datamodel.Division;
+import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import de.mcdb.contactmanagerweb.dao.CompanyDao;
+import de.mcdb.contactmanagerweb.dao.DivisionDao;
+import de.mcdb.contactmanagerweb.dao.StafferDao;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+
+/**
+ * Read-only JSON API for {@link Company}, {@link Division} and
+ * {@link Staffer} entities.
+ * <p>
+ * <code>GET /api/companies</code>, <code>/api/divisions</code> and
+ * <code>/api/staffers</code> return one page of entities ordered by id. Pages
+ * are addressed by the id of the last entity of the previous page
+ * (<code>?after=</code>), so every page is an index range scan, however deep
+ * it is. A page looks like <code>{"items":[...],"next":42}</code>, where
+ * <code>next</code> is the <code>after</code> value of the following page, or
+ * null on the last page.
+ * <p>
+ * Every page has an ETag computed from the ids and last-modified times of its
+ * entities. A request with a matching <code>If-None-Match</code> header is
+ * answered with 304 Not Modified and no body.
+ * <p>
+ * <code>GET /api/export</code> writes all entities with a streaming
+ * {@link JsonGenerator} straight from database cursors to the response, so
+ * the export never holds more than one fetch of rows in memory.
+ *
+ * @author Mirko Schulze
+ */
+@Path("")
+@RequestScoped
+@Produces(MediaType.APPLICATION_JSON)
+public class ContactResource {
+
+    /**
+     * Number of entities per page if the request does not ask for a limit.
+     */
+    public static final int DEFAULT_LIMIT = 100;
+
+    /**
+     * Maximum number of entities per page.
+     */
+    public static final int MAX_LIMIT = 1000;
+
+    private static final CacheControl REVALIDATE = CacheControl.valueOf("no-cache");
+
+    @Inject
+    private StafferDao stafferDao;
+
+    @Inject
+    private DivisionDao divisionDao;
+
+    @Inject
+    private CompanyDao companyDao;
+
+    @Context
+    private Request request;
+
+    @Context
+    private UriInfo uriInfo;
+
+    /**
+     * Returns the page of {@link Company}<code>s</code> after the submitted
+     * id.
+     *
+     * @param after id of the last Company of the previous page
+     * @param limit maximum number of Companies
+     * @return Response - the page, or 304 if it is unchanged
+     */
+    @GET
+    @Path("companies")
+    public Response companies(@QueryParam("after") @DefaultValue("0") long after,
+            @QueryParam("limit") @DefaultValue("" + DEFAULT_LIMIT) int limit) {
+        checkPage(after, limit);
+        return this.page(this.companyDao.findPage(after, limit, null), limit,
+                Company::getId, Company::getUpdatedAt, JsonWriter::write);
+    }
+
+    /**
+     * Returns the page of {@link Division}<code>s</code> after the submitted
+     * id.
+     *
+     * @param after id of the last Division of the previous page
+     * @param limit maximum number of Divisions
+     * @return Response - the page, or 304 if it is unchanged
+     */
+    @GET
+    @Path("divisions")
+    public Response divisions(@QueryParam("after") @DefaultValue("0") long after,
+            @QueryParam("limit") @DefaultValue("" + DEFAULT_LIMIT) int limit) {
+        checkPage(after, limit);
+        return this.page(this.divisionDao.findPage(after, limit, Division.WITH_COMPANY), limit,
+                Division::getId, Division::getUpdatedAt, JsonWriter::write);
+    }
+
+    /**
+     * Returns the page of {@link Staffer}<code>s</code> after the submitted
+     * id.
+     *
+     * @param after id of the last Staffer of the previous page
+     * @param limit maximum number of Staffers
+     * @return Response - the page, or 304 if it is unchanged
+     */
+    @GET
+    @Path("staffers")
+    public Response staffers(@QueryParam("after") @DefaultValue("0") long after,
+            @QueryParam("limit") @DefaultValue("" + DEFAULT_LIMIT) int limit) {
+        checkPage(after, limit);
+        return this.page(this.stafferDao.findPage(after, limit, Staffer.WITH_DIVISION), limit,
+                Staffer::getId, Staffer::getUpdatedAt, JsonWriter::write);
+    }
+
+    /**
+     * Writes all entities as
+     * <code>{"companies":[...],"divisions":[...],"staffers":[...]}</code>.
+     * <p>
+     * The three tables are read one after another, each with its own cursor,
+     * so the export is not one consistent snapshot if the data is changed
+     * meanwhile.
+     *
+     * @return Response - the streamed export
+     */
+    @GET
+    @Path("export")
+    public Response export() {
+        StreamingOutput body = (OutputStream out) -> {
+            try (JsonGenerator json = Json.createGenerator(out)) {
+                json.writeStartObject();
+                int fetchSize = CursorStreams.DEFAULT_FETCH_SIZE;
+                writeAll(json, "companies", this.companyDao.stream(fetchSize), JsonWriter::write);
+                writeAll(json, "divisions", this.divisionDao.stream(fetchSize, Division.WITH_COMPANY), JsonWriter::write);
+                writeAll(json, "staffers", this.stafferDao.stream(fetchSize, Staffer.WITH_DIVISION), JsonWriter::write);
+                json.writeEnd();
+            }
+        };
+        return Response.ok(body).build();
+    }
+
+    private static <T> void writeAll(JsonGenerator json, String name, Stream<T> entities,
+            BiConsumer<JsonGenerator, T> writer) {
+        json.writeStartArray(name);
+        try (Stream<T> stream = entities) {
+            stream.forEach(entity -> writer.accept(json, entity));
+        }
+        json.writeEnd();
+    }
+
+    /**
+     * Answers with 304 if the ETag of the page matches the
+     * <code>If-None-Match</code> header of the request, or with the page
+     * written by the submitted writer.
+     */
+    private <T> Response page(List<T> entities, int limit, ToLongFunction<T> idOf,
+            Function<T, Instant> updatedAt, BiConsumer<JsonGenerator, T> writer) {
+        EntityTag tag = JsonWriter.etag(this.uriInfo.getRequestUri().toString(), entities, idOf, updatedAt);
+        Response.ResponseBuilder notModified = this.request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.cacheControl(REVALIDATE).build();
+        }
+        StreamingOutput body = (OutputStream out) -> {
+            try (JsonGenerator json = Json.createGenerator(out)) {
+                json.writeStartObject().writeStartArray("items");
+                entities.forEach(entity -> writer.accept(json, entity));
+                json.writeEnd();
+                if (entities.size() < limit) {
+                    json.writeNull("next");
+                } else {
+                    json.write("next", idOf.applyAsLong(entities.get(entities.size() - 1)));
+                }
+                json.writeEnd();
+            }
+        };
+        return Response.ok(body).tag(tag).cacheControl(REVALIDATE).build();
+    }
+
+    private static void checkPage(long after, int limit) {
+        if (after < 0) {
+            throw new BadRequestException("after must be >= 0, was " + after);
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIMIT + ", was " + limit);
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package de.mcdb.contactmanagerweb.rest;
+
+import de.mcdb.contactmanagerapi.datamodel.Company;
+import de.mcdb.contactmanagerapi.datamodel.Division;
+import de.mcdb.contactmanagerapi.datamodel.Staffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import javax.json.stream.JsonGenerator;
+import javax.ws.rs.core.EntityTag;
+
+/**
+ * Class with static methods to write entities with a streaming
+ * {@link JsonGenerator} and to compute the {@link EntityTag} of a page.
+ * <p>
+ * Entities are written flat, with the ids instead of the objects of their
+ * parents, so the JSON of an entity changes only together with its
+ * last-modified time.
+ *
+ * @author Mirko Schulze
+ */
+class JsonWriter {
+
+    /**
+     * Writes the submitted {@link Company} as JSON object.
+     *
+     * @param json the generator to write with
+     * @param company the Company to write
+     */
+    static void write(JsonGenerator json, Company company) {
+        json.writeStartObject()
+                .write("id", company.getId());
+        writeString(json, "name", company.getName());
+        writeTime(json, company.getUpdatedAt());
+        json.writeEnd();
+    }
+
+    /**
+     * Writes the submitted {@link Division} as JSON object. The Company has
+     * to be loaded.
+     *
+     * @param json the generator to write with
+     * @param division the Division to write
+     */
+    static void write(JsonGenerator json, Division division) {
+        json.writeStartObject()
+                .write("id", division.getId());
+        writeString(json, "name", division.getName());
+        writeId(json, "companyId", division.getCompany() == null ? null : division.getCompany().getId());
+        writeTime(json, division.getUpdatedAt());
+        json.writeEnd();
+    }
+
+    /**
+     * Writes the submitted {@link Staffer} as JSON object. The Division has
+     * to be loaded.
+     *
+     * @param json the generator to write with
+     * @param staffer the Staffer to write
+     */
+    static void write(JsonGenerator json, Staffer staffer) {
+        json.writeStartObject()
+                .write("id", staffer.getId());
+        writeString(json, "foreName", staffer.getForeName());
+        writeString(json, "surName", staffer.getSurName());
+        writeId(json, "divisionId", staffer.getDivision() == null ? null : staffer.getDivision().getId());
+        writeTime(json, staffer.getUpdatedAt());
+        json.writeEnd();
+    }
+
+    private static void writeString(JsonGenerator json, String name, String value) {
+        if (value == null) {
+            json.writeNull(name);
+        } else {
+            json.write(name, value);
+        }
+    }
+
+    private static void writeId(JsonGenerator json, String name, Long id) {
+        if (id == null) {
+            json.writeNull(name);
+        } else {
+            json.write(name, id);
+        }
+    }
+
+    private static void writeTime(JsonGenerator json, Instant time) {
+        writeString(json, "updatedAt", time == null ? null : time.toString());
+    }
+
+    /**
+     * Computes a strong {@link EntityTag} for a page from the ids and
+     * last-modified times of its entities. The tag changes if an entity of
+     * the page is changed, removed or added.
+     *
+     * @param <T> type of the entities
+     * @param key the request the page was read for, e.g. its path and
+     * parameters
+     * @param entities the entities of the page
+     * @param idOf function to read the id of an entity
+     * @param updatedAt function to read the last-modified time of an entity
+     * @return EntityTag - the tag of the page
+     */
+    static <T> EntityTag etag(String key, List<T> entities, ToLongFunction<T> idOf, Function<T, Instant> updatedAt) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder sb = new StringBuilder(key);
+        for (T entity : entities) {
+            sb.append('|').append(idOf.applyAsLong(entity)).append('@').append(updatedAt.apply(entity));
+        }
+        byte[] hash = digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+        StringBuilder tag = new StringBuilder(32);
+        for (int i = 0; i < 16; i++) {
+            tag.append(String.format("%02x", hash[i]));
+        }
+        return new EntityTag(tag.toString());
+    }
+
+}
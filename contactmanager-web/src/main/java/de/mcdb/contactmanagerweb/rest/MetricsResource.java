@@ -0,0 +1,50 @@
+package de.mcdb.contactmanagerweb.rest;
+
+import de.mcdb.contactmanagerapi.metrics.DaoMetrics;
+import de.mcdb.contactmanagerweb.admin.StatisticsController;
+import java.io.IOException;
+import javax.enterprise.context.RequestScoped;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+
+/**
+ * Serves the metrics of the DAO operations as plain text in the Prometheus
+ * text format at <code>GET /api/metrics</code>, see
+ * {@link DaoMetrics#writeText(Appendable)}. Restricted to the role
+ * {@value StatisticsController#ADMIN_ROLE} in <code>web.xml</code>, and the
+ * role is checked again for every request.
+ *
+ * @author Mirko Schulze
+ */
+@Path("metrics")
+@RequestScoped
+public class MetricsResource {
+
+    private static final String TEXT_FORMAT = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * Returns the current metrics of all DAO operations which were called
+     * since the start of the application.
+     *
+     * @param security the {@link SecurityContext} of the request
+     * @return Response - the metrics as text, or 403 if the user does not
+     * have the role {@value StatisticsController#ADMIN_ROLE}
+     * @throws IOException never, the text is written to a StringBuilder
+     */
+    @GET
+    @Produces(TEXT_FORMAT)
+    public Response metrics(@Context SecurityContext security) throws IOException {
+        if (!security.isUserInRole(StatisticsController.ADMIN_ROLE)) {
+            return Response.status(Response.Status.FORBIDDEN).build();
+        }
+        StringBuilder text = new StringBuilder();
+        DaoMetrics.getDefault().writeText(text);
+        return Response.ok(text.toString()).cacheControl(CacheControl.valueOf("no-store")).build();
+    }
+
+}
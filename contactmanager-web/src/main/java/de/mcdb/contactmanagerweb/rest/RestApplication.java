@@ -0,0 +1,15 @@
+package de.mcdb.contactmanagerweb.rest;
+
+import javax.ws.rs.ApplicationPath;
+import javax.ws.rs.core.Application;
+
+/**
+ * Activates JAX-RS for the resources of this package below
+ * <code>/api</code>.
+ *
+ * @author Mirko Schulze
+ */
+@ApplicationPath("api")
+public class RestApplication extends Application {
+
+}
@@ -0,0 +1,5 @@
+/**
+ * Contains the JSON REST API of the web application, which is served below
+ * <code>/api</code>.
+ */
+package de.mcdb.contactmanagerweb.rest;